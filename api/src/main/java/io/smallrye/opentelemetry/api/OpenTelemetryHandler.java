@@ -10,6 +10,13 @@ import io.opentelemetry.api.logs.Logger;
 import io.opentelemetry.api.logs.Severity;
 
 public class OpenTelemetryHandler extends Handler {
+    // the logs of the SDK and of the exporters are not exported, a failing export would log and export again
+    private static final String[] IGNORED_LOGGERS = {
+            "io.opentelemetry.sdk.",
+            "io.opentelemetry.exporter.",
+            "io.smallrye.opentelemetry.implementation.exporters."
+    };
+
     private final Logger logger;
 
     public OpenTelemetryHandler(final Logger logger) {
@@ -18,6 +25,14 @@ public class OpenTelemetryHandler extends Handler {
 
     @Override
     public void publish(final LogRecord record) {
+        String loggerName = record.getLoggerName();
+        if (loggerName != null) {
+            for (String ignored : IGNORED_LOGGERS) {
+                if (loggerName.startsWith(ignored)) {
+                    return;
+                }
+            }
+        }
         logger.logRecordBuilder()
                 .setTimestamp(record.getInstant())
                 .setSeverity(toSeverity(record.getLevel()))
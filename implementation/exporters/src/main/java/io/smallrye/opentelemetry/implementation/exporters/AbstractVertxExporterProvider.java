@@ -3,34 +3,105 @@ package io.smallrye.opentelemetry.implementation.exporters;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.MIMETYPE_PROTOBUF;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_ENDPOINT;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_ENDPOINT;
-import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_VERTX_CDI_QUALIFIER;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTLP_GRPC_ENDPOINT;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTLP_HTTP_PROTOBUF_ENDPOINT;
-import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getCompression;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ADAPTIVE_BATCH_ENABLED;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ADAPTIVE_BATCH_MAX_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ADAPTIVE_BATCH_MIN_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ADAPTIVE_BATCH_TARGET_LATENCY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_ENABLED;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_FAILURE_RATE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_HALF_OPEN_PROBES;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_MINIMUM_CALLS;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_OPEN_DURATION;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_SLOW_CALL_DURATION;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_SLOW_CALL_RATE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CIRCUIT_BREAKER_WINDOW_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_CONNECTION_MAX_AGE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_DNS_REFRESH_INTERVAL;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ENCODING_CHUNK_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ENCODING_MODE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ENCODING_WORKER_POOL_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ENCODING_WORKER_QUEUE_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_FILE_COMPRESSION;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_FILE_DIRECTORY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_FILE_MAX_AGE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_FILE_MAX_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_FILE_SEGMENT_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_INFLIGHT_BLOCK_TIMEOUT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_INFLIGHT_MAX_BYTES;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_INFLIGHT_MAX_REQUESTS;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_INFLIGHT_POLICY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_LOAD_BALANCING_POLICY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_MAX_REQUEST_BYTES;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RETRY_BUDGET_PERCENT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RETRY_INITIAL_BACKOFF;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RETRY_JITTER;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RETRY_MAX_ATTEMPTS;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RETRY_MAX_BACKOFF;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RING_DIRECTORY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RING_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SHEDDING_LATENCY_THRESHOLD;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SHEDDING_MAX_PENDING_ITEMS;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SHEDDING_POLICY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SHEDDING_SEVERITY_THRESHOLD;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SPOOL_DIRECTORY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SPOOL_DRAIN_RATE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SPOOL_MAX_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SPOOL_SEGMENT_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getCompressor;
+import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getConfig;
 import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getOtlpEndpoint;
 import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getTimeout;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import jakarta.enterprise.inject.Instance;
-import jakarta.enterprise.inject.spi.CDI;
-
+import io.opentelemetry.api.logs.Severity;
 import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.exporter.internal.ExporterBuilderUtil;
+import io.opentelemetry.exporter.internal.compression.Compressor;
 import io.opentelemetry.exporter.internal.grpc.GrpcExporter;
 import io.opentelemetry.exporter.internal.http.HttpExporter;
 import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
-import io.smallrye.common.annotation.Identifier;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.AutoConfigureListener;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.smallrye.opentelemetry.implementation.exporters.compression.Compressors;
+import io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter;
+import io.smallrye.opentelemetry.implementation.exporters.file.SegmentFileWriter;
+import io.smallrye.opentelemetry.implementation.exporters.sender.CircuitBreaker;
+import io.smallrye.opentelemetry.implementation.exporters.sender.ConnectionRebalancer;
+import io.smallrye.opentelemetry.implementation.exporters.sender.DiskSpool;
+import io.smallrye.opentelemetry.implementation.exporters.sender.EncodingExecutor;
+import io.smallrye.opentelemetry.implementation.exporters.sender.Endpoint;
+import io.smallrye.opentelemetry.implementation.exporters.sender.EndpointSelector;
+import io.smallrye.opentelemetry.implementation.exporters.sender.InFlightLimiter;
+import io.smallrye.opentelemetry.implementation.exporters.sender.RetryPolicy;
+import io.smallrye.opentelemetry.implementation.exporters.sender.SenderMetrics;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxGrpcSender;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxHttpSender;
 import io.vertx.core.Vertx;
 
-public abstract class AbstractVertxExporterProvider<T extends Marshaler> {
+public abstract class AbstractVertxExporterProvider<T extends Marshaler> implements AutoConfigureListener {
     private final String signalType;
     private final String exporterName;
+    // the exporters are created while the SDK is built, its meter provider is only available afterwards
+    private final AtomicReference<MeterProvider> meterProvider = new AtomicReference<>(MeterProvider.noop());
 
     private static final Logger logger = Logger.getLogger(AbstractVertxExporterProvider.class.getName());
 
@@ -47,59 +118,452 @@ public abstract class AbstractVertxExporterProvider<T extends Marshaler> {
         return signalType;
     }
 
+    /**
+     * The exporters record their metrics with the meter provider of the SDK they are created for, the metrics of the
+     * metric exporter included. The sender does not trace its own requests.
+     */
+    @Override
+    public void afterAutoConfigure(OpenTelemetrySdk sdk) {
+        meterProvider.set(sdk.getMeterProvider());
+    }
+
     protected GrpcExporter<T> createGrpcExporter(ConfigProperties config, String grpcEndpointPath) throws URISyntaxException {
-        return new GrpcExporter<>(getName(), getSignalType(), createGrpcSender(config, grpcEndpointPath), MeterProvider::noop);
+        return new GrpcExporter<>(getName(), getSignalType(), createGrpcSender(config, grpcEndpointPath), meterProvider::get);
     }
 
     protected HttpExporter<T> createHttpExporter(ConfigProperties config, String httpEndpointPath) throws URISyntaxException {
-        return new HttpExporter<>(getName(), getSignalType(), createHttpSender(config, httpEndpointPath), MeterProvider::noop,
-                false);//TODO: this will be enhanced in the future
+        return new HttpExporter<>(getName(), getSignalType(), createHttpSender(config, httpEndpointPath), meterProvider::get,
+                false);
+    }
+
+    /**
+     * The Vert.x instance of the exporters, from CDI or shared. A Unix domain socket endpoint requires the native
+     * transport of Netty on the Vert.x instance.
+     *
+     * @see SharedVertx#acquire(ConfigProperties)
+     */
+    private Vertx getVertx(ConfigProperties config, EndpointSelector endpoints) {
+        Vertx vertx = SharedVertx.acquire(config);
+        for (Endpoint endpoint : endpoints.getEndpoints()) {
+            if (OtlpExporterUtil.isUnixDomainSocket(endpoint.getUri()) && !vertx.isNativeTransportEnabled()) {
+                SharedVertx.release(vertx);
+                throw new ConfigurationException("The OTLP endpoint " + endpoint.getUri()
+                        + " is a Unix domain socket, which requires the native transport of Netty: "
+                        + "io.netty:netty-transport-native-epoll on Linux, or io.netty:netty-transport-native-kqueue on macOS",
+                        vertx.unavailableNativeTransportCause());
+            }
+        }
+        return vertx;
     }
 
     /**
-     * If the CDI qualifier is specified in the config, it tries to get it from CDI, and if CDI does not provide such
-     * an instance on the specified qualifier, it will log some WARNING messages and return a new Vertx instance.
-     * If the CDI qualifier is not specified in the config, it creates a new Vertx instance.
+     * Encoding happens on the thread calling the exporter, unless the worker mode is configured, in which case a
+     * dedicated pool with a bounded queue is created for the sender. The streamed requests always get the pool, their
+     * writers block while the requests drain.
+     *
+     * @param streaming whether the requests are streamed, see {@link #getStreamingChunkSize(ConfigProperties)}
      */
-    private Vertx getVertx(ConfigProperties config) {
-        String cdiQualifier = config.getString(OTEL_EXPORTER_VERTX_CDI_QUALIFIER);
-        if (cdiQualifier != null && !cdiQualifier.isEmpty()) {
-            Instance<Vertx> vertxCDI = CDI.current().select(Vertx.class, Identifier.Literal.of(cdiQualifier));
-            if (vertxCDI != null && vertxCDI.isResolvable()) {
-                return vertxCDI.get();
-            } else {
-                logger.log(Level.WARNING, "The Vertx instance with CDI qualifier @Identifier(\"{0}\") is not resolvable.",
-                        cdiQualifier);
+    protected EncodingExecutor createEncodingExecutor(ConfigProperties config, boolean streaming) {
+        String mode = getConfig(config, EncodingExecutor.MODE_CALLER, SROTEL_ENCODING_MODE);
+        if (EncodingExecutor.MODE_CALLER.equals(mode) && !streaming) {
+            return EncodingExecutor.callerThread();
+        } else if (EncodingExecutor.MODE_CALLER.equals(mode) || EncodingExecutor.MODE_WORKER.equals(mode)) {
+            try {
+                return EncodingExecutor.workerPool("otel-" + signalType + "-encoder",
+                        Integer.parseInt(getConfig(config, "1", SROTEL_ENCODING_WORKER_POOL_SIZE)),
+                        Integer.parseInt(getConfig(config, "64", SROTEL_ENCODING_WORKER_QUEUE_SIZE)));
+            } catch (IllegalArgumentException e) {
+                throw new ConfigurationException("Invalid encoding worker pool configuration: " + e.getMessage(), e);
             }
+        } else {
+            throw new ConfigurationException("Unrecognized encoding mode: " + mode);
+        }
+    }
+
+    /**
+     * By default, the HTTP requests are encoded before being sent. With a chunk size, their body is streamed instead,
+     * so that an export holds about one chunk in memory whatever the size of the batch. The gRPC messages are length
+     * prefixed and always encoded before being sent.
+     */
+    protected int getStreamingChunkSize(ConfigProperties config) {
+        int chunkSize;
+        try {
+            chunkSize = Integer.parseInt(getConfig(config, "0", SROTEL_ENCODING_CHUNK_SIZE));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid encoding chunk size: " + e.getMessage(), e);
+        }
+        if (chunkSize < 0) {
+            throw new ConfigurationException("The encoding chunk size must not be negative: " + chunkSize);
+        }
+        return chunkSize;
+    }
+
+    /**
+     * Each sender gets its own policy, so that the retry budget follows the request rate of its signal. By default, a
+     * request is attempted up to 4 times, with a backoff between 100ms and 5s and full jitter, and retries are limited
+     * to 10% of the requests.
+     */
+    protected RetryPolicy createRetryPolicy(ConfigProperties config) {
+        try {
+            return new RetryPolicy(
+                    Integer.parseInt(getConfig(config, "4", SROTEL_RETRY_MAX_ATTEMPTS)),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "100", SROTEL_RETRY_INITIAL_BACKOFF))),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "5000", SROTEL_RETRY_MAX_BACKOFF))),
+                    Double.parseDouble(getConfig(config, "1", SROTEL_RETRY_JITTER)),
+                    Double.parseDouble(getConfig(config, "10", SROTEL_RETRY_BUDGET_PERCENT)));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid retry configuration: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * By default, the breaker opens for 10s when half of the last 20 calls to the endpoint failed, and closes again
+     * after 3 successful probes.
+     *
+     * @param transportName {@code grpc} or {@code http}, as in the names of the exporter metrics
+     */
+    protected CircuitBreaker createCircuitBreaker(ConfigProperties config, String transportName, URI baseUri) {
+        String endpoint = OtlpExporterUtil.isUnixDomainSocket(baseUri) ? baseUri.toString()
+                : baseUri.getHost() + ":" + OtlpExporterUtil.getPort(baseUri);
+        if (!Boolean.parseBoolean(getConfig(config, "true", SROTEL_CIRCUIT_BREAKER_ENABLED))) {
+            return CircuitBreaker.disabled(endpoint);
+        }
+        CircuitBreaker circuitBreaker;
+        try {
+            circuitBreaker = new CircuitBreaker(endpoint,
+                    Integer.parseInt(getConfig(config, "20", SROTEL_CIRCUIT_BREAKER_WINDOW_SIZE)),
+                    Integer.parseInt(getConfig(config, "10", SROTEL_CIRCUIT_BREAKER_MINIMUM_CALLS)),
+                    Integer.parseInt(getConfig(config, "50", SROTEL_CIRCUIT_BREAKER_FAILURE_RATE)),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "10000", SROTEL_CIRCUIT_BREAKER_SLOW_CALL_DURATION))),
+                    Integer.parseInt(getConfig(config, "100", SROTEL_CIRCUIT_BREAKER_SLOW_CALL_RATE)),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "10000", SROTEL_CIRCUIT_BREAKER_OPEN_DURATION))),
+                    Integer.parseInt(getConfig(config, "3", SROTEL_CIRCUIT_BREAKER_HALF_OPEN_PROBES)));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid circuit breaker configuration: " + e.getMessage(), e);
+        }
+        circuitBreaker.registerMetrics(meterProvider::get, getName(), transportName, signalType);
+        return circuitBreaker;
+    }
+
+    /**
+     * The endpoint property may list several endpoints separated by commas, which must all use the same scheme, as
+     * they share the TLS options of the sender. Each endpoint gets its own circuit breaker, which ejects it while it is
+     * unhealthy. By default, the requests go to the endpoints in turn.
+     *
+     * @param transportName {@code grpc} or {@code http}, as in the names of the exporter metrics
+     */
+    protected EndpointSelector createEndpointSelector(ConfigProperties config, String transportName,
+            String defaultEndpoint) throws URISyntaxException {
+        List<Endpoint> endpoints = new ArrayList<>();
+        String scheme = null;
+        for (String value : getOtlpEndpoint(config, defaultEndpoint, signalType).split(",")) {
+            if (value.isBlank()) {
+                continue;
+            }
+            URI uri = new URI(value.trim());
+            if (scheme == null) {
+                scheme = uri.getScheme();
+            } else if (!scheme.equalsIgnoreCase(uri.getScheme())) {
+                throw new ConfigurationException("All the OTLP endpoints of the " + signalType
+                        + " exporter must use the same scheme, got " + scheme + " and " + uri.getScheme());
+            }
+            endpoints.add(new Endpoint(uri, createCircuitBreaker(config, transportName, uri)));
+        }
+        try {
+            return new EndpointSelector(endpoints,
+                    getConfig(config, EndpointSelector.POLICY_ROUND_ROBIN, SROTEL_LOAD_BALANCING_POLICY));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid load balancing configuration: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The connections are only rebalanced when a DNS refresh interval or a maximum connection age is configured. A
+     * connection reaching its maximum age is given the export timeout to complete its requests in flight.
+     */
+    protected ConnectionRebalancer createConnectionRebalancer(ConfigProperties config) {
+        try {
+            return new ConnectionRebalancer(
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "0", SROTEL_DNS_REFRESH_INTERVAL))),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "0", SROTEL_CONNECTION_MAX_AGE))),
+                    getTimeout(config, signalType));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid connection rebalancing configuration: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * As in the OpenTelemetry exporters, the exported data is immutable unless
+     * {@code otel.java.experimental.exporter.memory_mode} is {@code reusable_data}, in which case the exporters serialize
+     * it with pooled low-allocation marshalers.
+     */
+    protected MemoryMode getMemoryMode(ConfigProperties config) {
+        AtomicReference<MemoryMode> memoryMode = new AtomicReference<>(MemoryMode.IMMUTABLE_DATA);
+        ExporterBuilderUtil.configureExporterMemoryMode(config, memoryMode::set);
+        return memoryMode.get();
+    }
+
+    /**
+     * By default, the exports are split in requests of at most 4MiB, the default maximum message size of the gRPC
+     * receiver of the collector.
+     *
+     * @param marshalerFactory builds the export request of a collection of items
+     */
+    protected <D> RequestSplitter<D, T> createRequestSplitter(ConfigProperties config,
+            Function<Collection<D>, T> marshalerFactory) {
+        return createRequestSplitter(config, marshalerFactory, null);
+    }
+
+    /**
+     * @param pool the pool the export requests are taken from, and handed back to once their export completes
+     */
+    protected <D, M extends T> RequestSplitter<D, M> createRequestSplitter(ConfigProperties config,
+            MarshalerPool<D, M> pool) {
+        return createRequestSplitter(config, pool::acquire, pool::release);
+    }
+
+    /**
+     * @param marshalerFactory builds the export request of a collection of items, possibly from a pool
+     * @param marshalerReleaser hands a request back to the pool, or {@code null} if the requests are not pooled
+     */
+    protected <D, M extends T> RequestSplitter<D, M> createRequestSplitter(ConfigProperties config,
+            Function<Collection<D>, M> marshalerFactory, Consumer<M> marshalerReleaser) {
+        try {
+            return new RequestSplitter<>(Long.parseLong(getConfig(config, "4194304", SROTEL_MAX_REQUEST_BYTES)),
+                    marshalerFactory, marshalerReleaser, createAdaptiveBatchSize(config));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid maximum request size: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Adaptive batching is disabled by default. Once enabled, the requests hold between 64 and 2048 items, and should
+     * complete within a second. The exporters of a signal share the same limit.
+     */
+    protected AdaptiveBatchSize createAdaptiveBatchSize(ConfigProperties config) {
+        if (!Boolean.parseBoolean(getConfig(config, "false", SROTEL_ADAPTIVE_BATCH_ENABLED))) {
+            return null;
+        }
+        try {
+            return AdaptiveBatchSize.of(signalType,
+                    Integer.parseInt(getConfig(config, "64", SROTEL_ADAPTIVE_BATCH_MIN_SIZE)),
+                    Integer.parseInt(getConfig(config, "2048", SROTEL_ADAPTIVE_BATCH_MAX_SIZE)),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "1000", SROTEL_ADAPTIVE_BATCH_TARGET_LATENCY))));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid adaptive batching configuration: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load shedding is disabled by default. Once a policy is configured, the exporter has at most 8192 items in flight,
+     * and sheds the routine items beyond.
+     *
+     * @param transportName {@code grpc} or {@code http}, as in the names of the exporter metrics
+     * @param classifier returns the reason why an item must be kept ahead of the routine ones, or {@code null}
+     * @return the shedder, or {@code null} if load shedding is disabled
+     */
+    protected <D> LoadShedder<D> createLoadShedder(ConfigProperties config, String transportName,
+            Function<D, String> classifier) {
+        String policy = getConfig(config, "none", SROTEL_SHEDDING_POLICY);
+        if ("none".equals(policy)) {
+            return null;
+        }
+        LoadShedder<D> shedder;
+        try {
+            shedder = new LoadShedder<>(Integer.parseInt(getConfig(config, "8192", SROTEL_SHEDDING_MAX_PENDING_ITEMS)),
+                    policy, classifier);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid load shedding configuration: " + e.getMessage(), e);
+        }
+        shedder.registerMetrics(meterProvider::get, getName(), transportName, signalType);
+        return shedder;
+    }
+
+    /**
+     * By default, the spans lasting a second or more are kept ahead of the routine ones.
+     */
+    protected Duration getSheddingLatencyThreshold(ConfigProperties config) {
+        try {
+            return Duration.ofMillis(Long.parseLong(getConfig(config, "1000", SROTEL_SHEDDING_LATENCY_THRESHOLD)));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid load shedding latency threshold: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * By default, the logs of severity {@code WARN} or above are kept ahead of the routine ones.
+     */
+    protected Severity getSheddingSeverityThreshold(ConfigProperties config) {
+        String severity = getConfig(config, Severity.WARN.name(), SROTEL_SHEDDING_SEVERITY_THRESHOLD);
+        try {
+            return Severity.valueOf(severity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Unrecognized load shedding severity threshold: " + severity, e);
+        }
+    }
+
+    /**
+     * By default, a sender has at most 32 requests in flight, holding at most 64MiB before compression, and rejects the
+     * exports beyond these limits. A limit set to 0 disables it.
+     */
+    protected InFlightLimiter createInFlightLimiter(ConfigProperties config) {
+        try {
+            return new InFlightLimiter(
+                    Integer.parseInt(getConfig(config, "32", SROTEL_INFLIGHT_MAX_REQUESTS)),
+                    Long.parseLong(getConfig(config, "67108864", SROTEL_INFLIGHT_MAX_BYTES)),
+                    getConfig(config, InFlightLimiter.POLICY_REJECT, SROTEL_INFLIGHT_POLICY),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "5000", SROTEL_INFLIGHT_BLOCK_TIMEOUT))));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException("Invalid in-flight limits configuration: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Failed exports are only spooled to disk when a spool directory is configured. Each signal uses its own
+     * subdirectory, which must not be shared with another running exporter.
+     */
+    protected DiskSpool createSpool(ConfigProperties config) {
+        String directory = config.getString(SROTEL_SPOOL_DIRECTORY);
+        if (directory == null || directory.isEmpty()) {
+            return null;
+        }
+        try {
+            return DiskSpool.open(Paths.get(directory, signalType),
+                    Long.parseLong(getConfig(config, "134217728", SROTEL_SPOOL_MAX_SIZE)),
+                    Integer.parseInt(getConfig(config, "8388608", SROTEL_SPOOL_SEGMENT_SIZE)),
+                    Integer.parseInt(getConfig(config, "10", SROTEL_SPOOL_DRAIN_RATE)));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ConfigurationException("Unable to open the export spool in " + directory, e);
+        }
+    }
+
+    /**
+     * The {@code otlp-file} exporters write to segment files of 16MiB by default, completed at least every minute, and
+     * drop the exports while the completed segments exceed 1GiB. Each signal uses its own subdirectory, which must not
+     * be shared with another running exporter.
+     */
+    protected SegmentFileWriter createSegmentFileWriter(ConfigProperties config) {
+        String directory = config.getString(SROTEL_FILE_DIRECTORY);
+        if (directory == null || directory.isEmpty()) {
+            throw new ConfigurationException("The " + SROTEL_FILE_DIRECTORY + " property is required by the "
+                    + getName() + " exporter");
+        }
+        try {
+            return SegmentFileWriter.open(Paths.get(directory, signalType),
+                    Integer.parseInt(getConfig(config, "16777216", SROTEL_FILE_SEGMENT_SIZE)),
+                    Duration.ofMillis(Long.parseLong(getConfig(config, "60000", SROTEL_FILE_MAX_AGE))),
+                    Long.parseLong(getConfig(config, "1073741824", SROTEL_FILE_MAX_SIZE)),
+                    Compressors.resolve(getConfig(config, Compressors.NONE, SROTEL_FILE_COMPRESSION),
+                            Compressors.DEFAULT_LEVEL));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ConfigurationException("Unable to open the export segments in " + directory, e);
+        }
+    }
+
+    /**
+     * The {@code otlp-ring} exporters write to a ring buffer of 16MiB by default, in the {@code <signal>.ring} file of
+     * the configured directory, ideally on a memory file system such as {@code /dev/shm}.
+     */
+    protected RingBufferWriter createRingBufferWriter(ConfigProperties config) {
+        String directory = config.getString(SROTEL_RING_DIRECTORY);
+        if (directory == null || directory.isEmpty()) {
+            throw new ConfigurationException("The " + SROTEL_RING_DIRECTORY + " property is required by the "
+                    + getName() + " exporter");
+        }
+        try {
+            return RingBufferWriter.open(Paths.get(directory, signalType + ".ring"),
+                    Integer.parseInt(getConfig(config, "16777216", SROTEL_RING_SIZE)));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ConfigurationException("Unable to open the ring buffer in " + directory, e);
         }
-        logger.log(Level.INFO, "Create a new Vertx instance");
-        return Vertx.vertx();
     }
 
     protected VertxGrpcSender<T> createGrpcSender(ConfigProperties config, String grpcEndpointPath) throws URISyntaxException {
-        URI baseUri = new URI(getOtlpEndpoint(config, OTLP_GRPC_ENDPOINT, signalType));
-        return new VertxGrpcSender<>(
-                signalType,
-                baseUri,
-                grpcEndpointPath,
-                getCompression(config, signalType),
-                getTimeout(config, signalType),
-                OtlpExporterUtil.populateTracingExportHttpHeaders(),
-                new HttpClientOptionsConsumer(config, baseUri, signalType),
-                getVertx(config));
+        EndpointSelector endpoints = createEndpointSelector(config, "grpc", OTLP_GRPC_ENDPOINT);
+        if (getStreamingChunkSize(config) > 0) {
+            logger.log(Level.WARNING, "The {0} exporter uses gRPC, its requests are encoded before being sent, "
+                    + "the encoding chunk size only applies to http/protobuf", signalType);
+        }
+        Compressor compressor = getCompressor(config, signalType);
+        Duration timeout = getTimeout(config, signalType);
+        RetryPolicy retryPolicy = createRetryPolicy(config);
+        InFlightLimiter inFlightLimiter = createInFlightLimiter(config);
+        ConnectionRebalancer connectionRebalancer = createConnectionRebalancer(config);
+        // the resources held by the sender are acquired last, and released if the configuration is rejected
+        EncodingExecutor encodingExecutor = createEncodingExecutor(config, false);
+        DiskSpool spool = null;
+        Vertx vertx = null;
+        try {
+            spool = createSpool(config);
+            vertx = getVertx(config, endpoints);
+            return new VertxGrpcSender<>(
+                    signalType,
+                    endpoints,
+                    grpcEndpointPath,
+                    compressor,
+                    timeout,
+                    OtlpExporterUtil.populateTracingExportHttpHeaders(),
+                    new HttpClientOptionsConsumer(config, endpoints.getEndpoints().get(0).getUri(), signalType),
+                    encodingExecutor,
+                    retryPolicy,
+                    inFlightLimiter,
+                    connectionRebalancer,
+                    spool,
+                    new SenderMetrics(meterProvider::get, getName(), "grpc", signalType),
+                    ExportPressure.of(signalType),
+                    vertx);
+        } catch (RuntimeException e) {
+            release(encodingExecutor, spool, vertx);
+            throw e;
+        }
     }
 
     protected VertxHttpSender createHttpSender(ConfigProperties config, String httpEndpointPath) throws URISyntaxException {
-        URI baseUri = new URI(getOtlpEndpoint(config, OTLP_HTTP_PROTOBUF_ENDPOINT, signalType));
-        return new VertxHttpSender(
-                baseUri,
-                httpEndpointPath,
-                getCompression(config, signalType),
-                getTimeout(config, signalType),
-                OtlpExporterUtil.populateTracingExportHttpHeaders(),
-                MIMETYPE_PROTOBUF,
-                new HttpClientOptionsConsumer(config, baseUri, signalType),
-                getVertx(config));
+        EndpointSelector endpoints = createEndpointSelector(config, "http", OTLP_HTTP_PROTOBUF_ENDPOINT);
+        int streamingChunkSize = getStreamingChunkSize(config);
+        Compressor compressor = getCompressor(config, signalType);
+        Duration timeout = getTimeout(config, signalType);
+        RetryPolicy retryPolicy = createRetryPolicy(config);
+        InFlightLimiter inFlightLimiter = createInFlightLimiter(config);
+        ConnectionRebalancer connectionRebalancer = createConnectionRebalancer(config);
+        // the resources held by the sender are acquired last, and released if the configuration is rejected
+        EncodingExecutor encodingExecutor = createEncodingExecutor(config, streamingChunkSize > 0);
+        DiskSpool spool = null;
+        Vertx vertx = null;
+        try {
+            spool = createSpool(config);
+            vertx = getVertx(config, endpoints);
+            return new VertxHttpSender(
+                    endpoints,
+                    httpEndpointPath,
+                    compressor,
+                    timeout,
+                    OtlpExporterUtil.populateTracingExportHttpHeaders(),
+                    MIMETYPE_PROTOBUF,
+                    new HttpClientOptionsConsumer(config, endpoints.getEndpoints().get(0).getUri(), signalType),
+                    encodingExecutor,
+                    streamingChunkSize,
+                    retryPolicy,
+                    inFlightLimiter,
+                    connectionRebalancer,
+                    spool,
+                    new SenderMetrics(meterProvider::get, getName(), "http", signalType),
+                    ExportPressure.of(signalType),
+                    vertx);
+        } catch (RuntimeException e) {
+            release(encodingExecutor, spool, vertx);
+            throw e;
+        }
+    }
+
+    private static void release(EncodingExecutor encodingExecutor, DiskSpool spool, Vertx vertx) {
+        encodingExecutor.shutdown();
+        if (spool != null) {
+            spool.close();
+        }
+        if (vertx != null) {
+            SharedVertx.release(vertx);
+        }
     }
 
     protected IllegalArgumentException buildUnsupportedProtocolException(String protocol) {
@@ -0,0 +1,118 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tunes the maximum number of items of an export request from the latency and the outcome of the requests, with an
+ * additive increase, multiplicative decrease controller: the limit grows by the minimum size after every request
+ * completing successfully within the target latency, and is halved when a request fails or is slower, within the
+ * configured bounds. Small requests are favored while the collector struggles, large ones while it keeps up.
+ * <p>
+ * The requests of an export are sent concurrently: only the first slow or failed request sent after the last
+ * decrease decreases the limit again, so that a single slowdown does not collapse it to the minimum.
+ * <p>
+ * The limit can only grow the batches of the event loop span processor, which sizes its batches from it instead of
+ * {@code otel.bsp.max.export.batch.size}. The batches of the processors of the SDK keep their configured size, and are
+ * only split in requests of at most the limit. Either way, partial batches are still exported after the configured
+ * schedule delay, which is not tuned.
+ * <p>
+ * The exporters of a signal share the instance returned by {@link #of(String, int, int, Duration)}.
+ */
+public final class AdaptiveBatchSize {
+
+    private static final Logger logger = Logger.getLogger(AdaptiveBatchSize.class.getName());
+
+    private static final ConcurrentMap<String, AdaptiveBatchSize> signals = new ConcurrentHashMap<>();
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetLatencyNanos;
+
+    private int limit;
+    private long generation;
+
+    /**
+     * @param minSize the minimum number of items of a request, also the additive increase
+     * @param maxSize the maximum number of items of a request, and the initial limit
+     * @param targetLatency the latency above which a request is considered too large
+     */
+    public AdaptiveBatchSize(int minSize, int maxSize, Duration targetLatency) {
+        if (minSize <= 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("The adaptive batch sizes must be positive, the maximum not below the "
+                    + "minimum: " + minSize + " items, " + maxSize + " items");
+        }
+        if (targetLatency.isNegative() || targetLatency.isZero()) {
+            throw new IllegalArgumentException("The adaptive batch target latency must be positive: " + targetLatency);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.limit = maxSize;
+    }
+
+    /**
+     * @param signalType the signal type, {@code span}, {@code metric} or {@code log}
+     * @return the instance shared by the exporters of the signal, replaced if it was created with other bounds
+     */
+    public static AdaptiveBatchSize of(String signalType, int minSize, int maxSize, Duration targetLatency) {
+        return signals.compute(signalType, new BiFunction<String, AdaptiveBatchSize, AdaptiveBatchSize>() {
+            @Override
+            public AdaptiveBatchSize apply(String signalType, AdaptiveBatchSize current) {
+                if (current != null && current.minSize == minSize && current.maxSize == maxSize
+                        && current.targetLatencyNanos == targetLatency.toNanos()) {
+                    return current;
+                }
+                return new AdaptiveBatchSize(minSize, maxSize, targetLatency);
+            }
+        });
+    }
+
+    /**
+     * @param signalType the signal type, {@code span}, {@code metric} or {@code log}
+     * @return the instance last shared by the exporters of the signal, or {@code null} if none was created
+     */
+    public static AdaptiveBatchSize of(String signalType) {
+        return signals.get(signalType);
+    }
+
+    /**
+     * @return the current maximum number of items of a request
+     */
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return the generation of the limit, to give back to {@link #onCompleted(long, long, boolean)}
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Adjusts the limit once a request completes.
+     *
+     * @param generation the generation of the limit when the request was sent
+     * @param latencyNanos the time the request took to complete
+     * @param success whether the request succeeded
+     */
+    synchronized void onCompleted(long generation, long latencyNanos, boolean success) {
+        if (success && latencyNanos <= targetLatencyNanos) {
+            limit = Math.min(maxSize, limit + minSize);
+        } else if (generation == this.generation) {
+            int previous = limit;
+            limit = Math.max(minSize, limit / 2);
+            this.generation++;
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINE, "Decreased the export request size from {0} to {1} items, after a request {2}",
+                        new Object[] { previous, limit,
+                                success ? "of " + latencyNanos / 1_000_000 + "ms" : "that failed" });
+            }
+        }
+    }
+}
@@ -35,8 +35,106 @@ public class Constants {
     static final String OTEL_EXPORTER_OTLP_COMPRESSION = "otel.exporter.otlp.compression";
     static final String OTEL_EXPORTER_OTLP_SIGNAL_COMPRESSION = "otel.exporter.otlp.%s.compression";
 
+    static final String OTEL_EXPORTER_OTLP_COMPRESSION_LEVEL = "otel.exporter.otlp.compression.level";
+    static final String OTEL_EXPORTER_OTLP_SIGNAL_COMPRESSION_LEVEL = "otel.exporter.otlp.%s.compression.level";
+
     static final String MIMETYPE_PROTOBUF = "application/x-protobuf";
 
+    // Batch span processor options of the SDK, the durations are in milliseconds
+    public static final String OTEL_BSP_SCHEDULE_DELAY = "otel.bsp.schedule.delay";
+    public static final String OTEL_BSP_MAX_QUEUE_SIZE = "otel.bsp.max.queue.size";
+    public static final String OTEL_BSP_MAX_EXPORT_BATCH_SIZE = "otel.bsp.max.export.batch.size";
+    public static final String OTEL_BSP_EXPORT_TIMEOUT = "otel.bsp.export.timeout";
+    // replaces the batch span processor of the SDK by an event loop span processor with the same options
+    public static final String SROTEL_BSP_EVENT_LOOP = "otel.bsp.event.loop";
+
+    // Saturation aware sampling options, the threshold and the ratio are between 0 and 1, the recovery time is in
+    // milliseconds
+    public static final String SROTEL_SAMPLER_SATURATION_ENABLED = "otel.traces.sampler.saturation.enabled";
+    public static final String SROTEL_SAMPLER_SATURATION_THRESHOLD = "otel.traces.sampler.saturation.threshold";
+    public static final String SROTEL_SAMPLER_SATURATION_MIN_RATIO = "otel.traces.sampler.saturation.min.ratio";
+    public static final String SROTEL_SAMPLER_SATURATION_RECOVERY = "otel.traces.sampler.saturation.recovery";
+
+    // Encoding options
+    static final String SROTEL_ENCODING_MODE = "otel.exporter.encoding.mode";
+    static final String SROTEL_ENCODING_WORKER_POOL_SIZE = "otel.exporter.encoding.worker.pool.size";
+    static final String SROTEL_ENCODING_WORKER_QUEUE_SIZE = "otel.exporter.encoding.worker.queue.size";
+    // size in bytes of the chunks of the streamed HTTP request bodies, 0 to encode each request before sending it
+    static final String SROTEL_ENCODING_CHUNK_SIZE = "otel.exporter.encoding.chunk.size";
+
+    // Retry options, the backoffs are in milliseconds
+    static final String SROTEL_RETRY_MAX_ATTEMPTS = "otel.exporter.retry.max.attempts";
+    static final String SROTEL_RETRY_INITIAL_BACKOFF = "otel.exporter.retry.initial.backoff";
+    static final String SROTEL_RETRY_MAX_BACKOFF = "otel.exporter.retry.max.backoff";
+    static final String SROTEL_RETRY_JITTER = "otel.exporter.retry.jitter";
+    static final String SROTEL_RETRY_BUDGET_PERCENT = "otel.exporter.retry.budget.percent";
+
+    // Circuit breaker options, the rates are in percent and the durations in milliseconds
+    static final String SROTEL_CIRCUIT_BREAKER_ENABLED = "otel.exporter.circuit.breaker.enabled";
+    static final String SROTEL_CIRCUIT_BREAKER_WINDOW_SIZE = "otel.exporter.circuit.breaker.window.size";
+    static final String SROTEL_CIRCUIT_BREAKER_MINIMUM_CALLS = "otel.exporter.circuit.breaker.minimum.calls";
+    static final String SROTEL_CIRCUIT_BREAKER_FAILURE_RATE = "otel.exporter.circuit.breaker.failure.rate.threshold";
+    static final String SROTEL_CIRCUIT_BREAKER_SLOW_CALL_DURATION = "otel.exporter.circuit.breaker.slow.call.duration";
+    static final String SROTEL_CIRCUIT_BREAKER_SLOW_CALL_RATE = "otel.exporter.circuit.breaker.slow.call.rate.threshold";
+    static final String SROTEL_CIRCUIT_BREAKER_OPEN_DURATION = "otel.exporter.circuit.breaker.open.duration";
+    static final String SROTEL_CIRCUIT_BREAKER_HALF_OPEN_PROBES = "otel.exporter.circuit.breaker.half.open.probes";
+
+    // In-flight limits, the timeout is in milliseconds
+    static final String SROTEL_INFLIGHT_MAX_REQUESTS = "otel.exporter.inflight.max.requests";
+    static final String SROTEL_INFLIGHT_MAX_BYTES = "otel.exporter.inflight.max.bytes";
+    static final String SROTEL_INFLIGHT_POLICY = "otel.exporter.inflight.policy";
+    static final String SROTEL_INFLIGHT_BLOCK_TIMEOUT = "otel.exporter.inflight.block.timeout";
+
+    // Maximum serialized size of an export request in bytes, larger exports are split, 0 to never split them
+    static final String SROTEL_MAX_REQUEST_BYTES = "otel.exporter.max.request.bytes";
+
+    // Adaptive batching options, the sizes are in items and the latency in milliseconds
+    public static final String SROTEL_ADAPTIVE_BATCH_ENABLED = "otel.exporter.adaptive.batch.enabled";
+    static final String SROTEL_ADAPTIVE_BATCH_MIN_SIZE = "otel.exporter.adaptive.batch.min.size";
+    static final String SROTEL_ADAPTIVE_BATCH_MAX_SIZE = "otel.exporter.adaptive.batch.max.size";
+    static final String SROTEL_ADAPTIVE_BATCH_TARGET_LATENCY = "otel.exporter.adaptive.batch.target.latency";
+
+    // Load shedding options, the policy is none, drop-newest, drop-oldest or probabilistic, the capacity is in items
+    // and the latency threshold in milliseconds
+    static final String SROTEL_SHEDDING_POLICY = "otel.exporter.shedding.policy";
+    static final String SROTEL_SHEDDING_MAX_PENDING_ITEMS = "otel.exporter.shedding.max.pending.items";
+    static final String SROTEL_SHEDDING_LATENCY_THRESHOLD = "otel.exporter.shedding.latency.threshold";
+    static final String SROTEL_SHEDDING_SEVERITY_THRESHOLD = "otel.exporter.shedding.severity.threshold";
+
+    // Load balancing options, the endpoint properties may list several endpoints separated by commas
+    static final String SROTEL_LOAD_BALANCING_POLICY = "otel.exporter.load.balancing.policy";
+
+    // Connection rebalancing options, in milliseconds
+    static final String SROTEL_DNS_REFRESH_INTERVAL = "otel.exporter.dns.refresh.interval";
+    static final String SROTEL_CONNECTION_MAX_AGE = "otel.exporter.connection.max.age";
+
+    // Spool options, the sizes are in bytes
+    static final String SROTEL_SPOOL_DIRECTORY = "otel.exporter.spool.directory";
+    static final String SROTEL_SPOOL_MAX_SIZE = "otel.exporter.spool.max.size";
+    static final String SROTEL_SPOOL_SEGMENT_SIZE = "otel.exporter.spool.segment.size";
+    static final String SROTEL_SPOOL_DRAIN_RATE = "otel.exporter.spool.drain.rate";
+
+    // File exporter options, the sizes are in bytes and the age in milliseconds
+    static final String SROTEL_FILE_DIRECTORY = "otel.exporter.file.directory";
+    static final String SROTEL_FILE_SEGMENT_SIZE = "otel.exporter.file.segment.size";
+    static final String SROTEL_FILE_MAX_AGE = "otel.exporter.file.max.age";
+    static final String SROTEL_FILE_MAX_SIZE = "otel.exporter.file.max.size";
+    static final String SROTEL_FILE_COMPRESSION = "otel.exporter.file.compression";
+
+    // Ring buffer exporter options, the size is in bytes
+    static final String SROTEL_RING_DIRECTORY = "otel.exporter.ring.directory";
+    static final String SROTEL_RING_SIZE = "otel.exporter.ring.size";
+
+    // Connection options, the timeouts are in seconds
+    static final String SROTEL_HTTP_VERSION = "otel.exporter.http.version";
+    static final String SROTEL_POOL_MAX_SIZE = "otel.exporter.pool.max.size";
+    static final String SROTEL_KEEP_ALIVE = "otel.exporter.keep.alive";
+    static final String SROTEL_KEEP_ALIVE_TIMEOUT = "otel.exporter.keep.alive.timeout";
+    static final String SROTEL_IDLE_TIMEOUT = "otel.exporter.idle.timeout";
+    static final String SROTEL_HTTP2_MULTIPLEXING_LIMIT = "otel.exporter.http2.multiplexing.limit";
+    static final String SROTEL_HTTP2_CONNECTION_WINDOW_SIZE = "otel.exporter.http2.connection.window.size";
+    static final String SROTEL_HTTP2_STREAM_WINDOW_SIZE = "otel.exporter.http2.stream.window.size";
+
     static final String SROTEL_TLS_TRUST_ALL = "otel.exporter.tls.trustAll";
     // Proxy options
     static final String SROTEL_PROXY_ENABLED = "otel.exporter.proxy.enabled";
@@ -0,0 +1,79 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * How saturated the exporters of a signal are, between 0 and 1, for the components that can record less when the
+ * exporters cannot keep up, such as the saturation aware sampler.
+ * <p>
+ * The pressure is the highest of the fill ratios of the queues registered by the exporters, such as the room used in
+ * the in-flight limits of the senders or in the queue of the event loop span processor, and of the recent failure
+ * rate of the exports, an exponentially weighted moving average over the last exports, so that a collector rejecting
+ * or timing out the requests counts as much as a full queue.
+ * <p>
+ * The exporters of a signal share the instance returned by {@link #of(String)}.
+ */
+public final class ExportPressure {
+
+    // the weight of the last export in the failure rate, about the last 10 exports count
+    private static final double FAILURE_RATE_WEIGHT = 0.1;
+
+    private static final ConcurrentMap<String, ExportPressure> signals = new ConcurrentHashMap<>();
+
+    private final List<DoubleSupplier> queues = new CopyOnWriteArrayList<>();
+
+    private double failureRate;
+
+    /**
+     * @param signalType the signal type, {@code span}, {@code metric} or {@code log}
+     * @return the pressure shared by the exporters of the signal
+     */
+    public static ExportPressure of(String signalType) {
+        return signals.computeIfAbsent(signalType, new Function<String, ExportPressure>() {
+            @Override
+            public ExportPressure apply(String signalType) {
+                return new ExportPressure();
+            }
+        });
+    }
+
+    /**
+     * @param fill returns the fill ratio of a queue, between 0 and 1
+     */
+    public void register(DoubleSupplier fill) {
+        queues.add(fill);
+    }
+
+    /**
+     * Stops reading a queue, once its exporter is shut down.
+     */
+    public void unregister(DoubleSupplier fill) {
+        queues.remove(fill);
+    }
+
+    /**
+     * @param success whether the export reached the collector and was accepted
+     */
+    public synchronized void recordExport(boolean success) {
+        failureRate += FAILURE_RATE_WEIGHT * ((success ? 0 : 1) - failureRate);
+    }
+
+    /**
+     * @return the pressure, from 0 when the exporters keep up, to 1 when a queue is full or every export fails
+     */
+    public double getPressure() {
+        double pressure;
+        synchronized (this) {
+            pressure = failureRate;
+        }
+        for (DoubleSupplier queue : queues) {
+            pressure = Math.max(pressure, queue.getAsDouble());
+        }
+        return Math.min(1, Math.max(0, pressure));
+    }
+}
@@ -6,6 +6,14 @@ import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_CERTIFICATE;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_CLIENT_CERTIFICATE;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_CLIENT_KEY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_HTTP2_CONNECTION_WINDOW_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_HTTP2_MULTIPLEXING_LIMIT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_HTTP2_STREAM_WINDOW_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_HTTP_VERSION;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_IDLE_TIMEOUT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_KEEP_ALIVE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_KEEP_ALIVE_TIMEOUT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_POOL_MAX_SIZE;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_PROXY_ENABLED;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_PROXY_HOST;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_PROXY_PASSWORD;
@@ -18,7 +26,10 @@ import java.net.URI;
 import java.util.function.Consumer;
 
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+import io.vertx.core.http.Http2Settings;
 import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.net.PemKeyCertOptions;
 import io.vertx.core.net.PemTrustOptions;
 import io.vertx.core.net.ProxyOptions;
@@ -37,6 +48,7 @@ class HttpClientOptionsConsumer implements Consumer<HttpClientOptions> {
     @Override
     public void accept(HttpClientOptions options) {
         configureTLS(options);
+        configureConnections(options);
 
         if (Boolean.parseBoolean(getConfig(config, "false", SROTEL_PROXY_ENABLED))) {
             configureProxyOptions(options);
@@ -58,6 +70,97 @@ class HttpClientOptionsConsumer implements Consumer<HttpClientOptions> {
         }
     }
 
+    /**
+     * The http/protobuf sender uses HTTP/1.1 unless HTTP/2 is configured, with prior knowledge in cleartext (h2c) and
+     * ALPN with TLS. The gRPC sender always uses HTTP/2. The pool and connection settings are only changed when
+     * configured, otherwise the Vert.x defaults apply.
+     */
+    private void configureConnections(HttpClientOptions options) {
+        String version = getConfig(config, "1.1", SROTEL_HTTP_VERSION);
+        if ("2".equals(version)) {
+            options.setProtocolVersion(HttpVersion.HTTP_2);
+            options.setHttp2ClearTextUpgrade(false);
+        } else if (!"1.1".equals(version)) {
+            throw new ConfigurationException("Unsupported HTTP version " + version + ", expected 1.1 or 2");
+        }
+
+        String maxPoolSize = config.getString(SROTEL_POOL_MAX_SIZE);
+        if (maxPoolSize != null) {
+            int size = parseInt(SROTEL_POOL_MAX_SIZE, maxPoolSize);
+            try {
+                options.setMaxPoolSize(size);
+                options.setHttp2MaxPoolSize(size);
+            } catch (IllegalArgumentException e) {
+                throw invalid(SROTEL_POOL_MAX_SIZE, maxPoolSize, e);
+            }
+        }
+        String keepAlive = config.getString(SROTEL_KEEP_ALIVE);
+        if (keepAlive != null) {
+            options.setKeepAlive(Boolean.parseBoolean(keepAlive));
+        }
+        String keepAliveTimeout = config.getString(SROTEL_KEEP_ALIVE_TIMEOUT);
+        if (keepAliveTimeout != null) {
+            int timeout = parseInt(SROTEL_KEEP_ALIVE_TIMEOUT, keepAliveTimeout);
+            try {
+                options.setKeepAliveTimeout(timeout);
+                options.setHttp2KeepAliveTimeout(timeout);
+            } catch (IllegalArgumentException e) {
+                throw invalid(SROTEL_KEEP_ALIVE_TIMEOUT, keepAliveTimeout, e);
+            }
+        }
+        String idleTimeout = config.getString(SROTEL_IDLE_TIMEOUT);
+        if (idleTimeout != null) {
+            try {
+                options.setIdleTimeout(parseInt(SROTEL_IDLE_TIMEOUT, idleTimeout));
+            } catch (IllegalArgumentException e) {
+                throw invalid(SROTEL_IDLE_TIMEOUT, idleTimeout, e);
+            }
+        }
+        String multiplexingLimit = config.getString(SROTEL_HTTP2_MULTIPLEXING_LIMIT);
+        if (multiplexingLimit != null) {
+            try {
+                options.setHttp2MultiplexingLimit(parseInt(SROTEL_HTTP2_MULTIPLEXING_LIMIT, multiplexingLimit));
+            } catch (IllegalArgumentException e) {
+                throw invalid(SROTEL_HTTP2_MULTIPLEXING_LIMIT, multiplexingLimit, e);
+            }
+        }
+        String connectionWindowSize = config.getString(SROTEL_HTTP2_CONNECTION_WINDOW_SIZE);
+        if (connectionWindowSize != null) {
+            try {
+                options.setHttp2ConnectionWindowSize(parseInt(SROTEL_HTTP2_CONNECTION_WINDOW_SIZE,
+                        connectionWindowSize));
+            } catch (IllegalArgumentException e) {
+                throw invalid(SROTEL_HTTP2_CONNECTION_WINDOW_SIZE, connectionWindowSize, e);
+            }
+        }
+        String streamWindowSize = config.getString(SROTEL_HTTP2_STREAM_WINDOW_SIZE);
+        if (streamWindowSize != null) {
+            Http2Settings settings = options.getInitialSettings() != null ? options.getInitialSettings()
+                    : new Http2Settings();
+            try {
+                options.setInitialSettings(
+                        settings.setInitialWindowSize(parseInt(SROTEL_HTTP2_STREAM_WINDOW_SIZE, streamWindowSize)));
+            } catch (IllegalArgumentException e) {
+                throw invalid(SROTEL_HTTP2_STREAM_WINDOW_SIZE, streamWindowSize, e);
+            }
+        }
+    }
+
+    private static int parseInt(String property, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid " + property + ": " + value + ". It must be an integer", e);
+        }
+    }
+
+    /**
+     * @param e the error raised by Vert.x for a value out of range
+     */
+    private static ConfigurationException invalid(String property, String value, IllegalArgumentException e) {
+        return new ConfigurationException("Invalid " + property + ": " + value + ". " + e.getMessage(), e);
+    }
+
     private void configureProxyOptions(HttpClientOptions options) {
         var proxyHost = getConfig(config, "", SROTEL_PROXY_HOST);
         if (!proxyHost.isBlank()) {
@@ -0,0 +1,217 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.internal.ThrottlingLogger;
+
+/**
+ * Sheds the exported items beyond the capacity of an exporter, the number of items of its exports still in flight,
+ * so that a lagging collector loses the routine items rather than the ones needed to investigate an incident.
+ * <p>
+ * The items are classified by a function returning the reason why an item matters, such as {@code error}, or
+ * {@code null} for a routine item. When an export exceeds the capacity left, its routine items are shed first, and its
+ * important items only if that is not enough, according to the policy:
+ * <ul>
+ * <li>{@link #POLICY_DROP_NEWEST} drops the last items of the export</li>
+ * <li>{@link #POLICY_DROP_OLDEST} drops the first items of the export</li>
+ * <li>{@link #POLICY_PROBABILISTIC} drops every item of the class being shed with the same probability, so that the
+ * number of items dropped matches the excess on average, the important items being shed only when the routine ones
+ * are not enough to make up the excess</li>
+ * </ul>
+ * The export of the remaining items completes as theirs does, an export entirely shed completes successfully. The
+ * items shed are counted as {@code <exporterName>.exporter.shed}, with the reason of their class as {@code reason}
+ * attribute, {@code routine} for the routine items.
+ *
+ * @param <T> the type of the exported items
+ */
+public final class LoadShedder<T> {
+
+    public static final String POLICY_DROP_NEWEST = "drop-newest";
+    public static final String POLICY_DROP_OLDEST = "drop-oldest";
+    public static final String POLICY_PROBABILISTIC = "probabilistic";
+
+    public static final String REASON_ROUTINE = "routine";
+
+    private static final Logger internalLogger = Logger.getLogger(LoadShedder.class.getName());
+
+    private static final AttributeKey<String> ATTRIBUTE_KEY_TYPE = AttributeKey.stringKey("type");
+    private static final AttributeKey<String> ATTRIBUTE_KEY_REASON = AttributeKey.stringKey("reason");
+
+    private final ThrottlingLogger logger = new ThrottlingLogger(internalLogger);
+
+    private final int maxPendingItems;
+    private final String policy;
+    private final Function<T, String> classifier;
+    private final Map<String, Attributes> reasonAttributes = new HashMap<>();
+
+    private Supplier<MeterProvider> meterProviderSupplier;
+    private String meterName;
+    private String instrumentName;
+    private String type;
+    private LongCounter shed;
+
+    private int pendingItems;
+
+    /**
+     * @param maxPendingItems the maximum number of items of the exports in flight
+     * @param policy {@link #POLICY_DROP_NEWEST}, {@link #POLICY_DROP_OLDEST} or {@link #POLICY_PROBABILISTIC}
+     * @param classifier returns the reason why an item must be kept ahead of the routine ones, or {@code null}
+     */
+    public LoadShedder(int maxPendingItems, String policy, Function<T, String> classifier) {
+        if (maxPendingItems <= 0) {
+            throw new IllegalArgumentException("The maximum number of pending items must be positive: " + maxPendingItems);
+        }
+        if (!POLICY_DROP_NEWEST.equals(policy) && !POLICY_DROP_OLDEST.equals(policy)
+                && !POLICY_PROBABILISTIC.equals(policy)) {
+            throw new IllegalArgumentException("Unrecognized shedding policy: " + policy);
+        }
+        this.maxPendingItems = maxPendingItems;
+        this.policy = policy;
+        this.classifier = classifier;
+    }
+
+    /**
+     * Counts the items shed, once the meter provider of the SDK is available.
+     *
+     * @param transportName {@code grpc} or {@code http}, as in the names of the exporter metrics
+     */
+    public void registerMetrics(Supplier<MeterProvider> meterProviderSupplier, String exporterName,
+            String transportName, String type) {
+        this.meterProviderSupplier = meterProviderSupplier;
+        this.meterName = "io.opentelemetry.exporters." + exporterName + "-" + transportName;
+        this.instrumentName = exporterName + ".exporter.shed";
+        this.type = type;
+    }
+
+    /**
+     * Exports the items left once the ones beyond the capacity are shed.
+     *
+     * @param export exports the items kept
+     */
+    public CompletableResultCode export(Collection<T> items,
+            Function<Collection<T>, CompletableResultCode> export) {
+        final Collection<T> kept = admit(items);
+        if (kept.isEmpty()) {
+            return CompletableResultCode.ofSuccess();
+        }
+        CompletableResultCode result;
+        try {
+            result = export.apply(kept);
+        } catch (RuntimeException e) {
+            release(kept.size());
+            throw e;
+        }
+        result.whenComplete(new Runnable() {
+            @Override
+            public void run() {
+                release(kept.size());
+            }
+        });
+        return result;
+    }
+
+    synchronized int getPendingItems() {
+        return pendingItems;
+    }
+
+    private synchronized Collection<T> admit(Collection<T> items) {
+        int excess = pendingItems + items.size() - maxPendingItems;
+        if (excess <= 0) {
+            pendingItems += items.size();
+            return items;
+        }
+        List<T> list = new ArrayList<>(items);
+        List<Integer> routine = new ArrayList<>();
+        List<Integer> important = new ArrayList<>();
+        String[] reasons = new String[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            reasons[i] = classifier.apply(list.get(i));
+            (reasons[i] == null ? routine : important).add(i);
+        }
+        boolean[] dropped = new boolean[list.size()];
+        shed(routine, Math.min(excess, routine.size()), dropped);
+        if (routine.size() < excess) {
+            shed(important, Math.min(excess - routine.size(), important.size()), dropped);
+        }
+
+        List<T> kept = new ArrayList<>(list.size());
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            if (dropped[i]) {
+                counts.merge(reasons[i] == null ? REASON_ROUTINE : reasons[i], 1L, Long::sum);
+            } else {
+                kept.add(list.get(i));
+            }
+        }
+        pendingItems += kept.size();
+        record(counts);
+        logger.log(Level.WARNING, "The exporter is overloaded, " + (list.size() - kept.size()) + " of "
+                + list.size() + " items were shed: " + counts);
+        return kept;
+    }
+
+    /**
+     * @param candidates the indexes of the items of a class, in order
+     */
+    private void shed(List<Integer> candidates, int count, boolean[] dropped) {
+        if (count == 0) {
+            return;
+        }
+        if (POLICY_DROP_NEWEST.equals(policy)) {
+            for (int i = candidates.size() - count; i < candidates.size(); i++) {
+                dropped[candidates.get(i)] = true;
+            }
+        } else if (POLICY_DROP_OLDEST.equals(policy)) {
+            for (int i = 0; i < count; i++) {
+                dropped[candidates.get(i)] = true;
+            }
+        } else {
+            double probability = (double) count / candidates.size();
+            for (Integer candidate : candidates) {
+                if (ThreadLocalRandom.current().nextDouble() < probability) {
+                    dropped[candidate] = true;
+                }
+            }
+        }
+    }
+
+    private synchronized void release(int items) {
+        pendingItems -= items;
+    }
+
+    private void record(Map<String, Long> counts) {
+        if (shed == null && meterProviderSupplier != null) {
+            MeterProvider meterProvider = meterProviderSupplier.get();
+            if (meterProvider != null && meterProvider != MeterProvider.noop()) {
+                shed = meterProvider.get(meterName).counterBuilder(instrumentName)
+                        .setDescription("The number of items shed by the exporter, because it was overloaded")
+                        .build();
+            }
+        }
+        if (shed == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            Attributes attributes = reasonAttributes.get(count.getKey());
+            if (attributes == null) {
+                attributes = Attributes.of(ATTRIBUTE_KEY_TYPE, type, ATTRIBUTE_KEY_REASON, count.getKey());
+                reasonAttributes.put(count.getKey(), attributes);
+            }
+            shed.add(count.getValue(), attributes);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+
+/**
+ * The export requests of an exporter in {@link io.opentelemetry.sdk.common.export.MemoryMode#REUSABLE_DATA} mode.
+ * <p>
+ * The low-allocation marshalers of the OpenTelemetry exporters serialize the items of an export without building an
+ * object graph per item, and keep their buffers from one request to the next. The pool holds one marshaler per export
+ * in flight, so that once warmed up, exporting allocates close to nothing. A marshaler is only used by one export at a
+ * time, whatever the thread calling the exporter.
+ *
+ * @param <T> the type of the exported items
+ * @param <M> the type of the pooled marshalers
+ */
+public final class MarshalerPool<T, M extends Marshaler> {
+
+    private final Deque<M> marshalers = new ConcurrentLinkedDeque<>();
+    private final Supplier<M> factory;
+    private final BiConsumer<M, Collection<T>> initializer;
+    private final Consumer<M> resetter;
+
+    /**
+     * @param factory creates a marshaler when none is available
+     * @param initializer prepares a marshaler for the items of an export
+     * @param resetter clears a marshaler, without releasing its buffers, once its export completes
+     */
+    public MarshalerPool(Supplier<M> factory, BiConsumer<M, Collection<T>> initializer, Consumer<M> resetter) {
+        this.factory = factory;
+        this.initializer = initializer;
+        this.resetter = resetter;
+    }
+
+    /**
+     * @return a marshaler for the given items, to hand back with {@link #release(Marshaler)} once the export completes
+     */
+    public M acquire(Collection<T> items) {
+        M marshaler = marshalers.poll();
+        if (marshaler == null) {
+            marshaler = factory.get();
+        }
+        initializer.accept(marshaler, items);
+        return marshaler;
+    }
+
+    public void release(M marshaler) {
+        resetter.accept(marshaler);
+        marshalers.add(marshaler);
+    }
+
+    /**
+     * @return the number of marshalers waiting to be reused
+     */
+    int size() {
+        return marshalers.size();
+    }
+}
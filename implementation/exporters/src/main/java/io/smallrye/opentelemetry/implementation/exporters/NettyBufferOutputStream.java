@@ -0,0 +1,29 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.io.OutputStream;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * An {@link OutputStream} writing straight into a Netty {@link ByteBuf}, typically a pooled direct buffer that is
+ * then handed to the transport without any intermediate copy. The stream does not own the buffer: releasing it is
+ * the responsibility of the caller.
+ */
+public final class NettyBufferOutputStream extends OutputStream {
+
+    private final ByteBuf buffer;
+
+    public NettyBufferOutputStream(ByteBuf buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.writeBytes(b, off, len);
+    }
+
+    @Override
+    public void write(int b) {
+        buffer.writeByte(b);
+    }
+}
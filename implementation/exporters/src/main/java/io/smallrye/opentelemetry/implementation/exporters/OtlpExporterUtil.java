@@ -1,8 +1,10 @@
 package io.smallrye.opentelemetry.implementation.exporters;
 
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_COMPRESSION;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_COMPRESSION_LEVEL;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_PROTOCOL;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_COMPRESSION;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_COMPRESSION_LEVEL;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_ENDPOINT;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_PROTOCOL;
 import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_SIGNAL_TIMEOUT;
@@ -15,13 +17,30 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 
+import io.opentelemetry.exporter.internal.compression.Compressor;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
 import io.smallrye.opentelemetry.api.OpenTelemetryConfig;
+import io.smallrye.opentelemetry.implementation.exporters.compression.Compressors;
 
 public final class OtlpExporterUtil {
     private OtlpExporterUtil() {
     }
 
+    /**
+     * @return whether the endpoint is a Unix domain socket, {@code unix:///path/to/socket}
+     */
+    public static boolean isUnixDomainSocket(URI uri) {
+        return "unix".equals(uri.getScheme().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return the host of the endpoint, {@code localhost} for a Unix domain socket
+     */
+    public static String getHost(URI uri) {
+        return isUnixDomainSocket(uri) ? "localhost" : uri.getHost();
+    }
+
     public static int getPort(URI uri) {
         int originalPort = uri.getPort();
         if (originalPort > -1) {
@@ -79,15 +98,32 @@ public final class OtlpExporterUtil {
     }
 
     /**
-     * Determine whether to enable compression
+     * Determine the compression codec, one of {@code none}, {@code gzip}, {@code deflate}, {@code zstd} or the encoding
+     * of a registered {@link io.opentelemetry.exporter.internal.compression.CompressorProvider}, along with its
+     * compression level.
      *
      * @param config OpenTelemetry configuration
-     * @return either the configured or default value
+     * @return the configured compressor, gzip by default, or {@code null} if compression is disabled
      */
-    public static boolean getCompression(ConfigProperties config, String signalType) {
-        return Boolean.parseBoolean(getConfig(config, "true",
+    public static Compressor getCompressor(ConfigProperties config, String signalType) {
+        String signalKey = getSignalKey(signalType);
+        String compression = getConfig(config, "gzip",
+                String.format(OTEL_EXPORTER_OTLP_SIGNAL_COMPRESSION, signalKey),
                 String.format(OTEL_EXPORTER_OTLP_SIGNAL_COMPRESSION, signalType),
-                OTEL_EXPORTER_OTLP_COMPRESSION));
+                OTEL_EXPORTER_OTLP_COMPRESSION);
+        String levelProperty = String.format(OTEL_EXPORTER_OTLP_SIGNAL_COMPRESSION_LEVEL, signalKey);
+        if (config.getString(levelProperty) == null) {
+            levelProperty = OTEL_EXPORTER_OTLP_COMPRESSION_LEVEL;
+        }
+        String level = config.getString(levelProperty);
+        if (level == null) {
+            return Compressors.resolve(compression, Compressors.DEFAULT_LEVEL, levelProperty);
+        }
+        try {
+            return Compressors.resolve(compression, Integer.parseInt(level.trim()), levelProperty);
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid " + levelProperty + ": " + level + ". It must be an integer", e);
+        }
     }
 
     /**
@@ -102,6 +138,23 @@ public final class OtlpExporterUtil {
                         String.format(OTEL_EXPORTER_OTLP_SIGNAL_TIMEOUT, signalType), Constants.OTEL_EXPORTER_OTLP_TIMEOUT)));
     }
 
+    /**
+     * The otel properties are keyed by "traces", "metrics" and "logs", while the signal types used by the exporters
+     * are "span", "metric" and "log".
+     */
+    private static String getSignalKey(String signalType) {
+        switch (signalType) {
+            case "span":
+                return "traces";
+            case "metric":
+                return "metrics";
+            case "log":
+                return "logs";
+            default:
+                return signalType;
+        }
+    }
+
     /**
      * Gets the OTLP traces endpoint, if defined. If it is not, it returns the OTLP endpoint. If that is not defined,
      * it returns defaultEndpoint.
@@ -0,0 +1,174 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.internal.ThrottlingLogger;
+
+/**
+ * Splits the exports whose request would exceed the maximum message size of the collector, 4MiB by default for gRPC,
+ * which rejects them as a whole.
+ * <p>
+ * An oversized collection is split in parts of about the same number of items, as many as needed for parts of the
+ * maximum size, and a part still too large is split again. The parts are exported concurrently, each as its own
+ * request, and the export only succeeds if all of them do. An item whose request alone exceeds the maximum size is
+ * sent on its own.
+ * <p>
+ * Building the request of a part only serializes its items again: the OpenTelemetry marshalers serialize a
+ * {@code Resource} and an {@code InstrumentationScopeInfo} once, and cache their bytes by identity for every later
+ * request.
+ * <p>
+ * With an {@link AdaptiveBatchSize}, the exports are also split in parts of at most its current number of items,
+ * and the latency and outcome of every request are reported to it.
+ * <p>
+ * The requests may be pooled, in which case every request built is handed back once it is no longer used: right away
+ * for a request that is split, once its export completes otherwise.
+ *
+ * @param <T> the type of the exported items
+ * @param <M> the type of the export requests
+ */
+public final class RequestSplitter<T, M extends Marshaler> {
+
+    private static final Logger internalLogger = Logger.getLogger(RequestSplitter.class.getName());
+    private static final ThrottlingLogger logger = new ThrottlingLogger(internalLogger);
+
+    private final long maxRequestBytes;
+    private final Function<Collection<T>, M> marshalerFactory;
+    private final Consumer<M> marshalerReleaser;
+    private final AdaptiveBatchSize adaptiveBatchSize;
+
+    /**
+     * @param maxRequestBytes the maximum serialized size of a request, 0 to never split
+     * @param marshalerFactory builds the export request of a collection of items
+     */
+    public RequestSplitter(long maxRequestBytes, Function<Collection<T>, M> marshalerFactory) {
+        this(maxRequestBytes, marshalerFactory, null);
+    }
+
+    /**
+     * @param maxRequestBytes the maximum serialized size of a request, 0 to never split
+     * @param marshalerFactory builds the export request of a collection of items, possibly from a pool
+     * @param marshalerReleaser hands a request back to the pool, or {@code null} if the requests are not pooled
+     */
+    public RequestSplitter(long maxRequestBytes, Function<Collection<T>, M> marshalerFactory,
+            Consumer<M> marshalerReleaser) {
+        this(maxRequestBytes, marshalerFactory, marshalerReleaser, null);
+    }
+
+    /**
+     * @param maxRequestBytes the maximum serialized size of a request, 0 to never split
+     * @param marshalerFactory builds the export request of a collection of items, possibly from a pool
+     * @param marshalerReleaser hands a request back to the pool, or {@code null} if the requests are not pooled
+     * @param adaptiveBatchSize limits the number of items of a request, or {@code null} for no limit
+     */
+    public RequestSplitter(long maxRequestBytes, Function<Collection<T>, M> marshalerFactory,
+            Consumer<M> marshalerReleaser, AdaptiveBatchSize adaptiveBatchSize) {
+        if (maxRequestBytes < 0) {
+            throw new IllegalArgumentException("The maximum request size must not be negative: " + maxRequestBytes);
+        }
+        this.maxRequestBytes = maxRequestBytes;
+        this.marshalerFactory = marshalerFactory;
+        this.marshalerReleaser = marshalerReleaser;
+        this.adaptiveBatchSize = adaptiveBatchSize;
+    }
+
+    /**
+     * @param export sends an export request, given the number of items it holds
+     * @return the result of the export, merged over all the requests
+     */
+    public CompletableResultCode export(Collection<T> items, BiFunction<M, Integer, CompletableResultCode> export) {
+        int maxItems = adaptiveBatchSize == null ? Integer.MAX_VALUE : adaptiveBatchSize.getLimit();
+        if (items.size() <= maxItems) {
+            return exportBounded(items, export);
+        }
+        List<T> list = new ArrayList<>(items);
+        int parts = (list.size() + maxItems - 1) / maxItems;
+        List<CompletableResultCode> results = new ArrayList<>(parts);
+        int from = 0;
+        for (int i = 1; i <= parts; i++) {
+            int to = (int) ((long) list.size() * i / parts);
+            results.add(exportBounded(list.subList(from, to), export));
+            from = to;
+        }
+        internalLogger.log(Level.FINE, "Split an export of {0} items in {1} parts of at most {2} items",
+                new Object[] { items.size(), parts, maxItems });
+        return CompletableResultCode.ofAll(results);
+    }
+
+    private CompletableResultCode exportBounded(Collection<T> items,
+            BiFunction<M, Integer, CompletableResultCode> export) {
+        M marshaler = marshalerFactory.apply(items);
+        int size = marshaler.getBinarySerializedSize();
+        if (maxRequestBytes == 0 || size <= maxRequestBytes || items.size() < 2) {
+            return exportPart(marshaler, size, items.size(), export);
+        }
+        release(marshaler);
+        List<CompletableResultCode> results = new ArrayList<>();
+        split(new ArrayList<>(items), size, export, results);
+        internalLogger.log(Level.FINE, "Split an export of {0} items and {1} bytes in {2} requests",
+                new Object[] { items.size(), size, results.size() });
+        return CompletableResultCode.ofAll(results);
+    }
+
+    private void split(List<T> items, int size, BiFunction<M, Integer, CompletableResultCode> export,
+            List<CompletableResultCode> results) {
+        // the items are assumed to be of similar sizes, a part that is not is split again
+        int parts = (int) Math.min(items.size(), (size + maxRequestBytes - 1) / maxRequestBytes);
+        int from = 0;
+        for (int i = 1; i <= parts; i++) {
+            int to = (int) ((long) items.size() * i / parts);
+            List<T> part = items.subList(from, to);
+            M marshaler = marshalerFactory.apply(part);
+            int partSize = marshaler.getBinarySerializedSize();
+            if (partSize > maxRequestBytes && part.size() > 1) {
+                release(marshaler);
+                split(part, partSize, export, results);
+            } else {
+                results.add(exportPart(marshaler, partSize, part.size(), export));
+            }
+            from = to;
+        }
+    }
+
+    private CompletableResultCode exportPart(M marshaler, int size, int itemCount,
+            BiFunction<M, Integer, CompletableResultCode> export) {
+        if (maxRequestBytes > 0 && size > maxRequestBytes) {
+            logger.log(Level.WARNING, "An export request of " + size + " bytes exceeds the maximum request size of "
+                    + maxRequestBytes + " bytes, the collector may reject it");
+        }
+        final long generation = adaptiveBatchSize == null ? 0 : adaptiveBatchSize.getGeneration();
+        final long start = System.nanoTime();
+        final CompletableResultCode result = export.apply(marshaler, itemCount);
+        if (adaptiveBatchSize != null) {
+            result.whenComplete(new Runnable() {
+                @Override
+                public void run() {
+                    adaptiveBatchSize.onCompleted(generation, System.nanoTime() - start, result.isSuccess());
+                }
+            });
+        }
+        if (marshalerReleaser != null) {
+            result.whenComplete(new Runnable() {
+                @Override
+                public void run() {
+                    marshalerReleaser.accept(marshaler);
+                }
+            });
+        }
+        return result;
+    }
+
+    private void release(M marshaler) {
+        if (marshalerReleaser != null) {
+            marshalerReleaser.accept(marshaler);
+        }
+    }
+}
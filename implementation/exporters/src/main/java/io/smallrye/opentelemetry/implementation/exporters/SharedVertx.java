@@ -0,0 +1,82 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_VERTX_CDI_QUALIFIER;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.CDI;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.smallrye.common.annotation.Identifier;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+
+/**
+ * The Vert.x instance owned by the exporters, shared by the senders of all signals so that they use a single set of
+ * event loop threads and Netty buffer pools. It is created by the first sender and closed when the last one shuts
+ * down.
+ * <p>
+ * The instance uses the native transport of Netty when it is available, which Unix domain socket endpoints require.
+ */
+public final class SharedVertx {
+
+    private static final Logger logger = Logger.getLogger(SharedVertx.class.getName());
+
+    private static Vertx instance;
+    private static int references;
+
+    private SharedVertx() {
+    }
+
+    /**
+     * Returns the shared instance, creating it if needed. Every call must be balanced by a call to
+     * {@link #release(Vertx)}.
+     */
+    public static synchronized Vertx acquire() {
+        if (instance == null) {
+            logger.log(Level.INFO, "Create a new Vertx instance");
+            instance = Vertx.vertx(new VertxOptions().setPreferNativeTransport(true));
+            if (instance.isNativeTransportEnabled()) {
+                logger.log(Level.FINE, "The Vertx instance uses the native transport");
+            }
+        }
+        references++;
+        return instance;
+    }
+
+    /**
+     * Returns the Vert.x instance configured for the exporters. If the CDI qualifier is specified in the config, it
+     * tries to get it from CDI, and if CDI does not provide such an instance on the specified qualifier, it will log
+     * some WARNING messages and return the shared instance. If the CDI qualifier is not specified in the config, it
+     * returns the shared instance. Either way, the instance must be given back with {@link #release(Vertx)}.
+     */
+    public static Vertx acquire(ConfigProperties config) {
+        String cdiQualifier = config.getString(OTEL_EXPORTER_VERTX_CDI_QUALIFIER);
+        if (cdiQualifier != null && !cdiQualifier.isEmpty()) {
+            Instance<Vertx> vertxCDI = CDI.current().select(Vertx.class, Identifier.Literal.of(cdiQualifier));
+            if (vertxCDI != null && vertxCDI.isResolvable()) {
+                return vertxCDI.get();
+            } else {
+                logger.log(Level.WARNING, "The Vertx instance with CDI qualifier @Identifier(\"{0}\") is not resolvable.",
+                        cdiQualifier);
+            }
+        }
+        return acquire();
+    }
+
+    /**
+     * Gives back a reference on the shared instance, closing it when no sender uses it anymore. Instances that were
+     * not obtained from {@link #acquire()}, such as the ones provided by CDI, are left untouched.
+     */
+    public static synchronized void release(Vertx vertx) {
+        if (vertx != instance || instance == null) {
+            return;
+        }
+        if (--references == 0) {
+            instance = null;
+            vertx.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.smallrye.opentelemetry.implementation.exporters.compression;
+
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+import com.github.luben.zstd.Zstd;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+import io.opentelemetry.exporter.internal.compression.CompressorProvider;
+import io.opentelemetry.exporter.internal.compression.CompressorUtil;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+
+/**
+ * Resolves the {@link Compressor} to use for a given {@code otel.exporter.otlp[.signal].compression} value.
+ * <p>
+ * {@code none}, {@code gzip}, {@code deflate} and {@code zstd} are supported out of the box, honouring the configured
+ * compression level. Any other value is looked up among the {@link CompressorProvider} services available to the
+ * OpenTelemetry exporters, which is the extension point for additional codecs.
+ */
+public final class Compressors {
+
+    public static final String NONE = "none";
+
+    /**
+     * Use the default level of the codec.
+     */
+    public static final int DEFAULT_LEVEL = Integer.MIN_VALUE;
+
+    private static final String LEVEL_PROPERTY = "otel.exporter.otlp.compression.level";
+
+    private static final String ZSTD_CLASS = "com.github.luben.zstd.ZstdOutputStreamNoFinalizer";
+    private static final int ZSTD_DEFAULT_LEVEL = 3;
+
+    private Compressors() {
+    }
+
+    /**
+     * @param name the codec name, case-insensitive. For backward compatibility, {@code true} and {@code false} are
+     *        accepted as aliases of {@code gzip} and {@code none}
+     * @param level the compression level, or {@link #DEFAULT_LEVEL}
+     * @return the compressor, or {@code null} if compression is disabled
+     * @throws ConfigurationException if the codec is unknown or not available, or the level out of its range
+     */
+    public static Compressor resolve(String name, int level) {
+        return resolve(name, level, LEVEL_PROPERTY);
+    }
+
+    /**
+     * @param levelProperty the property the level was read from, for the errors
+     * @see #resolve(String, int)
+     */
+    public static Compressor resolve(String name, int level, String levelProperty) {
+        String codec = name.trim().toLowerCase(Locale.ROOT);
+        switch (codec) {
+            case NONE:
+            case "false":
+                return null;
+            case GzipCompressor.ENCODING:
+            case "true":
+                checkLevel(level, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION, GzipCompressor.ENCODING,
+                        levelProperty);
+                return new GzipCompressor(level == DEFAULT_LEVEL ? Deflater.DEFAULT_COMPRESSION : level);
+            case DeflateCompressor.ENCODING:
+                checkLevel(level, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION, DeflateCompressor.ENCODING,
+                        levelProperty);
+                return new DeflateCompressor(level == DEFAULT_LEVEL ? Deflater.DEFAULT_COMPRESSION : level);
+            case ZstdCompressor.ENCODING:
+                if (!isZstdAvailable()) {
+                    throw new ConfigurationException(
+                            "The zstd compression requires the com.github.luben:zstd-jni dependency");
+                }
+                checkLevel(level, Zstd.minCompressionLevel(), Zstd.maxCompressionLevel(), ZstdCompressor.ENCODING,
+                        levelProperty);
+                return new ZstdCompressor(level == DEFAULT_LEVEL ? ZSTD_DEFAULT_LEVEL : level);
+            default:
+                try {
+                    return CompressorUtil.validateAndResolveCompressor(codec);
+                } catch (IllegalArgumentException e) {
+                    throw new ConfigurationException("Unsupported compression: " + name
+                            + ". Supported values are none, gzip, deflate, zstd or the encoding of a registered "
+                            + CompressorProvider.class.getName(), e);
+                }
+        }
+    }
+
+    private static void checkLevel(int level, int min, int max, String codec, String levelProperty) {
+        if (level != DEFAULT_LEVEL && (level < min || level > max)) {
+            throw new ConfigurationException("Invalid " + levelProperty + ": " + level + ". The " + codec
+                    + " compression levels range from " + min + " to " + max);
+        }
+    }
+
+    private static boolean isZstdAvailable() {
+        try {
+            Class.forName(ZSTD_CLASS, false, Compressors.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
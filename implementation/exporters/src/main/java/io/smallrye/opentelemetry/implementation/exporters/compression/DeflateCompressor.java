@@ -0,0 +1,47 @@
+package io.smallrye.opentelemetry.implementation.exporters.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+
+/**
+ * Deflate {@link Compressor}, producing the zlib format expected for the {@code deflate} content coding of both HTTP
+ * and gRPC.
+ */
+public final class DeflateCompressor implements Compressor {
+
+    public static final String ENCODING = "deflate";
+
+    private final int level;
+
+    /**
+     * @param level the compression level, from 1 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public DeflateCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream outputStream) {
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(outputStream, deflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // the deflater is not the default one of the stream, so it is not released on close
+                    deflater.end();
+                }
+            }
+        };
+    }
+}
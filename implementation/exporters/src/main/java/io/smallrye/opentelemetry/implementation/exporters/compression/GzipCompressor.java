@@ -0,0 +1,43 @@
+package io.smallrye.opentelemetry.implementation.exporters.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+
+/**
+ * Gzip {@link Compressor} with a configurable compression level, unlike the one shipped with the OpenTelemetry
+ * exporters which always uses the default level.
+ */
+public final class GzipCompressor implements Compressor {
+
+    public static final String ENCODING = "gzip";
+
+    private final int level;
+
+    /**
+     * @param level the compression level, from 1 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public GzipCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream outputStream) throws IOException {
+        return new LeveledGzipOutputStream(outputStream, level);
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
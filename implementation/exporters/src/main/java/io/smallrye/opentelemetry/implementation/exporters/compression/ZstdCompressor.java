@@ -0,0 +1,36 @@
+package io.smallrye.opentelemetry.implementation.exporters.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+
+/**
+ * Zstandard {@link Compressor}. It requires the optional {@code com.github.luben:zstd-jni} dependency.
+ */
+public final class ZstdCompressor implements Compressor {
+
+    public static final String ENCODING = "zstd";
+
+    private final int level;
+
+    /**
+     * @param level the compression level, from 1 to 22, or a negative value for the faster levels
+     */
+    public ZstdCompressor(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream outputStream) throws IOException {
+        return new ZstdOutputStreamNoFinalizer(outputStream, RecyclingBufferPool.INSTANCE).setLevel(level);
+    }
+}
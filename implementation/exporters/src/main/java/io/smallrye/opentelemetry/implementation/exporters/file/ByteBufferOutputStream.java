@@ -0,0 +1,26 @@
+package io.smallrye.opentelemetry.implementation.exporters.file;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes to a buffer of the mapped file of a {@link RecordWriter}, which is sized for the record beforehand.
+ */
+final class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        buffer.put(b, off, len);
+    }
+}
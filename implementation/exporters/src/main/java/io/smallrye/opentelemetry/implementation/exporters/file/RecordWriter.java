@@ -0,0 +1,23 @@
+package io.smallrye.opentelemetry.implementation.exporters.file;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+
+/**
+ * Writes the export requests of the local exporters, which hand them to a co-located process instead of sending them
+ * over the network.
+ */
+public interface RecordWriter {
+
+    /**
+     * Writes an export request, as the OpenTelemetry exporters would send it. The calls are serialized by the caller,
+     * or by the writer.
+     *
+     * @return a result failed if the request could not be written
+     */
+    CompletableResultCode export(Marshaler marshaler, int itemCount);
+
+    CompletableResultCode flush();
+
+    CompletableResultCode shutdown();
+}
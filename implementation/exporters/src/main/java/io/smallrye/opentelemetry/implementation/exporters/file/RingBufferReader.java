@@ -0,0 +1,142 @@
+package io.smallrye.opentelemetry.implementation.exporters.file;
+
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.CAPACITY_OFFSET;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.DATA_OFFSET;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.DROPPED_OFFSET;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.FRAME_HEADER_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.LONG;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.MAGIC;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.MAGIC_OFFSET;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.PADDING;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.READ_POSITION_OFFSET;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.WRITE_POSITION_OFFSET;
+import static io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter.align;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * The reference consumer of a ring buffer written by the {@link RingBufferWriter}, for a single reader. The frames are
+ * the serialized export requests ({@code ExportTraceServiceRequest}, {@code ExportMetricsServiceRequest} or
+ * {@code ExportLogsServiceRequest}, depending on the signal), ready to be parsed or forwarded by the agent.
+ * <p>
+ * {@link #main(String[])} drains a ring buffer file and prints the size of the frames, as an example or to check that
+ * the application exports.
+ */
+public final class RingBufferReader implements Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final ByteBuffer ring;
+    private final int capacity;
+
+    private long readPosition;
+
+    private RingBufferReader(FileChannel channel, MappedByteBuffer header, int capacity) {
+        this.channel = channel;
+        this.header = header;
+        this.ring = header.duplicate().position(DATA_OFFSET).slice().order(ByteOrder.nativeOrder());
+        this.capacity = capacity;
+        this.readPosition = (long) LONG.getAcquire(header, READ_POSITION_OFFSET);
+    }
+
+    /**
+     * Opens a ring buffer created by a {@link RingBufferWriter}.
+     *
+     * @throws IOException if the file cannot be read, or is not a ring buffer
+     */
+    public static RingBufferReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET);
+            header.order(ByteOrder.nativeOrder());
+            int magic = header.getInt(MAGIC_OFFSET);
+            VarHandle.acquireFence();
+            int capacity = header.getInt(CAPACITY_OFFSET);
+            if (magic != MAGIC || channel.size() != DATA_OFFSET + (long) capacity) {
+                throw new IOException(file + " is not a ring buffer");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + capacity);
+            buffer.order(ByteOrder.nativeOrder());
+            return new RingBufferReader(channel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the frames written since the last call, and releases their space in the ring to the writer.
+     *
+     * @param consumer receives each frame, only valid during the call
+     * @return the number of frames read
+     */
+    public int poll(Consumer<ByteBuffer> consumer) {
+        long writePosition = (long) LONG.getAcquire(header, WRITE_POSITION_OFFSET);
+        int frames = 0;
+        while (readPosition < writePosition) {
+            int offset = (int) (readPosition & (capacity - 1));
+            int size = ring.getInt(offset);
+            if (size == PADDING) {
+                readPosition += capacity - offset;
+                continue;
+            }
+            ByteBuffer frame = ring.duplicate();
+            frame.position(offset + FRAME_HEADER_SIZE).limit(offset + FRAME_HEADER_SIZE + size);
+            consumer.accept(frame.slice());
+            readPosition += align(FRAME_HEADER_SIZE + (long) size);
+            frames++;
+        }
+        LONG.setRelease(header, READ_POSITION_OFFSET, readPosition);
+        return frames;
+    }
+
+    /**
+     * @return the number of export requests dropped by the writer because the ring was full
+     */
+    public long getDroppedCount() {
+        return (long) LONG.getAcquire(header, DROPPED_OFFSET);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Drains the ring buffer file given as argument until interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: RingBufferReader <ring buffer file>");
+            System.exit(1);
+        }
+        try (RingBufferReader reader = open(Paths.get(args[0]))) {
+            long dropped = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                int frames = reader.poll(new Consumer<ByteBuffer>() {
+                    @Override
+                    public void accept(ByteBuffer frame) {
+                        System.out.println("Export request of " + frame.remaining() + " bytes");
+                    }
+                });
+                if (reader.getDroppedCount() != dropped) {
+                    dropped = reader.getDroppedCount();
+                    System.out.println(dropped + " export requests dropped by the writer");
+                }
+                if (frames == 0) {
+                    Thread.sleep(100);
+                }
+            }
+        }
+    }
+}
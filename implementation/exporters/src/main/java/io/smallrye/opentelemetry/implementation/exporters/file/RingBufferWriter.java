@@ -0,0 +1,201 @@
+package io.smallrye.opentelemetry.implementation.exporters.file;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.internal.ThrottlingLogger;
+
+/**
+ * Writes the export requests to a single-producer, single-consumer ring buffer in a memory-mapped file, read by an
+ * agent running on the same host, such as the {@link RingBufferReader}. Exporting costs about a copy of the serialized
+ * request, and never blocks: a request that does not fit in the free space of the ring is dropped and counted.
+ * <p>
+ * The file starts with a header of {@value #DATA_OFFSET} bytes: a magic number and the capacity of the ring, then, on
+ * cache lines of their own, the write position, published by the writer, the read position, published by the reader,
+ * and the number of requests dropped by the writer. The positions grow forever, their offset in the ring is their
+ * value modulo the capacity, a power of two. The positions are read and published with acquire and release semantics,
+ * which orders the accesses to the ring across processes.
+ * <p>
+ * A frame is the size of the serialized request (int), followed by the serialized request, padded to a multiple of 8
+ * bytes. A frame does not wrap around the end of the ring: when it does not fit before the end, a size of
+ * {@value #PADDING} tells the reader to skip to the start of the ring. The integers use the native byte order.
+ */
+public final class RingBufferWriter implements RecordWriter {
+
+    private static final Logger internalLogger = Logger.getLogger(RingBufferWriter.class.getName());
+
+    static final int MAGIC = 0x4f54524e; // OTRN
+    static final int MAGIC_OFFSET = 0;
+    static final int CAPACITY_OFFSET = 4;
+    static final int WRITE_POSITION_OFFSET = 64;
+    static final int READ_POSITION_OFFSET = 128;
+    static final int DROPPED_OFFSET = 192;
+    static final int DATA_OFFSET = 256;
+    static final int FRAME_HEADER_SIZE = 4;
+    static final int PADDING = -1;
+
+    static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ThrottlingLogger logger = new ThrottlingLogger(internalLogger);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer header;
+    private final ByteBuffer ring;
+    private final int capacity;
+
+    private long writePosition;
+    private long dropped;
+    private boolean closed;
+
+    private RingBufferWriter(Path file, FileChannel channel, FileLock lock, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.channel = channel;
+        this.lock = lock;
+        this.header = buffer;
+        this.ring = buffer.duplicate().position(DATA_OFFSET).slice().order(ByteOrder.nativeOrder());
+        this.capacity = capacity;
+        this.writePosition = (long) LONG.getAcquire(buffer, WRITE_POSITION_OFFSET);
+        this.dropped = (long) LONG.getAcquire(buffer, DROPPED_OFFSET);
+    }
+
+    /**
+     * Opens the ring buffer in the given file, keeping the frames not read yet if the file holds a ring of the same
+     * capacity, or creating an empty ring otherwise.
+     *
+     * @param capacity the size of the ring, in bytes, a power of two
+     * @throws IOException if the file cannot be used, or is locked by another writer
+     */
+    public static RingBufferWriter open(Path file, int capacity) throws IOException {
+        if (capacity < 1024 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The ring buffer size must be a power of two of at least 1024 bytes: "
+                    + capacity);
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            // the reader only reads, the lock is held by the writer for the lifetime of the ring
+            FileLock lock = channel.tryLock(0, DATA_OFFSET, false);
+            if (lock == null) {
+                throw new IOException("The ring buffer " + file + " is used by another writer");
+            }
+            boolean reset = channel.size() != DATA_OFFSET + capacity;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + capacity);
+            buffer.order(ByteOrder.nativeOrder());
+            if (reset || buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(CAPACITY_OFFSET) != capacity) {
+                for (int i = 0; i < DATA_OFFSET; i += 8) {
+                    buffer.putLong(i, 0);
+                }
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+                // the magic number is written last, the reader waits for it
+                VarHandle.releaseFence();
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+            }
+            return new RingBufferWriter(file, channel, lock, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Copies an export request into the ring, or drops it if the ring does not have room for it.
+     *
+     * @return a result failed if the request was dropped
+     */
+    @Override
+    public synchronized CompletableResultCode export(Marshaler marshaler, int itemCount) {
+        if (closed) {
+            return CompletableResultCode.ofFailure();
+        }
+        int size = marshaler.getBinarySerializedSize();
+        long frameSize = align(FRAME_HEADER_SIZE + (long) size);
+        int offset = (int) (writePosition & (capacity - 1));
+        // a frame that does not fit before the end of the ring starts over at its beginning
+        long padding = frameSize <= capacity - offset ? 0 : capacity - offset;
+        long readPosition = (long) LONG.getAcquire(header, READ_POSITION_OFFSET);
+        if (writePosition + padding + frameSize - readPosition > capacity) {
+            LONG.setRelease(header, DROPPED_OFFSET, ++dropped);
+            logger.log(Level.WARNING, "The ring buffer " + file + " is full, " + itemCount + " items are dropped. "
+                    + dropped + " export requests were dropped so far");
+            return CompletableResultCode.ofFailure();
+        }
+        if (padding > 0) {
+            ring.putInt(offset, PADDING);
+            offset = 0;
+        }
+        // bounded to the frame, so that a request larger than announced cannot overwrite the frames not read yet
+        ByteBuffer frame = ring.duplicate();
+        frame.limit(offset + FRAME_HEADER_SIZE + size);
+        frame.position(offset + FRAME_HEADER_SIZE);
+        try {
+            marshaler.writeBinaryTo(new ByteBufferOutputStream(frame));
+            if (frame.hasRemaining()) {
+                throw new IOException("The export request was " + (frame.position() - offset - FRAME_HEADER_SIZE)
+                        + " bytes instead of " + size);
+            }
+        } catch (IOException | RuntimeException e) {
+            // nothing is published, the frame is overwritten by the next one
+            logger.log(Level.WARNING, "Unable to write an export request of " + itemCount + " items to the ring buffer "
+                    + file + ", the items are dropped", e);
+            return CompletableResultCode.ofFailure();
+        }
+        ring.putInt(offset, size);
+        writePosition += padding + frameSize;
+        LONG.setRelease(header, WRITE_POSITION_OFFSET, writePosition);
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * @return the number of export requests dropped since the ring was created
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        // the frames are visible to the reader as soon as they are written
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * Releases the ring. The frames not read yet stay in the file for the reader.
+     */
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (closed) {
+            return CompletableResultCode.ofSuccess();
+        }
+        closed = true;
+        try {
+            lock.release();
+            channel.close();
+        } catch (IOException e) {
+            internalLogger.log(Level.FINE, "Unable to close the ring buffer " + file, e);
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,389 @@
+package io.smallrye.opentelemetry.implementation.exporters.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.internal.ThrottlingLogger;
+
+/**
+ * Appends export requests to segment files on local disk, for a sidecar to ship them to the collector, so that the
+ * application never waits on the network.
+ * <p>
+ * Each request is a record made of its serialized size, as a protobuf varint, followed by its serialized form, as
+ * written by {@code writeDelimitedTo} of the protobuf messages: a segment of spans is read back with
+ * {@code ExportTraceServiceRequest.parseDelimitedFrom} until the end of the file, and likewise for the metrics and the
+ * logs. The records are written to the memory-mapped active segment, {@code <sequence>.active}, whose size is written
+ * last so that a record torn by a crash is discarded when the directory is reopened.
+ * <p>
+ * The active segment is completed when the next record does not fit, or at the first export or flush after its maximum
+ * age. It is then truncated to its records and renamed {@code <sequence>.otlp}, or, with a compressor, compressed as a
+ * whole into {@code <sequence>.otlp.<encoding>}. The completed segments appear atomically, in the order of their
+ * sequence numbers, and are left to the sidecar, which deletes them once shipped. The records are dropped while the
+ * completed segments exceed the maximum size.
+ */
+public final class SegmentFileWriter implements RecordWriter {
+
+    private static final Logger internalLogger = Logger.getLogger(SegmentFileWriter.class.getName());
+
+    static final String ACTIVE_SUFFIX = ".active";
+    static final String SEGMENT_SUFFIX = ".otlp";
+    private static final String LOCK_FILE = "segments.lock";
+
+    private final ThrottlingLogger logger = new ThrottlingLogger(internalLogger);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxAgeNanos;
+    private final long maxSize;
+    private final Compressor compressor;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private long nextSequence;
+    private Segment active;
+    private boolean closed;
+
+    private SegmentFileWriter(Path directory, int segmentSize, Duration maxAge, long maxSize, Compressor compressor,
+            FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.maxSize = maxSize;
+        this.compressor = compressor;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    /**
+     * Opens the segments stored in the given directory, completing the active segment left by a previous run.
+     *
+     * @param directory the directory holding the segment files, created if needed. It must not be shared with another
+     *        writer
+     * @param segmentSize the size of the active segment, in bytes. A larger record is written to a segment of its own
+     * @param maxAge how long a segment stays active before being completed
+     * @param maxSize the maximum disk footprint of the completed segments, in bytes
+     * @param compressor the codec compressing the completed segments, or {@code null} to leave them uncompressed
+     * @throws IOException if the directory cannot be used, or is locked by another writer
+     */
+    public static SegmentFileWriter open(Path directory, int segmentSize, Duration maxAge, long maxSize,
+            Compressor compressor) throws IOException {
+        if (segmentSize <= 0 || maxSize < segmentSize || maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("Invalid segment sizing: max size " + maxSize + ", segment size "
+                    + segmentSize + ", max age " + maxAge.toMillis() + "ms");
+        }
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock = lockChannel.tryLock();
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("The segment directory " + directory + " is used by another process");
+        }
+        SegmentFileWriter writer = new SegmentFileWriter(directory, segmentSize, maxAge, maxSize, compressor,
+                lockChannel, lock);
+        try {
+            writer.recover();
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+        return writer;
+    }
+
+    private void recover() throws IOException {
+        List<Path> activeFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                long sequence = sequence(file);
+                if (sequence < 0) {
+                    continue;
+                }
+                nextSequence = Math.max(nextSequence, sequence + 1);
+                String name = file.getFileName().toString();
+                if (name.equals(String.format("%020d%s", sequence, ACTIVE_SUFFIX))) {
+                    activeFiles.add(file);
+                } else if (name.endsWith(ACTIVE_SUFFIX)) {
+                    // a segment being compressed, which is still in its active file
+                    Files.delete(file);
+                }
+            }
+        }
+        Collections.sort(activeFiles);
+        for (Path file : activeFiles) {
+            Segment segment = Segment.recover(file, sequence(file));
+            if (segment.writePosition > 0) {
+                internalLogger.log(Level.INFO, "Completing the export segment {0} left by a previous run", file);
+            }
+            complete(segment);
+        }
+    }
+
+    /**
+     * @return the sequence number of a segment file, or -1 if the file is not a segment
+     */
+    private static long sequence(Path file) {
+        String name = file.getFileName().toString();
+        int end = name.indexOf('.');
+        if (end <= 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Appends an export request to the active segment.
+     *
+     * @return a result failed if the request could not be written, because the segments are full or the writer is
+     *         closed
+     */
+    @Override
+    public synchronized CompletableResultCode export(Marshaler marshaler, int itemCount) {
+        if (closed) {
+            return CompletableResultCode.ofFailure();
+        }
+        int size = marshaler.getBinarySerializedSize();
+        if (size == 0) {
+            return CompletableResultCode.ofSuccess();
+        }
+        int recordSize = varintSize(size) + size;
+        try {
+            if (active != null && (active.isExpired() || active.remaining() < recordSize)) {
+                complete(active);
+                active = null;
+            }
+            if (active == null) {
+                if (completedSize() >= maxSize) {
+                    logger.log(Level.WARNING, "The export segments in " + directory + " exceed " + maxSize
+                            + " bytes, " + itemCount + " items are dropped. Is the sidecar shipping them?");
+                    return CompletableResultCode.ofFailure();
+                }
+                active = Segment.create(directory, nextSequence++, Math.max(segmentSize, recordSize), maxAgeNanos);
+            }
+            active.append(marshaler, size);
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to write an export request of " + itemCount + " items to " + directory
+                    + ", the items are dropped", e);
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    /**
+     * Completes the active segment if it reached its maximum age, or writes its records to disk otherwise.
+     */
+    @Override
+    public synchronized CompletableResultCode flush() {
+        if (active == null) {
+            return CompletableResultCode.ofSuccess();
+        }
+        try {
+            if (active.isExpired()) {
+                complete(active);
+                active = null;
+            } else {
+                active.buffer.force();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Unable to flush the export segment in " + directory, e);
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    /**
+     * Completes the active segment and releases the directory.
+     */
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (closed) {
+            return CompletableResultCode.ofSuccess();
+        }
+        boolean completed = true;
+        if (active != null) {
+            try {
+                complete(active);
+            } catch (IOException | RuntimeException e) {
+                internalLogger.log(Level.WARNING, "Unable to complete the export segment " + active.file, e);
+                completed = false;
+            }
+            active = null;
+        }
+        close();
+        return completed ? CompletableResultCode.ofSuccess() : CompletableResultCode.ofFailure();
+    }
+
+    private void close() {
+        closed = true;
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            internalLogger.log(Level.FINE, "Unable to release the segment directory " + directory, e);
+        }
+    }
+
+    private void complete(Segment segment) throws IOException {
+        segment.buffer.force();
+        if (segment.writePosition == 0) {
+            segment.channel.close();
+            Files.delete(segment.file);
+            return;
+        }
+        String name = String.format("%020d%s", segment.sequence, SEGMENT_SUFFIX);
+        if (compressor == null) {
+            segment.channel.truncate(segment.writePosition);
+            segment.channel.close();
+            Files.move(segment.file, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            return;
+        }
+        name += "." + compressor.getEncoding();
+        // written under a name the sidecar ignores, until complete
+        Path temporary = directory.resolve(name + ACTIVE_SUFFIX);
+        ByteBuffer records = segment.buffer.duplicate();
+        records.limit(segment.writePosition);
+        try (OutputStream out = compressor.compress(Files.newOutputStream(temporary))) {
+            Channels.newChannel(out).write(records);
+        }
+        segment.channel.close();
+        Files.move(temporary, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(segment.file);
+    }
+
+    private long completedSize() throws IOException {
+        long size = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX + "*")) {
+            for (Path file : stream) {
+                if (!file.getFileName().toString().endsWith(ACTIVE_SUFFIX)) {
+                    size += Files.size(file);
+                }
+            }
+        }
+        return size;
+    }
+
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final long sequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long deadline;
+        private int writePosition;
+
+        private Segment(Path file, long sequence, FileChannel channel, MappedByteBuffer buffer, long deadline,
+                int writePosition) {
+            this.file = file;
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.deadline = deadline;
+            this.writePosition = writePosition;
+        }
+
+        static Segment create(Path directory, long sequence, int size, long maxAgeNanos) throws IOException {
+            Path file = directory.resolve(String.format("%020d%s", sequence, ACTIVE_SUFFIX));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(file, sequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size),
+                    System.nanoTime() + maxAgeNanos, 0);
+        }
+
+        /**
+         * Maps a segment left active by a previous run, and finds the end of its complete records.
+         */
+        static Segment recover(Path file, long sequence) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int size = (int) channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            int position = 0;
+            while (position < size) {
+                long length = 0;
+                int end = position;
+                int shift = 0;
+                byte b;
+                do {
+                    if (end >= size || shift > 28) {
+                        length = -1;
+                        break;
+                    }
+                    b = buffer.get(end++);
+                    length |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                // a zero length is the unwritten end of the segment, or a torn record
+                if (length <= 0 || end + length > size) {
+                    break;
+                }
+                position = (int) (end + length);
+            }
+            return new Segment(file, sequence, channel, buffer, 0, position);
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - deadline >= 0;
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        void append(Marshaler marshaler, int size) throws IOException {
+            int start = writePosition;
+            int prefixSize = varintSize(size);
+            ByteBuffer record = buffer.duplicate();
+            record.position(start + prefixSize);
+            try {
+                marshaler.writeBinaryTo(new ByteBufferOutputStream(record));
+                if (record.position() != start + prefixSize + size) {
+                    throw new IOException("The export request was " + (record.position() - start - prefixSize)
+                            + " bytes instead of " + size);
+                }
+            } catch (IOException | RuntimeException e) {
+                // the bytes written must not be mistaken for records when the segment is recovered
+                for (int i = start; i < record.position(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                throw e;
+            }
+            // the first byte of the size is written last, a record only becomes visible once complete
+            int value = size >>> 7;
+            for (int i = 1; i < prefixSize; i++) {
+                buffer.put(start + i, (byte) (i < prefixSize - 1 ? (value & 0x7F) | 0x80 : value & 0x7F));
+                value >>>= 7;
+            }
+            buffer.put(start, (byte) (prefixSize > 1 ? (size & 0x7F) | 0x80 : size));
+            writePosition = record.position();
+        }
+    }
+}
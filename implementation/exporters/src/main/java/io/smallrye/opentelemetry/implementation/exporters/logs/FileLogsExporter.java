@@ -0,0 +1,36 @@
+package io.smallrye.opentelemetry.implementation.exporters.logs;
+
+import java.util.Collection;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
+import io.smallrye.opentelemetry.implementation.exporters.file.RecordWriter;
+
+public class FileLogsExporter implements LogRecordExporter {
+    private final RecordWriter writer;
+    private final RequestSplitter<LogRecordData, ? extends Marshaler> splitter;
+
+    public FileLogsExporter(RecordWriter writer, RequestSplitter<LogRecordData, ? extends Marshaler> splitter) {
+        this.writer = writer;
+        this.splitter = splitter;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<LogRecordData> logs) {
+        // the records are kept below the maximum request size, for the sidecar to send them as-is
+        return splitter.export(logs, writer::export);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return writer.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return writer.shutdown();
+    }
+}
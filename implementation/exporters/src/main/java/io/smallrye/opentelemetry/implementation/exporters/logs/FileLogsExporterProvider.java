@@ -0,0 +1,46 @@
+package io.smallrye.opentelemetry.implementation.exporters.logs;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.otlp.logs.LogsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.logs.LowAllocationLogsRequestMarshaler;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.logs.ConfigurableLogRecordExporterProvider;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.smallrye.opentelemetry.implementation.exporters.AbstractVertxExporterProvider;
+import io.smallrye.opentelemetry.implementation.exporters.MarshalerPool;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
+import io.smallrye.opentelemetry.implementation.exporters.file.RecordWriter;
+
+/**
+ * Writes the logs to local segment files, see
+ * {@link io.smallrye.opentelemetry.implementation.exporters.file.SegmentFileWriter}.
+ */
+public class FileLogsExporterProvider extends AbstractVertxExporterProvider<Marshaler>
+        implements ConfigurableLogRecordExporterProvider {
+    public FileLogsExporterProvider() {
+        this("otlp-file");
+    }
+
+    protected FileLogsExporterProvider(String exporterName) {
+        super("log", exporterName);
+    }
+
+    @Override
+    public LogRecordExporter createExporter(ConfigProperties config) {
+        return new FileLogsExporter(createRecordWriter(config), requestSplitter(config));
+    }
+
+    protected RecordWriter createRecordWriter(ConfigProperties config) {
+        return createSegmentFileWriter(config);
+    }
+
+    private RequestSplitter<LogRecordData, ? extends Marshaler> requestSplitter(ConfigProperties config) {
+        if (getMemoryMode(config) == MemoryMode.REUSABLE_DATA) {
+            return createRequestSplitter(config, new MarshalerPool<>(LowAllocationLogsRequestMarshaler::new,
+                    LowAllocationLogsRequestMarshaler::initialize, LowAllocationLogsRequestMarshaler::reset));
+        }
+        return createRequestSplitter(config, LogsRequestMarshaler::create);
+    }
+}
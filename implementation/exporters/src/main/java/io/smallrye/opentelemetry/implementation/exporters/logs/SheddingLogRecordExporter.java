@@ -0,0 +1,56 @@
+package io.smallrye.opentelemetry.implementation.exporters.logs;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import io.opentelemetry.api.logs.Severity;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.smallrye.opentelemetry.implementation.exporters.LoadShedder;
+
+/**
+ * Sheds the logs beyond the capacity of the exporter, keeping the logs of high severity ahead of the others, see
+ * {@link LoadShedder}.
+ */
+public final class SheddingLogRecordExporter implements LogRecordExporter {
+
+    static final String REASON_SEVERITY = "severity";
+
+    private final LogRecordExporter delegate;
+    private final LoadShedder<LogRecordData> shedder;
+
+    public SheddingLogRecordExporter(LogRecordExporter delegate, LoadShedder<LogRecordData> shedder) {
+        this.delegate = delegate;
+        this.shedder = shedder;
+    }
+
+    /**
+     * @param severityThreshold the severity from which a log is kept ahead of the routine ones
+     * @return the classifier of the logs, {@code severity} for a log of at least the threshold
+     */
+    public static Function<LogRecordData, String> classifier(Severity severityThreshold) {
+        final int threshold = severityThreshold.getSeverityNumber();
+        return new Function<LogRecordData, String>() {
+            @Override
+            public String apply(LogRecordData log) {
+                return log.getSeverity().getSeverityNumber() >= threshold ? REASON_SEVERITY : null;
+            }
+        };
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<LogRecordData> logs) {
+        return shedder.export(logs, delegate::export);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+}
@@ -3,21 +3,26 @@ package io.smallrye.opentelemetry.implementation.exporters.logs;
 import java.util.Collection;
 
 import io.opentelemetry.exporter.internal.grpc.GrpcExporter;
-import io.opentelemetry.exporter.internal.otlp.logs.LogsRequestMarshaler;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.logs.data.LogRecordData;
 import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
 
 public class VertxGrpcLogsExporter implements LogRecordExporter {
-    private final GrpcExporter<LogsRequestMarshaler> delegate;
+    private final GrpcExporter<Marshaler> delegate;
+    private final RequestSplitter<LogRecordData, ? extends Marshaler> splitter;
 
-    public VertxGrpcLogsExporter(GrpcExporter<LogsRequestMarshaler> delegate) {
+    public VertxGrpcLogsExporter(GrpcExporter<Marshaler> delegate,
+            RequestSplitter<LogRecordData, ? extends Marshaler> splitter) {
         this.delegate = delegate;
+        this.splitter = splitter;
     }
 
     @Override
     public CompletableResultCode export(Collection<LogRecordData> logs) {
-        return delegate.export(LogsRequestMarshaler.create(logs), logs.size());
+        // the export is split in several requests when it exceeds the maximum request size
+        return splitter.export(logs, delegate::export);
     }
 
     @Override
@@ -6,15 +6,22 @@ import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUti
 
 import java.net.URISyntaxException;
 
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
 import io.opentelemetry.exporter.internal.otlp.logs.LogsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.logs.LowAllocationLogsRequestMarshaler;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import io.opentelemetry.sdk.autoconfigure.spi.logs.ConfigurableLogRecordExporterProvider;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
 import io.opentelemetry.sdk.logs.export.LogRecordExporter;
 import io.smallrye.opentelemetry.implementation.exporters.AbstractVertxExporterProvider;
+import io.smallrye.opentelemetry.implementation.exporters.LoadShedder;
+import io.smallrye.opentelemetry.implementation.exporters.MarshalerPool;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxGrpcSender;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxHttpSender;
 
-public class VertxLogsExporterProvider extends AbstractVertxExporterProvider<LogsRequestMarshaler>
+public class VertxLogsExporterProvider extends AbstractVertxExporterProvider<Marshaler>
         implements ConfigurableLogRecordExporterProvider {
     public VertxLogsExporterProvider() {
         super("log", "otlp");
@@ -26,9 +33,12 @@ public class VertxLogsExporterProvider extends AbstractVertxExporterProvider<Log
             final String protocol = getProtocol(config, getSignalType());
 
             if (PROTOCOL_GRPC.equals(protocol)) {
-                return new VertxGrpcLogsExporter(createGrpcExporter(config, VertxGrpcSender.GRPC_LOG_SERVICE_NAME));
+                return shed(config, "grpc",
+                        new VertxGrpcLogsExporter(createGrpcExporter(config, VertxGrpcSender.GRPC_LOG_SERVICE_NAME),
+                                requestSplitter(config)));
             } else if (PROTOCOL_HTTP_PROTOBUF.equals(protocol)) {
-                return new VertxHttpLogsExporter(createHttpExporter(config, VertxHttpSender.LOGS_PATH));
+                return shed(config, "http", new VertxHttpLogsExporter(createHttpExporter(config, VertxHttpSender.LOGS_PATH),
+                        requestSplitter(config)));
             } else {
                 throw buildUnsupportedProtocolException(protocol);
             }
@@ -36,4 +46,25 @@ public class VertxLogsExporterProvider extends AbstractVertxExporterProvider<Log
             throw new IllegalStateException("Unable to install OTLP Exporter", iae);
         }
     }
+
+    /**
+     * With a load shedding policy, the exports go through a shedder first.
+     */
+    private LogRecordExporter shed(ConfigProperties config, String transportName, LogRecordExporter exporter) {
+        LoadShedder<LogRecordData> shedder = createLoadShedder(config, transportName,
+                SheddingLogRecordExporter.classifier(getSheddingSeverityThreshold(config)));
+        return shedder == null ? exporter : new SheddingLogRecordExporter(exporter, shedder);
+    }
+
+    /**
+     * With reusable data, the requests are serialized by pooled low-allocation marshalers, which are reset and reused
+     * once their export completes.
+     */
+    private RequestSplitter<LogRecordData, ? extends Marshaler> requestSplitter(ConfigProperties config) {
+        if (getMemoryMode(config) == MemoryMode.REUSABLE_DATA) {
+            return createRequestSplitter(config, new MarshalerPool<>(LowAllocationLogsRequestMarshaler::new,
+                    LowAllocationLogsRequestMarshaler::initialize, LowAllocationLogsRequestMarshaler::reset));
+        }
+        return createRequestSplitter(config, LogsRequestMarshaler::create);
+    }
 }
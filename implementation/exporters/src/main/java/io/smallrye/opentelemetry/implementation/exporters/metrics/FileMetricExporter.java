@@ -0,0 +1,68 @@
+package io.smallrye.opentelemetry.implementation.exporters.metrics;
+
+import java.util.Collection;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector;
+import io.opentelemetry.sdk.metrics.export.DefaultAggregationSelector;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
+import io.smallrye.opentelemetry.implementation.exporters.file.RecordWriter;
+
+public class FileMetricExporter implements MetricExporter {
+
+    private final RecordWriter writer;
+    private final RequestSplitter<MetricData, ? extends Marshaler> splitter;
+    private final AggregationTemporalitySelector aggregationTemporalitySelector;
+    private final DefaultAggregationSelector defaultAggregationSelector;
+    private final MemoryMode memoryMode;
+
+    public FileMetricExporter(RecordWriter writer,
+            RequestSplitter<MetricData, ? extends Marshaler> splitter,
+            AggregationTemporalitySelector aggregationTemporalitySelector,
+            DefaultAggregationSelector defaultAggregationSelector,
+            MemoryMode memoryMode) {
+        this.writer = writer;
+        this.splitter = splitter;
+        this.aggregationTemporalitySelector = aggregationTemporalitySelector;
+        this.defaultAggregationSelector = defaultAggregationSelector;
+        this.memoryMode = memoryMode;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<MetricData> metrics) {
+        // the records are kept below the maximum request size, for the sidecar to send them as-is
+        return splitter.export(metrics, writer::export);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return writer.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return writer.shutdown();
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return this.aggregationTemporalitySelector.getAggregationTemporality(instrumentType);
+    }
+
+    @Override
+    public Aggregation getDefaultAggregation(InstrumentType instrumentType) {
+        return defaultAggregationSelector.getDefaultAggregation(instrumentType);
+    }
+
+    @Override
+    public MemoryMode getMemoryMode() {
+        return memoryMode;
+    }
+}
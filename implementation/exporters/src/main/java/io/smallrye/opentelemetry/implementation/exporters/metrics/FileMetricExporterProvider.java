@@ -0,0 +1,58 @@
+package io.smallrye.opentelemetry.implementation.exporters.metrics;
+
+import static io.smallrye.opentelemetry.implementation.exporters.metrics.VertxMetricsExporterProvider.aggregationResolver;
+import static io.smallrye.opentelemetry.implementation.exporters.metrics.VertxMetricsExporterProvider.aggregationTemporalityResolver;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.otlp.metrics.LowAllocationMetricsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.metrics.MetricsRequestMarshaler;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.metrics.ConfigurableMetricExporterProvider;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.smallrye.opentelemetry.implementation.exporters.AbstractVertxExporterProvider;
+import io.smallrye.opentelemetry.implementation.exporters.MarshalerPool;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
+import io.smallrye.opentelemetry.implementation.exporters.file.RecordWriter;
+
+/**
+ * Writes the metrics to local segment files, see
+ * {@link io.smallrye.opentelemetry.implementation.exporters.file.SegmentFileWriter}. The temporality and the default
+ * histogram aggregation are configured as for the {@code otlp} exporter.
+ */
+public class FileMetricExporterProvider extends AbstractVertxExporterProvider<Marshaler>
+        implements ConfigurableMetricExporterProvider {
+
+    public FileMetricExporterProvider() {
+        this("otlp-file");
+    }
+
+    protected FileMetricExporterProvider(String exporterName) {
+        super("metric", exporterName);
+    }
+
+    @Override
+    public MetricExporter createExporter(ConfigProperties config) {
+        final MemoryMode memoryMode = getMemoryMode(config);
+        return new FileMetricExporter(
+                createRecordWriter(config),
+                requestSplitter(config, memoryMode),
+                aggregationTemporalityResolver(config),
+                aggregationResolver(config),
+                memoryMode);
+    }
+
+    protected RecordWriter createRecordWriter(ConfigProperties config) {
+        return createSegmentFileWriter(config);
+    }
+
+    private RequestSplitter<MetricData, ? extends Marshaler> requestSplitter(ConfigProperties config,
+            MemoryMode memoryMode) {
+        if (memoryMode == MemoryMode.REUSABLE_DATA) {
+            return createRequestSplitter(config, new MarshalerPool<>(LowAllocationMetricsRequestMarshaler::new,
+                    LowAllocationMetricsRequestMarshaler::initialize, LowAllocationMetricsRequestMarshaler::reset));
+        }
+        return createRequestSplitter(config, MetricsRequestMarshaler::create);
+    }
+}
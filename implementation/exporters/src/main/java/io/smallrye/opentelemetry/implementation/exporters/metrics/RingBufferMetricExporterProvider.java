@@ -0,0 +1,20 @@
+package io.smallrye.opentelemetry.implementation.exporters.metrics;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.smallrye.opentelemetry.implementation.exporters.file.RecordWriter;
+
+/**
+ * Writes the metrics to a ring buffer shared with an agent on the same host, see
+ * {@link io.smallrye.opentelemetry.implementation.exporters.file.RingBufferWriter}.
+ */
+public class RingBufferMetricExporterProvider extends FileMetricExporterProvider {
+
+    public RingBufferMetricExporterProvider() {
+        super("otlp-ring");
+    }
+
+    @Override
+    protected RecordWriter createRecordWriter(ConfigProperties config) {
+        return createRingBufferWriter(config);
+    }
+}
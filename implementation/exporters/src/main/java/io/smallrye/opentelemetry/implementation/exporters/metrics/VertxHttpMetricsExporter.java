@@ -3,7 +3,7 @@ package io.smallrye.opentelemetry.implementation.exporters.metrics;
 import java.util.Collection;
 
 import io.opentelemetry.exporter.internal.http.HttpExporter;
-import io.opentelemetry.exporter.internal.otlp.metrics.MetricsRequestMarshaler;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.common.export.MemoryMode;
 import io.opentelemetry.sdk.metrics.Aggregation;
@@ -13,24 +13,32 @@ import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector;
 import io.opentelemetry.sdk.metrics.export.DefaultAggregationSelector;
 import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
 
 public class VertxHttpMetricsExporter implements MetricExporter {
 
-    private final HttpExporter<MetricsRequestMarshaler> delegate;
+    private final HttpExporter<Marshaler> delegate;
+    private final RequestSplitter<MetricData, ? extends Marshaler> splitter;
     private final AggregationTemporalitySelector aggregationTemporalitySelector;
     private final DefaultAggregationSelector defaultAggregationSelector;
+    private final MemoryMode memoryMode;
 
-    public VertxHttpMetricsExporter(HttpExporter<MetricsRequestMarshaler> delegate,
+    public VertxHttpMetricsExporter(HttpExporter<Marshaler> delegate,
+            RequestSplitter<MetricData, ? extends Marshaler> splitter,
             AggregationTemporalitySelector aggregationTemporalitySelector,
-            DefaultAggregationSelector defaultAggregationSelector) {
+            DefaultAggregationSelector defaultAggregationSelector,
+            MemoryMode memoryMode) {
         this.delegate = delegate;
+        this.splitter = splitter;
         this.aggregationTemporalitySelector = aggregationTemporalitySelector;
         this.defaultAggregationSelector = defaultAggregationSelector;
+        this.memoryMode = memoryMode;
     }
 
     @Override
     public CompletableResultCode export(Collection<MetricData> metrics) {
-        return delegate.export(MetricsRequestMarshaler.create(metrics), metrics.size());
+        // the export is split in several requests when it exceeds the maximum request size
+        return splitter.export(metrics, delegate::export);
     }
 
     @Override
@@ -55,6 +63,6 @@ public class VertxHttpMetricsExporter implements MetricExporter {
 
     @Override
     public MemoryMode getMemoryMode() {
-        return MemoryMode.IMMUTABLE_DATA; // Same as the default in the OTLP exporter
+        return memoryMode;
     }
 }
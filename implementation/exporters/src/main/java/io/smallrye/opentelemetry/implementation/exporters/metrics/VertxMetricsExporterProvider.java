@@ -7,21 +7,27 @@ import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUti
 
 import java.net.URISyntaxException;
 
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.otlp.metrics.LowAllocationMetricsRequestMarshaler;
 import io.opentelemetry.exporter.internal.otlp.metrics.MetricsRequestMarshaler;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
 import io.opentelemetry.sdk.autoconfigure.spi.metrics.ConfigurableMetricExporterProvider;
+import io.opentelemetry.sdk.common.export.MemoryMode;
 import io.opentelemetry.sdk.metrics.Aggregation;
 import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector;
 import io.opentelemetry.sdk.metrics.export.DefaultAggregationSelector;
 import io.opentelemetry.sdk.metrics.export.MetricExporter;
 import io.opentelemetry.sdk.metrics.internal.aggregator.AggregationUtil;
 import io.smallrye.opentelemetry.implementation.exporters.AbstractVertxExporterProvider;
+import io.smallrye.opentelemetry.implementation.exporters.MarshalerPool;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxGrpcSender;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxHttpSender;
 
-public class VertxMetricsExporterProvider extends AbstractVertxExporterProvider<MetricsRequestMarshaler>
+public class VertxMetricsExporterProvider extends AbstractVertxExporterProvider<Marshaler>
         implements ConfigurableMetricExporterProvider {
 
     public VertxMetricsExporterProvider() {
@@ -32,17 +38,22 @@ public class VertxMetricsExporterProvider extends AbstractVertxExporterProvider<
     public MetricExporter createExporter(ConfigProperties config) {
         try {
             final String protocol = getProtocol(config, getSignalType());
+            final MemoryMode memoryMode = getMemoryMode(config);
 
             if (PROTOCOL_GRPC.equals(protocol)) {
                 return new VertxGrpcMetricExporter(
                         createGrpcExporter(config, VertxGrpcSender.GRPC_METRIC_SERVICE_NAME),
+                        requestSplitter(config, memoryMode),
                         aggregationTemporalityResolver(config),
-                        aggregationResolver(config));
+                        aggregationResolver(config),
+                        memoryMode);
             } else if (PROTOCOL_HTTP_PROTOBUF.equals(protocol)) {
                 return new VertxHttpMetricsExporter(
                         createHttpExporter(config, VertxHttpSender.METRICS_PATH),
+                        requestSplitter(config, memoryMode),
                         aggregationTemporalityResolver(config),
-                        aggregationResolver(config));
+                        aggregationResolver(config),
+                        memoryMode);
             } else {
                 throw buildUnsupportedProtocolException(protocol);
             }
@@ -51,7 +62,20 @@ public class VertxMetricsExporterProvider extends AbstractVertxExporterProvider<
         }
     }
 
-    private DefaultAggregationSelector aggregationResolver(ConfigProperties config) {
+    /**
+     * With reusable points, the requests are serialized by pooled low-allocation marshalers, which are reset and reused
+     * once their export completes.
+     */
+    private RequestSplitter<MetricData, ? extends Marshaler> requestSplitter(ConfigProperties config,
+            MemoryMode memoryMode) {
+        if (memoryMode == MemoryMode.REUSABLE_DATA) {
+            return createRequestSplitter(config, new MarshalerPool<>(LowAllocationMetricsRequestMarshaler::new,
+                    LowAllocationMetricsRequestMarshaler::initialize, LowAllocationMetricsRequestMarshaler::reset));
+        }
+        return createRequestSplitter(config, MetricsRequestMarshaler::create);
+    }
+
+    static DefaultAggregationSelector aggregationResolver(ConfigProperties config) {
         String defaultHistogramAggregation = getConfig(config, "explicit_bucket_histogram",
                 "otel.exporter.otlp.metrics.default.histogram.aggregation");
 
@@ -70,7 +94,7 @@ public class VertxMetricsExporterProvider extends AbstractVertxExporterProvider<
         return aggregationSelector;
     }
 
-    private AggregationTemporalitySelector aggregationTemporalityResolver(ConfigProperties config) {
+    static AggregationTemporalitySelector aggregationTemporalityResolver(ConfigProperties config) {
         String temporalityValue = getConfig(config, "cumulative",
                 "otel.exporter.otlp.metrics.temporality.preference");
         if (temporalityValue.equals("cumulative")) {
@@ -0,0 +1,205 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+
+/**
+ * The body of an export request serialized straight to the request, chunk by chunk, instead of into an
+ * {@link ExportPayload} holding the whole batch.
+ * <p>
+ * The marshaler, and the compressor if any, write into a buffer of the chunk size, which is handed to the request
+ * whenever it is full. The writer waits while the write queue of the request is full, so that the memory held by an
+ * export is bounded by the chunk size and the flow control window of the connection, whatever the size of the batch.
+ * As it blocks, the writer runs on the worker pool of the {@link EncodingExecutor} of the sender. Every attempt
+ * serializes the marshaler again, the attempts of a request never write concurrently.
+ */
+final class ChunkedRequestBody {
+
+    private final Marshaler marshaler;
+    private final Compressor compressor;
+    private final int chunkSize;
+    private final long drainTimeoutNanos;
+
+    /**
+     * @param compressor the codec compressing the serialized request, or {@code null} to send it uncompressed
+     * @param chunkSize the number of bytes handed to the request at once
+     * @param drainTimeout how long the writer waits for the write queue of the request to drain
+     */
+    ChunkedRequestBody(Marshaler marshaler, Compressor compressor, int chunkSize, Duration drainTimeout) {
+        this.marshaler = marshaler;
+        this.compressor = compressor;
+        this.chunkSize = chunkSize;
+        this.drainTimeoutNanos = drainTimeout.toNanos();
+    }
+
+    boolean isCompressed() {
+        return compressor != null;
+    }
+
+    /**
+     * @return the content coding of the body, {@code identity} when it is not compressed
+     */
+    String encoding() {
+        return compressor != null ? compressor.getEncoding() : ExportPayload.IDENTITY_ENCODING;
+    }
+
+    /**
+     * Encodes the whole body at once, for the {@link DiskSpool}.
+     */
+    ExportPayload encode() throws IOException {
+        return ExportPayload.encode(marshaler, compressor);
+    }
+
+    /**
+     * Writes the body and ends the request. The request is reset without being ended if the body cannot be written,
+     * which fails its response.
+     *
+     * @param contentLength the serialized size of the marshaler, sent as {@code Content-Length} when the body is not
+     *        compressed, a compressed body uses the chunked transfer encoding
+     * @param executor the executor of the sender, whose worker pool runs the writer
+     * @param context the context of the sender, on which the returned future completes
+     * @return the number of bytes written, once the body is written or the write is abandoned
+     */
+    Future<Long> writeTo(HttpClientRequest request, int contentLength, EncodingExecutor executor, Context context) {
+        if (compressor != null) {
+            request.setChunked(true);
+        } else {
+            request.putHeader("Content-Length", Integer.toString(contentLength));
+        }
+        ChunkOutputStream out = new ChunkOutputStream(request);
+        // a response received before the end of the body, or a failure of the request, stops the writer
+        request.response().onComplete(new Handler<AsyncResult<HttpClientResponse>>() {
+            @Override
+            public void handle(AsyncResult<HttpClientResponse> result) {
+                out.abort(result.succeeded() ? new IOException("The collector responded before the end of the request")
+                        : result.cause());
+            }
+        });
+        return executor.executeBlocking(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                if (compressor != null) {
+                    // the compressor may close the stream it writes to, which does not end the request
+                    try (var cos = compressor.compress(out)) {
+                        marshaler.writeBinaryTo(cos);
+                    }
+                } else {
+                    marshaler.writeBinaryTo(out);
+                }
+                // only a complete body ends the request, a truncated one would be accepted by the collector
+                out.end();
+                return out.written;
+            }
+        }, context).onFailure(new Handler<Throwable>() {
+            @Override
+            public void handle(Throwable t) {
+                request.reset(0, t);
+            }
+        });
+    }
+
+    private final class ChunkOutputStream extends OutputStream {
+
+        private final HttpClientRequest request;
+        private Buffer chunk;
+        private long written;
+        private volatile boolean ended;
+        private volatile Throwable failure;
+
+        private ChunkOutputStream(HttpClientRequest request) {
+            this.request = request;
+            this.chunk = Buffer.buffer(chunkSize);
+            request.drainHandler(new Handler<Void>() {
+                @Override
+                public void handle(Void ignored) {
+                    synchronized (ChunkOutputStream.this) {
+                        ChunkOutputStream.this.notifyAll();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            chunk.appendByte((byte) b);
+            if (chunk.length() >= chunkSize) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int count = Math.min(len, chunkSize - chunk.length());
+                chunk.appendBytes(b, off, count);
+                off += count;
+                len -= count;
+                if (chunk.length() >= chunkSize) {
+                    flushChunk();
+                }
+            }
+        }
+
+        private void flushChunk() throws IOException {
+            checkFailure();
+            written += chunk.length();
+            request.write(chunk);
+            chunk = Buffer.buffer(chunkSize);
+            awaitDrain();
+        }
+
+        private synchronized void awaitDrain() throws IOException {
+            long deadline = System.nanoTime() + drainTimeoutNanos;
+            while (request.writeQueueFull()) {
+                checkFailure();
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IOException("The export request did not drain within "
+                            + TimeUnit.NANOSECONDS.toMillis(drainTimeoutNanos) + "ms");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing the export request");
+                }
+            }
+        }
+
+        private void checkFailure() throws IOException {
+            Throwable t = failure;
+            if (t != null) {
+                throw t instanceof IOException ? (IOException) t : new IOException(t);
+            }
+        }
+
+        synchronized void abort(Throwable t) {
+            if (failure == null && !ended) {
+                failure = t;
+            }
+            notifyAll();
+        }
+
+        void end() throws IOException {
+            checkFailure();
+            ended = true;
+            written += chunk.length();
+            request.end(chunk);
+            chunk = null;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+
+/**
+ * Stops sending exports to an endpoint while the collector behind it is unhealthy, so that exports fail fast with a
+ * {@link CircuitBreakerOpenException} instead of waiting for connection timeouts and retries.
+ * <p>
+ * The breaker is closed as long as the failure rate, or the rate of slow calls, over a rolling window of the last
+ * calls stays under its threshold. Once a threshold is reached, the breaker opens for the open duration, during which
+ * no call is made. It is then half-open: a few probe calls are let through, and the breaker closes if they all succeed,
+ * or opens again otherwise.
+ * <p>
+ * Every attempt is a call, including retries. Connection failures and responses telling that the collector is
+ * overloaded are failures, while any other response shows that the collector is reachable and counts as a success.
+ */
+public final class CircuitBreaker {
+
+    private static final Logger logger = Logger.getLogger(CircuitBreaker.class.getName());
+
+    private static final AttributeKey<String> ATTRIBUTE_KEY_TYPE = AttributeKey.stringKey("type");
+    private static final AttributeKey<String> ATTRIBUTE_KEY_STATE = AttributeKey.stringKey("state");
+    private static final AttributeKey<String> ATTRIBUTE_KEY_ENDPOINT = AttributeKey.stringKey("endpoint");
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN;
+
+        private final String attributeValue = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final String endpoint;
+    private final boolean enabled;
+    private final byte[] window;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int slowCallRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    private volatile State state = State.CLOSED;
+    private int windowPosition;
+    private int calls;
+    private int failedCalls;
+    private int slowCalls;
+    private long openedAt;
+    private int startedProbes;
+    private int succeededProbes;
+
+    private volatile LongCounter transitions;
+    private Attributes typeAttributes = Attributes.empty();
+    private Supplier<MeterProvider> meterProviderSupplier;
+    private String meterName;
+    private String instrumentPrefix;
+
+    /**
+     * @param endpoint the endpoint guarded by the breaker, used in the logs and errors
+     * @param windowSize the number of calls in the rolling window
+     * @param minimumCalls the minimum number of calls in the window before the rates are evaluated
+     * @param failureRateThreshold the failure rate opening the breaker, in percent
+     * @param slowCallDuration the duration above which a call is slow
+     * @param slowCallRateThreshold the slow call rate opening the breaker, in percent
+     * @param openDuration how long the breaker stays open before letting probes through
+     * @param halfOpenProbes the number of successful probes needed to close the breaker
+     */
+    public CircuitBreaker(String endpoint, int windowSize, int minimumCalls, int failureRateThreshold,
+            Duration slowCallDuration, int slowCallRateThreshold, Duration openDuration, int halfOpenProbes) {
+        this(endpoint, true, windowSize, minimumCalls, failureRateThreshold, slowCallDuration, slowCallRateThreshold,
+                openDuration, halfOpenProbes, System::nanoTime);
+    }
+
+    CircuitBreaker(String endpoint, boolean enabled, int windowSize, int minimumCalls, int failureRateThreshold,
+            Duration slowCallDuration, int slowCallRateThreshold, Duration openDuration, int halfOpenProbes,
+            LongSupplier clock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker window: size " + windowSize + ", minimum calls "
+                    + minimumCalls + ", half-open probes " + halfOpenProbes);
+        }
+        if (failureRateThreshold < 1 || failureRateThreshold > 100 || slowCallRateThreshold < 1
+                || slowCallRateThreshold > 100) {
+            throw new IllegalArgumentException("The circuit breaker thresholds must be between 1 and 100: failure rate "
+                    + failureRateThreshold + ", slow call rate " + slowCallRateThreshold);
+        }
+        this.endpoint = endpoint;
+        this.enabled = enabled;
+        this.window = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDurationNanos = slowCallDuration.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenProbes = halfOpenProbes;
+        this.clock = clock;
+    }
+
+    /**
+     * @return a breaker that never opens
+     */
+    public static CircuitBreaker disabled(String endpoint) {
+        return new CircuitBreaker(endpoint, false, 1, 1, 100, Duration.ZERO, 100, Duration.ZERO, 1, System::nanoTime);
+    }
+
+    /**
+     * Exposes the state of the breaker, as {@code <exporterName>.exporter.circuit_breaker.state} gauges set to 1 for
+     * the current state and 0 for the others, and the number of state changes, as
+     * {@code <exporterName>.exporter.circuit_breaker.transitions}, with the new state as attribute. Both have the
+     * endpoint as attribute, as a sender may have several endpoints, each with its own breaker. The instruments
+     * are created lazily, as the meter provider may not be available yet when the exporter is created.
+     */
+    public void registerMetrics(Supplier<MeterProvider> meterProviderSupplier, String exporterName,
+            String transportName, String type) {
+        this.meterProviderSupplier = meterProviderSupplier;
+        this.meterName = "io.opentelemetry.exporters." + exporterName + "-" + transportName;
+        this.instrumentPrefix = exporterName + ".exporter.circuit_breaker";
+        this.typeAttributes = Attributes.of(ATTRIBUTE_KEY_TYPE, type, ATTRIBUTE_KEY_ENDPOINT, endpoint);
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return {@code false} if the call must not be made, because the breaker is open or all the probes of the
+     *         half-open state are already in flight
+     */
+    synchronized boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        if (transitions == null && meterProviderSupplier != null) {
+            createInstruments();
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            // let the first probe through
+            transitionTo(State.HALF_OPEN);
+        }
+        if (startedProbes >= halfOpenProbes) {
+            return false;
+        }
+        startedProbes++;
+        return true;
+    }
+
+    /**
+     * @param startNanos the {@link System#nanoTime()} when the call was made
+     */
+    void onSuccess(long startNanos) {
+        onResult(false, startNanos);
+    }
+
+    /**
+     * @param startNanos the {@link System#nanoTime()} when the call was made
+     */
+    void onFailure(long startNanos) {
+        onResult(true, startNanos);
+    }
+
+    /**
+     * @return the time to pass to {@link #onSuccess(long)} or {@link #onFailure(long)}
+     */
+    long now() {
+        return clock.getAsLong();
+    }
+
+    private synchronized void onResult(boolean failed, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        boolean slow = clock.getAsLong() - startNanos >= slowCallDurationNanos;
+        switch (state) {
+            case HALF_OPEN:
+                if (failed || slow) {
+                    transitionTo(State.OPEN);
+                } else if (++succeededProbes >= halfOpenProbes) {
+                    transitionTo(State.CLOSED);
+                }
+                break;
+            case CLOSED:
+                record((byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0)));
+                if (calls >= minimumCalls && (failedCalls * 100 >= failureRateThreshold * calls
+                        || slowCalls * 100 >= slowCallRateThreshold * calls)) {
+                    transitionTo(State.OPEN);
+                }
+                break;
+            case OPEN:
+            default:
+                // a call made before the breaker opened
+                break;
+        }
+    }
+
+    private void record(byte outcome) {
+        if (calls == window.length) {
+            byte evicted = window[windowPosition];
+            failedCalls -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            calls++;
+        }
+        window[windowPosition] = outcome;
+        windowPosition = (windowPosition + 1) % window.length;
+        failedCalls += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+    }
+
+    private void transitionTo(State newState) {
+        State oldState = state;
+        state = newState;
+        switch (newState) {
+            case OPEN:
+                openedAt = clock.getAsLong();
+                logger.log(Level.WARNING,
+                        "The circuit breaker of {0} is open, exports fail fast for {1}ms. Failure rate: {2}%, slow call rate: {3}%",
+                        new Object[] { endpoint, openDurationNanos / 1_000_000,
+                                calls == 0 ? 100 : failedCalls * 100 / calls, calls == 0 ? 0 : slowCalls * 100 / calls });
+                break;
+            case HALF_OPEN:
+                startedProbes = 0;
+                succeededProbes = 0;
+                break;
+            case CLOSED:
+            default:
+                calls = 0;
+                failedCalls = 0;
+                slowCalls = 0;
+                windowPosition = 0;
+                if (oldState != State.CLOSED) {
+                    logger.log(Level.INFO, "The circuit breaker of {0} is closed, the collector recovered", endpoint);
+                }
+                break;
+        }
+        LongCounter counter = transitions;
+        if (counter != null) {
+            counter.add(1, typeAttributes.toBuilder().put(ATTRIBUTE_KEY_STATE, newState.attributeValue).build());
+        }
+    }
+
+    private void createInstruments() {
+        MeterProvider meterProvider = meterProviderSupplier.get();
+        if (meterProvider == null || meterProvider == MeterProvider.noop()) {
+            // not available yet
+            return;
+        }
+        Meter meter = meterProvider.get(meterName);
+        transitions = meter.counterBuilder(instrumentPrefix + ".transitions")
+                .setDescription("The number of state changes of the circuit breaker of the exporter")
+                .build();
+        meter.gaugeBuilder(instrumentPrefix + ".state")
+                .ofLongs()
+                .setDescription("Whether the circuit breaker of the exporter is in the state of the state attribute")
+                .buildWithCallback(this::observeState);
+    }
+
+    private void observeState(ObservableLongMeasurement measurement) {
+        State current = state;
+        for (State candidate : State.values()) {
+            measurement.record(candidate == current ? 1 : 0,
+                    typeAttributes.toBuilder().put(ATTRIBUTE_KEY_STATE, candidate.attributeValue).build());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+/**
+ * Failure of an export that was not attempted, because the circuit breaker of the endpoint is open.
+ */
+public final class CircuitBreakerOpenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitBreakerOpenException(String endpoint) {
+        super("The circuit breaker of " + endpoint + " is open, the collector is considered unhealthy");
+    }
+}
@@ -0,0 +1,145 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpConnection;
+
+/**
+ * Spreads the requests of a sender over the collector replicas behind a host name, as they come and go.
+ * <p>
+ * The long-lived connections of a sender, HTTP/2 ones in particular, keep sending everything to the replicas they
+ * were opened to. The rebalancer periodically resolves the host names of the endpoints again, so that the requests
+ * rotate over all their current addresses, which is what a headless Kubernetes service needs, and shuts the connections
+ * down gracefully once they reach a maximum age, so that they are opened again against the current addresses, which
+ * is what a service with a virtual IP needs. A connection being shut down completes its requests in flight, up to a
+ * drain timeout, while the new requests use a new connection.
+ */
+public final class ConnectionRebalancer {
+
+    private static final Logger logger = Logger.getLogger(ConnectionRebalancer.class.getName());
+
+    // spread of the maximum age, so that the connections opened together are not all closed together
+    private static final double MAX_AGE_JITTER = 0.1;
+
+    private final long dnsRefreshIntervalMillis;
+    private final long maxConnectionAgeMillis;
+    private final long drainTimeoutMillis;
+    private final Set<HttpConnection> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile Vertx vertx;
+    private volatile boolean closed;
+    private long refreshTimer = -1;
+
+    /**
+     * @param dnsRefreshInterval how often the host names are resolved again, {@link Duration#ZERO} to never resolve
+     *        them, in which case the requests go to the host names
+     * @param maxConnectionAge the age at which a connection is shut down, {@link Duration#ZERO} for no limit
+     * @param drainTimeout how long a connection being shut down waits for its requests in flight
+     */
+    public ConnectionRebalancer(Duration dnsRefreshInterval, Duration maxConnectionAge, Duration drainTimeout) {
+        if (dnsRefreshInterval.isNegative() || maxConnectionAge.isNegative() || drainTimeout.isNegative()) {
+            throw new IllegalArgumentException("The connection rebalancing durations must not be negative: DNS refresh "
+                    + dnsRefreshInterval.toMillis() + "ms, maximum connection age " + maxConnectionAge.toMillis() + "ms");
+        }
+        this.dnsRefreshIntervalMillis = dnsRefreshInterval.toMillis();
+        this.maxConnectionAgeMillis = maxConnectionAge.toMillis();
+        this.drainTimeoutMillis = drainTimeout.toMillis();
+    }
+
+    /**
+     * @return a rebalancer that neither resolves the host names nor shuts the connections down
+     */
+    public static ConnectionRebalancer disabled() {
+        return new ConnectionRebalancer(Duration.ZERO, Duration.ZERO, Duration.ZERO);
+    }
+
+    /**
+     * Resolves the host names of the endpoints right away, then periodically.
+     */
+    synchronized void start(Vertx vertx, EndpointSelector endpoints) {
+        this.vertx = vertx;
+        if (dnsRefreshIntervalMillis == 0) {
+            return;
+        }
+        refresh(endpoints);
+        refreshTimer = vertx.setPeriodic(dnsRefreshIntervalMillis, new Handler<Long>() {
+            @Override
+            public void handle(Long id) {
+                refresh(endpoints);
+            }
+        });
+    }
+
+    private void refresh(EndpointSelector endpoints) {
+        for (Endpoint endpoint : endpoints.getEndpoints()) {
+            if (!endpoint.isResolvable()) {
+                continue;
+            }
+            String host = endpoint.getUri().getHost();
+            // the JDK resolver blocks, it caches the records as configured by networkaddress.cache.ttl
+            vertx.executeBlocking(new Callable<InetAddress[]>() {
+                @Override
+                public InetAddress[] call() throws Exception {
+                    return InetAddress.getAllByName(host);
+                }
+            }, false).onSuccess(new Handler<>() {
+                @Override
+                public void handle(InetAddress[] resolved) {
+                    if (!closed) {
+                        endpoint.updateAddresses(resolved);
+                    }
+                }
+            }).onFailure(new Handler<>() {
+                @Override
+                public void handle(Throwable t) {
+                    // the previous addresses are kept
+                    logger.log(Level.FINE, "Unable to resolve the OTLP endpoint " + endpoint, t);
+                }
+            });
+        }
+    }
+
+    /**
+     * Schedules the shutdown of a connection used by a request, the first time it is seen.
+     */
+    void track(HttpConnection connection) {
+        if (maxConnectionAgeMillis == 0 || connection == null || closed || !connections.add(connection)) {
+            return;
+        }
+        long age = maxConnectionAgeMillis
+                - (long) (maxConnectionAgeMillis * MAX_AGE_JITTER * ThreadLocalRandom.current().nextDouble());
+        long timer = vertx.setTimer(Math.max(1, age), new Handler<Long>() {
+            @Override
+            public void handle(Long id) {
+                logger.log(Level.FINE, "Shutting down a connection to {0} after {1}ms",
+                        new Object[] { connection.remoteAddress(), age });
+                connection.shutdown(drainTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        connection.closeHandler(new Handler<Void>() {
+            @Override
+            public void handle(Void ignored) {
+                connections.remove(connection);
+                vertx.cancelTimer(timer);
+            }
+        });
+    }
+
+    synchronized void close() {
+        closed = true;
+        if (refreshTimer != -1) {
+            vertx.cancelTimer(refreshTimer);
+        }
+        connections.clear();
+    }
+}
@@ -0,0 +1,472 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.opentelemetry.sdk.internal.ThrottlingLogger;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * Write-ahead spool keeping encoded export payloads on local disk while the collector cannot be reached, instead of
+ * dropping them once the senders run out of attempts.
+ * <p>
+ * Payloads are appended to memory-mapped segment files of a fixed size, up to a maximum number of segments, and are
+ * drained in order, one at a time and at a limited rate, once exports succeed again. Every record carries a CRC32
+ * checksum so that a record torn by a crash is detected and discarded when the spool is reopened, and a checkpoint file
+ * tracks the first record not delivered yet. Delivery is at least once: the records sent right before a crash may be
+ * sent again after a restart. A record the collector rejects for good, rather than with one of the retryable statuses
+ * that got it spooled, is dropped so that it does not block the records behind it.
+ * <p>
+ * Record layout: payload length (int), CRC32 of the encoding and payload (int), encoding length (byte), encoding
+ * (US-ASCII), payload. A zero length marks the end of the records of a segment.
+ */
+public final class DiskSpool {
+
+    private static final Logger internalLogger = Logger.getLogger(DiskSpool.class.getName());
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String LOCK_FILE = "spool.lock";
+    private static final int RECORD_HEADER_SIZE = 9;
+    private static final int CHECKPOINT_SIZE = 16;
+    private static final long PROBE_INTERVAL_MILLIS = 5000;
+
+    private final ThrottlingLogger logger = new ThrottlingLogger(internalLogger);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long drainDelayMillis;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    // sequence of the next segment, past every segment and checkpoint written so far even once they are deleted
+    private long nextSequence;
+    // position of the next record to deliver in the head segment
+    private int readPosition;
+    // position of the record after the one returned by the last call to peek()
+    private int peekedNextPosition = -1;
+    private boolean closed;
+
+    private Vertx vertx;
+    private Transport transport;
+    private long probeTimer = -1;
+
+    /**
+     * Sends a spooled payload, reporting the outcome. The payload must be released once sent.
+     */
+    interface Transport {
+        void send(ExportPayload payload, Consumer<Delivery> onComplete);
+    }
+
+    /**
+     * The outcome of sending a spooled payload.
+     */
+    enum Delivery {
+        DELIVERED,
+        // the collector could not be reached, or answered with a retryable status, the payload is sent again later
+        RETRY,
+        // the collector refused the payload for good, it is dropped
+        REJECTED
+    }
+
+    private DiskSpool(Path directory, int segmentSize, int maxSegments, long drainDelayMillis, FileChannel lockChannel,
+            FileLock lock, FileChannel checkpointChannel, MappedByteBuffer checkpoint) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.drainDelayMillis = drainDelayMillis;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        this.checkpointChannel = checkpointChannel;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * Opens the spool stored in the given directory, recovering the records left by a previous run.
+     *
+     * @param directory the directory holding the segment files, created if needed. It must not be shared with another
+     *        spool
+     * @param maxSize the maximum disk footprint of the segment files, in bytes
+     * @param segmentSize the size of each segment file, in bytes, which bounds the size of a spooled payload
+     * @param drainRate the maximum number of payloads sent per second when draining the spool
+     * @throws IOException if the directory cannot be used, or is locked by another spool
+     */
+    public static DiskSpool open(Path directory, long maxSize, int segmentSize, int drainRate) throws IOException {
+        if (segmentSize <= RECORD_HEADER_SIZE || maxSize < segmentSize || drainRate <= 0) {
+            throw new IllegalArgumentException("Invalid spool sizing: max size " + maxSize + ", segment size "
+                    + segmentSize + ", drain rate " + drainRate);
+        }
+        Files.createDirectories(directory);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock = lockChannel.tryLock();
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("The spool directory " + directory + " is used by another process");
+        }
+        FileChannel checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_SIZE);
+
+        DiskSpool spool = new DiskSpool(directory, segmentSize, (int) Math.max(1, maxSize / segmentSize),
+                Math.max(1, 1000 / drainRate), lockChannel, lock, checkpointChannel, checkpoint);
+        try {
+            spool.recover();
+        } catch (IOException | RuntimeException e) {
+            spool.close();
+            throw e;
+        }
+        return spool;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+
+        long checkpointSequence = -1;
+        int checkpointPosition = 0;
+        if (checkpoint.getInt(12) == checkpointChecksum(checkpoint.getLong(0), checkpoint.getInt(8))) {
+            checkpointSequence = checkpoint.getLong(0);
+            checkpointPosition = checkpoint.getInt(8);
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long sequence = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            if (sequence < checkpointSequence || Files.size(file) != segmentSize) {
+                // already delivered, or written with a different segment size
+                Files.delete(file);
+                continue;
+            }
+            segments.addLast(Segment.recover(file, sequence, segmentSize));
+            nextSequence = sequence + 1;
+        }
+        nextSequence = Math.max(nextSequence, checkpointSequence + 1);
+
+        Segment head = segments.peekFirst();
+        if (head != null && head.sequence == checkpointSequence) {
+            readPosition = Math.min(checkpointPosition, head.writePosition);
+        }
+        if (!segments.isEmpty()) {
+            internalLogger.log(Level.INFO, "Recovered {0} spooled export segment(s) from {1}",
+                    new Object[] { segments.size(), directory });
+        }
+    }
+
+    /**
+     * Starts draining the spool through the given transport, probing the collector periodically.
+     */
+    synchronized void start(Vertx vertx, Transport transport) {
+        this.vertx = vertx;
+        this.transport = transport;
+        this.probeTimer = vertx.setPeriodic(PROBE_INTERVAL_MILLIS, new Handler<Long>() {
+            @Override
+            public void handle(Long id) {
+                drain();
+            }
+        });
+    }
+
+    /**
+     * Appends a copy of the payload to the spool.
+     *
+     * @return {@code false} if the payload could not be spooled because the spool is full or closed, or the payload
+     *         does not fit in a segment
+     */
+    synchronized boolean offer(ExportPayload payload) {
+        if (closed) {
+            return false;
+        }
+        byte[] encoding = payload.encoding().getBytes(US_ASCII);
+        int recordSize = RECORD_HEADER_SIZE + encoding.length + payload.size();
+        if (recordSize > segmentSize) {
+            logger.log(Level.WARNING, "Unable to spool an export payload of " + recordSize
+                    + " bytes, larger than the segment size. The data is dropped.");
+            return false;
+        }
+        try {
+            Segment tail = segments.peekLast();
+            if (tail == null || segmentSize - tail.writePosition < recordSize) {
+                if (segments.size() >= maxSegments && !reclaimHead()) {
+                    logger.log(Level.WARNING, "The export spool in " + directory + " is full. The data is dropped.");
+                    return false;
+                }
+                tail = Segment.create(directory, nextSequence++, segmentSize);
+                segments.addLast(tail);
+            }
+            tail.append(encoding, payload);
+            return true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Unable to spool an export payload in " + directory + ". The data is dropped.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Sends the spooled payloads, unless the spool is empty or already being drained. Called periodically, and after
+     * every successful export since the collector is then known to be reachable.
+     */
+    void drain() {
+        if (draining.compareAndSet(false, true)) {
+            drainNext();
+        }
+    }
+
+    private void drainNext() {
+        ExportPayload payload;
+        Transport currentTransport;
+        synchronized (this) {
+            payload = closed ? null : peek();
+            currentTransport = transport;
+        }
+        if (payload == null || currentTransport == null) {
+            if (payload != null) {
+                payload.release();
+            }
+            draining.set(false);
+            return;
+        }
+        currentTransport.send(payload, new Consumer<>() {
+            @Override
+            public void accept(Delivery delivery) {
+                if (delivery == Delivery.RETRY) {
+                    // try again on the next probe
+                    draining.set(false);
+                    return;
+                }
+                if (delivery == Delivery.REJECTED) {
+                    logger.log(Level.WARNING, "The collector rejected a spooled export payload from " + directory
+                            + ". The data is dropped.");
+                }
+                synchronized (DiskSpool.this) {
+                    commit();
+                    if (closed) {
+                        draining.set(false);
+                        return;
+                    }
+                    vertx.setTimer(drainDelayMillis, new Handler<Long>() {
+                        @Override
+                        public void handle(Long id) {
+                            drainNext();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * @return a copy of the oldest record not delivered yet, or {@code null} if there is none
+     */
+    private ExportPayload peek() {
+        while (true) {
+            Segment head = segments.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            if (readPosition < head.writePosition) {
+                ByteBuffer record = head.buffer.duplicate();
+                record.position(readPosition);
+                int length = record.getInt();
+                record.getInt(); // checksum, verified when the segment was recovered or written
+                byte[] encoding = new byte[record.get() & 0xFF];
+                record.get(encoding);
+                record.limit(record.position() + length);
+                ByteBuf content = PooledByteBufAllocator.DEFAULT.directBuffer(length);
+                content.writeBytes(record);
+                peekedNextPosition = record.limit();
+                return ExportPayload.wrap(content, new String(encoding, US_ASCII));
+            }
+            if (head == segments.peekLast()) {
+                return null;
+            }
+            // the head segment is fully delivered
+            removeHead();
+        }
+    }
+
+    private void commit() {
+        Segment head = segments.peekFirst();
+        if (head == null || peekedNextPosition < 0) {
+            return;
+        }
+        readPosition = peekedNextPosition;
+        peekedNextPosition = -1;
+        writeCheckpoint(head.sequence, readPosition);
+    }
+
+    private boolean reclaimHead() {
+        Segment head = segments.peekFirst();
+        if (head == null || readPosition < head.writePosition || draining.get()) {
+            return false;
+        }
+        removeHead();
+        return true;
+    }
+
+    private void removeHead() {
+        Segment head = segments.removeFirst();
+        readPosition = 0;
+        peekedNextPosition = -1;
+        head.delete();
+        // a checkpoint pointing to a deleted segment means the start of the next one, no need to rewrite it
+    }
+
+    private void writeCheckpoint(long sequence, int position) {
+        checkpoint.putLong(0, sequence);
+        checkpoint.putInt(8, position);
+        checkpoint.putInt(12, checkpointChecksum(sequence, position));
+    }
+
+    private static int checkpointChecksum(long sequence, int position) {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(12).putLong(sequence).putInt(position);
+        buffer.flip();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Stops draining and flushes the spool to disk. The records not delivered yet are kept for the next run.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (vertx != null && probeTimer >= 0) {
+            vertx.cancelTimer(probeTimer);
+        }
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+        checkpoint.force();
+        try {
+            checkpointChannel.close();
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            internalLogger.log(Level.FINE, "Unable to close the export spool in " + directory, e);
+        }
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final long sequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(Path file, long sequence, FileChannel channel, MappedByteBuffer buffer, int writePosition) {
+            this.file = file;
+            this.sequence = sequence;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.writePosition = writePosition;
+        }
+
+        static Segment create(Path directory, long sequence, int segmentSize) throws IOException {
+            Path file = directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new Segment(file, sequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize), 0);
+        }
+
+        /**
+         * Maps an existing segment, and finds the end of its valid records. Anything after them, such as a record
+         * torn by a crash, is zeroed so that new records can be appended.
+         */
+        static Segment recover(Path file, long sequence, int segmentSize) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            int position = 0;
+            while (position + RECORD_HEADER_SIZE <= segmentSize) {
+                int length = buffer.getInt(position);
+                int encodingLength = buffer.get(position + 8) & 0xFF;
+                long end = (long) position + RECORD_HEADER_SIZE + encodingLength + length;
+                if (length <= 0 || end > segmentSize
+                        || buffer.getInt(position + 4) != checksum(buffer, position + 8, (int) end)) {
+                    break;
+                }
+                position = (int) end;
+            }
+            for (int i = position; i < segmentSize; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            return new Segment(file, sequence, channel, buffer, position);
+        }
+
+        void append(byte[] encoding, ExportPayload payload) {
+            int start = writePosition;
+            ByteBuffer record = buffer.duplicate();
+            record.position(start + 8);
+            record.put((byte) encoding.length);
+            record.put(encoding);
+            payload.copyTo(record);
+            int end = record.position();
+            buffer.putInt(start + 4, checksum(buffer, start + 8, end));
+            // the length is written last, a record only becomes visible once complete
+            buffer.putInt(start, end - start - RECORD_HEADER_SIZE - encoding.length);
+            writePosition = end;
+        }
+
+        private static int checksum(MappedByteBuffer buffer, int from, int to) {
+            ByteBuffer range = buffer.duplicate();
+            range.position(from);
+            range.limit(to);
+            CRC32 crc = new CRC32();
+            crc.update(range);
+            return (int) crc.getValue();
+        }
+
+        void close() {
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                internalLogger.log(Level.FINE, "Unable to close the spool segment " + file, e);
+            }
+        }
+
+        void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                internalLogger.log(Level.WARNING, "Unable to delete the spool segment " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+
+/**
+ * Decides where export requests are serialized and compressed.
+ * <p>
+ * By default, encoding happens on the thread calling the exporter, usually the batch processor thread. In worker mode
+ * it runs on a dedicated pool with a bounded queue, and only the encoded payload is handed to the event loop of the
+ * sender, so that encoding large batches never stalls an event loop that may also serve application traffic. The
+ * streamed requests are written on the pool as well, as their writers block while the requests drain.
+ */
+public final class EncodingExecutor {
+
+    public static final String MODE_CALLER = "caller";
+    public static final String MODE_WORKER = "worker";
+
+    private final ThreadPoolExecutor executor;
+
+    private EncodingExecutor(ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return an executor encoding requests on the thread calling the exporter
+     */
+    public static EncodingExecutor callerThread() {
+        return new EncodingExecutor(null);
+    }
+
+    /**
+     * @param name the prefix of the worker thread names
+     * @param poolSize the number of worker threads
+     * @param queueSize the maximum number of requests waiting to be encoded, requests beyond it are rejected
+     * @return an executor encoding requests on a dedicated pool
+     */
+    public static EncodingExecutor workerPool(String name, int poolSize, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new DaemonThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return new EncodingExecutor(executor);
+    }
+
+    /**
+     * Encodes the marshaler and hands the result to {@code onEncoded}. In worker mode, {@code onEncoded} runs on the
+     * given Vert.x context.
+     *
+     * @param onFailure called with the serialization error, on the given Vert.x context in worker mode, or with a
+     *        {@link RejectedExecutionException} when the queue of the worker pool is full
+     */
+    void encode(Marshaler marshaler, Compressor compressor, Context context, Consumer<ExportPayload> onEncoded,
+            Consumer<Throwable> onFailure) {
+        if (executor == null) {
+            ExportPayload payload;
+            try {
+                payload = ExportPayload.encode(marshaler, compressor);
+            } catch (IOException | RuntimeException e) {
+                onFailure.accept(e);
+                return;
+            }
+            onEncoded.accept(payload);
+            return;
+        }
+
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    ExportPayload payload;
+                    try {
+                        payload = ExportPayload.encode(marshaler, compressor);
+                    } catch (IOException | RuntimeException e) {
+                        context.runOnContext(new Handler<Void>() {
+                            @Override
+                            public void handle(Void ignored) {
+                                onFailure.accept(e);
+                            }
+                        });
+                        return;
+                    }
+                    context.runOnContext(new Handler<Void>() {
+                        @Override
+                        public void handle(Void ignored) {
+                            onEncoded.accept(payload);
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            onFailure.accept(e);
+        }
+    }
+
+    /**
+     * Runs a task that blocks, such as the writer of a streamed request, on the worker pool rather than on a worker
+     * thread of the Vert.x instance, which may be shared with the application.
+     *
+     * @return the result of the task, completed on the given Vert.x context, failed with a
+     *         {@link RejectedExecutionException} when the queue of the worker pool is full, or with an
+     *         {@link IllegalStateException} when encoding on the caller thread
+     */
+    <T> Future<T> executeBlocking(Callable<T> task, Context context) {
+        if (executor == null) {
+            return Future.failedFuture(new IllegalStateException("No worker pool to run blocking tasks on"));
+        }
+        Promise<T> promise = Promise.promise();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    T result;
+                    try {
+                        result = task.call();
+                    } catch (Exception e) {
+                        context.runOnContext(new Handler<Void>() {
+                            @Override
+                            public void handle(Void ignored) {
+                                promise.fail(e);
+                            }
+                        });
+                        return;
+                    }
+                    context.runOnContext(new Handler<Void>() {
+                        @Override
+                        public void handle(Void ignored) {
+                            promise.complete(result);
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return Future.failedFuture(e);
+        }
+        return promise.future();
+    }
+
+    public boolean isWorkerMode() {
+        return executor != null;
+    }
+
+    /**
+     * @return the number of requests waiting for a worker thread, always 0 when encoding on the caller thread
+     */
+    public int getQueueDepth() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * @return the number of requests that can wait for a worker thread before new ones are rejected, always 0 when
+     *         encoding on the caller thread
+     */
+    public int getQueueCapacity() {
+        return executor == null ? 0 : executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    /**
+     * Stops accepting new requests. Requests already queued are still encoded.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.netty.util.NetUtil;
+import io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil;
+import io.vertx.core.net.SocketAddress;
+
+/**
+ * A collector endpoint of a sender, with its circuit breaker and the load information used by the
+ * {@link EndpointSelector}: the number of requests in flight and the average latency of the successful calls.
+ * <p>
+ * The requests go to the host name of the endpoint, unless its addresses are refreshed by a
+ * {@link ConnectionRebalancer}, in which case they rotate over the resolved addresses, each with its own connections.
+ * The requests to a {@code unix:///path/to/socket} endpoint go to the Unix domain socket at that path.
+ */
+public final class Endpoint {
+
+    private static final Logger logger = Logger.getLogger(Endpoint.class.getName());
+
+    // weight of the last call in the average latency
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final URI uri;
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    // -1 until a call succeeds
+    private volatile long latencyNanos = -1;
+    private volatile SocketAddress[] addresses;
+    private final AtomicInteger nextAddress = new AtomicInteger();
+
+    public Endpoint(URI uri, CircuitBreaker circuitBreaker) {
+        this.uri = uri;
+        this.addresses = new SocketAddress[] { OtlpExporterUtil.isUnixDomainSocket(uri)
+                ? SocketAddress.domainSocketAddress(uri.getPath())
+                : SocketAddress.inetSocketAddress(OtlpExporterUtil.getPort(uri), uri.getHost()) };
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * @return the address of the next request
+     */
+    public SocketAddress getAddress() {
+        SocketAddress[] current = addresses;
+        if (current.length == 1) {
+            return current[0];
+        }
+        return current[Math.floorMod(nextAddress.getAndIncrement(), current.length)];
+    }
+
+    /**
+     * @return whether the host of the endpoint is a name, whose addresses may change
+     */
+    boolean isResolvable() {
+        if (OtlpExporterUtil.isUnixDomainSocket(uri)) {
+            return false;
+        }
+        String host = uri.getHost();
+        return !NetUtil.isValidIpV4Address(host) && !NetUtil.isValidIpV6Address(host.replace("[", "").replace("]", ""));
+    }
+
+    /**
+     * Replaces the addresses of the next requests. The connections to the addresses that are gone are left to the
+     * idle timeout or the maximum connection age.
+     */
+    void updateAddresses(InetAddress[] resolved) {
+        if (resolved.length == 0) {
+            return;
+        }
+        int port = OtlpExporterUtil.getPort(uri);
+        SocketAddress[] updated = new SocketAddress[resolved.length];
+        for (int i = 0; i < resolved.length; i++) {
+            updated[i] = SocketAddress.inetSocketAddress(port, resolved[i].getHostAddress());
+        }
+        // the order of the records may change on every resolution
+        Arrays.sort(updated, Comparator.comparing(SocketAddress::host));
+        if (!Arrays.equals(updated, addresses)) {
+            logger.log(Level.INFO, "The OTLP endpoint {0} resolves to {1}", new Object[] { this, Arrays.toString(updated) });
+            addresses = updated;
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return the exponentially weighted average latency of the successful calls, or -1 if no call succeeded yet
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * @return whether a call can be made, in which case {@link #onSuccess(long)} or {@link #onFailure(long)} must be
+     *         called once it completes
+     */
+    boolean tryAcquire() {
+        if (!circuitBreaker.tryAcquire()) {
+            return false;
+        }
+        outstanding.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return the time to pass to {@link #onSuccess(long)} or {@link #onFailure(long)}
+     */
+    long now() {
+        return circuitBreaker.now();
+    }
+
+    /**
+     * @param startNanos the time returned by {@link #now()} when the call was made
+     */
+    void onSuccess(long startNanos) {
+        outstanding.decrementAndGet();
+        long latency = now() - startNanos;
+        long average = latencyNanos;
+        // concurrent updates may lose a sample, which does not matter for an average
+        latencyNanos = average < 0 ? latency : (long) (average + LATENCY_SMOOTHING * (latency - average));
+        circuitBreaker.onSuccess(startNanos);
+    }
+
+    /**
+     * @param startNanos the time returned by {@link #now()} when the call was made
+     */
+    void onFailure(long startNanos) {
+        outstanding.decrementAndGet();
+        circuitBreaker.onFailure(startNanos);
+    }
+
+    @Override
+    public String toString() {
+        return circuitBreaker.getEndpoint();
+    }
+}
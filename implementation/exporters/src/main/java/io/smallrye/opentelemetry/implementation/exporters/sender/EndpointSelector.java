@@ -0,0 +1,160 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads the export requests of a sender over one or more collector endpoints.
+ * <p>
+ * Every attempt, including retries, selects an endpoint, so that a retry usually fails over to another endpoint. The
+ * policy decides which endpoint is preferred: the next one in turn with {@link #POLICY_ROUND_ROBIN}, the one with the
+ * fewest requests in flight with {@link #POLICY_LEAST_OUTSTANDING}, or a random one, favoring the lowest average
+ * latency, with {@link #POLICY_LATENCY_WEIGHTED}. An endpoint whose circuit breaker is open is ejected: it is skipped
+ * for the next ones until its breaker lets probes through, and it is admitted back once they succeed.
+ */
+public final class EndpointSelector {
+
+    public static final String POLICY_ROUND_ROBIN = "round-robin";
+    public static final String POLICY_LEAST_OUTSTANDING = "least-outstanding";
+    public static final String POLICY_LATENCY_WEIGHTED = "latency-weighted";
+
+    private final Endpoint[] endpoints;
+    private final String policy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param policy {@link #POLICY_ROUND_ROBIN}, {@link #POLICY_LEAST_OUTSTANDING} or {@link #POLICY_LATENCY_WEIGHTED}
+     */
+    public EndpointSelector(List<Endpoint> endpoints, String policy) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        if (!POLICY_ROUND_ROBIN.equals(policy) && !POLICY_LEAST_OUTSTANDING.equals(policy)
+                && !POLICY_LATENCY_WEIGHTED.equals(policy)) {
+            throw new IllegalArgumentException("Unrecognized load balancing policy: " + policy);
+        }
+        this.endpoints = endpoints.toArray(new Endpoint[0]);
+        this.policy = policy;
+    }
+
+    /**
+     * @return the endpoints, in the configured order
+     */
+    public List<Endpoint> getEndpoints() {
+        return List.of(endpoints);
+    }
+
+    /**
+     * Selects the endpoint of an attempt, and acquires it with {@link Endpoint#tryAcquire()}.
+     *
+     * @return the endpoint, or {@code null} if the circuit breakers of all the endpoints refuse the call
+     */
+    Endpoint select() {
+        if (endpoints.length == 1) {
+            return endpoints[0].tryAcquire() ? endpoints[0] : null;
+        }
+        int[] order = order();
+        for (int index : order) {
+            if (endpoints[index].tryAcquire()) {
+                return endpoints[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the indexes of the endpoints, the preferred one first
+     */
+    private int[] order() {
+        int size = endpoints.length;
+        int[] order = new int[size];
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            order[i] = (start + i) % size;
+        }
+        switch (policy) {
+            case POLICY_LEAST_OUTSTANDING:
+                sortByOutstanding(order);
+                break;
+            case POLICY_LATENCY_WEIGHTED:
+                int preferred = pickByLatency();
+                // the other endpoints keep their turn
+                for (int i = 0; i < size; i++) {
+                    if (order[i] == preferred) {
+                        System.arraycopy(order, 0, order, 1, i);
+                        order[0] = preferred;
+                        break;
+                    }
+                }
+                break;
+            case POLICY_ROUND_ROBIN:
+            default:
+                break;
+        }
+        return order;
+    }
+
+    private void sortByOutstanding(int[] order) {
+        int[] outstanding = new int[endpoints.length];
+        for (int i = 0; i < endpoints.length; i++) {
+            outstanding[i] = endpoints[i].getOutstanding();
+        }
+        // a stable insertion sort, so that ties follow the round-robin order
+        for (int i = 1; i < order.length; i++) {
+            int index = order[i];
+            int j = i - 1;
+            while (j >= 0 && outstanding[order[j]] > outstanding[index]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = index;
+        }
+    }
+
+    /**
+     * @return an endpoint picked with a probability proportional to the inverse of its average latency. An endpoint
+     *         without latency yet gets the weight of the fastest one, so that it is tried
+     */
+    private int pickByLatency() {
+        long fastest = Long.MAX_VALUE;
+        for (Endpoint endpoint : endpoints) {
+            long latency = endpoint.getLatencyNanos();
+            if (latency >= 0 && latency < fastest) {
+                fastest = latency;
+            }
+        }
+        double[] weights = new double[endpoints.length];
+        double total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            long latency = endpoints[i].getLatencyNanos();
+            if (latency < 0) {
+                latency = fastest == Long.MAX_VALUE ? 1 : fastest;
+            }
+            weights[i] = 1.0 / Math.max(1, latency);
+            total += weights[i];
+        }
+        double random = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            random -= weights[i];
+            if (random < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * @return the endpoints, for the logs and errors
+     */
+    String describe() {
+        StringBuilder description = new StringBuilder();
+        for (Endpoint endpoint : endpoints) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append(endpoint);
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.opentelemetry.exporter.internal.compression.Compressor;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.smallrye.opentelemetry.implementation.exporters.NettyBufferOutputStream;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * The serialized, and optionally compressed, form of a {@link Marshaler}. It is built once per export, sent as-is on
+ * every attempt, and released as soon as the export completes, successfully or not.
+ * <p>
+ * The bytes live in a pooled direct buffer, so the marshaler writes straight into the memory that goes on the socket.
+ * Each write holds its own reference on that buffer until it completes, so releasing the payload never returns memory
+ * to the pool while Netty may still be reading it.
+ */
+final class ExportPayload {
+
+    static final String IDENTITY_ENCODING = "identity";
+
+    private final AtomicReference<ByteBuf> content;
+    private final String encoding;
+
+    private ExportPayload(ByteBuf content, String encoding) {
+        this.content = new AtomicReference<>(content);
+        this.encoding = encoding;
+    }
+
+    /**
+     * Wraps bytes that were already encoded, for instance read back from a {@link DiskSpool}.
+     *
+     * @param content the encoded bytes, ownership is transferred to the payload
+     * @param encoding the content coding of the bytes
+     */
+    static ExportPayload wrap(ByteBuf content, String encoding) {
+        return new ExportPayload(content, encoding);
+    }
+
+    /**
+     * @param marshaler the export request to encode
+     * @param compressor the codec compressing the serialized request, or {@code null} to send it uncompressed
+     */
+    static ExportPayload encode(Marshaler marshaler, Compressor compressor) throws IOException {
+        ByteBuf content = PooledByteBufAllocator.DEFAULT.directBuffer(marshaler.getBinarySerializedSize());
+        try {
+            OutputStream os = new NettyBufferOutputStream(content);
+            if (compressor != null) {
+                try (var cos = compressor.compress(os)) {
+                    marshaler.writeBinaryTo(cos);
+                }
+            } else {
+                marshaler.writeBinaryTo(os);
+            }
+        } catch (IOException | RuntimeException e) {
+            content.release();
+            throw e;
+        }
+        return new ExportPayload(content, compressor != null ? compressor.getEncoding() : IDENTITY_ENCODING);
+    }
+
+    /**
+     * Hands the encoded bytes to a single write operation, keeping them alive until the returned future completes.
+     *
+     * @param write the operation writing the given buffer to the wire
+     * @return the result of the write operation
+     * @throws IllegalStateException if the payload has already been released
+     */
+    @SuppressWarnings("deprecation")
+    Future<Void> writeWith(Function<Buffer, Future<Void>> write) {
+        ByteBuf view = content().retainedDuplicate();
+        Future<Void> result;
+        try {
+            // deprecated, but the only public way to wrap the bytes in a buffer without copying them
+            result = write.apply(Buffer.buffer(view));
+        } catch (RuntimeException e) {
+            view.release();
+            throw e;
+        }
+        return result.onComplete(new Handler<AsyncResult<Void>>() {
+            @Override
+            public void handle(AsyncResult<Void> ignored) {
+                view.release();
+            }
+        });
+    }
+
+    /**
+     * @return the number of encoded bytes
+     * @throws IllegalStateException if the payload has already been released
+     */
+    int size() {
+        return content().readableBytes();
+    }
+
+    /**
+     * Copies the encoded bytes into the given buffer, advancing its position.
+     *
+     * @throws IllegalStateException if the payload has already been released
+     */
+    void copyTo(ByteBuffer target) {
+        ByteBuf root = content();
+        int limit = target.limit();
+        // getBytes() fills the buffer up to its limit
+        target.limit(target.position() + root.readableBytes());
+        root.getBytes(root.readerIndex(), target);
+        target.limit(limit);
+    }
+
+    private ByteBuf content() {
+        ByteBuf root = content.get();
+        if (root == null) {
+            throw new IllegalStateException("The export payload has already been released");
+        }
+        return root;
+    }
+
+    boolean isCompressed() {
+        return !IDENTITY_ENCODING.equals(encoding);
+    }
+
+    /**
+     * @return the content coding of the payload, {@code identity} when it is not compressed
+     */
+    String encoding() {
+        return encoding;
+    }
+
+    /**
+     * Gives the encoded bytes back to the pool. Calling this method more than once has no effect.
+     */
+    void release() {
+        ByteBuf root = content.getAndSet(null);
+        if (root != null) {
+            root.release();
+        }
+    }
+}
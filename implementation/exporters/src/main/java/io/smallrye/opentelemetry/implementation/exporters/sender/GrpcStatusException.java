@@ -0,0 +1,25 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import io.vertx.grpc.common.GrpcStatus;
+
+/**
+ * Failure of an export call answered by the collector with a gRPC status other than {@code OK}.
+ */
+public final class GrpcStatusException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient GrpcStatus status;
+
+    public GrpcStatusException(GrpcStatus status, String statusMessage) {
+        super(statusMessage);
+        this.status = status;
+    }
+
+    /**
+     * @return the status returned by the collector, or {@code null} if the response did not carry a status
+     */
+    public GrpcStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,162 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.vertx.core.Context;
+
+/**
+ * Limits the number of export requests in flight in a sender, and the number of bytes they hold, so that a slow
+ * collector does not make the exporter accumulate batches in memory.
+ * <p>
+ * When a limit is reached, a new request is either rejected right away, which fails its export, or the calling thread
+ * blocks until enough requests complete, up to a timeout, unless it is an event loop, or the request is dropped, which
+ * completes its export
+ * successfully without sending anything. Rejecting or blocking pushes back on the batch processors, dropping only
+ * protects the application.
+ */
+public final class InFlightLimiter {
+
+    public static final String POLICY_REJECT = "reject";
+    public static final String POLICY_BLOCK = "block";
+    public static final String POLICY_DROP = "drop";
+
+    private final int maxRequests;
+    private final long maxBytes;
+    private final String policy;
+    private final long blockTimeoutNanos;
+
+    private final Permit unlimitedPermit = new Permit(this, 0);
+
+    private int requests;
+    private long bytes;
+
+    /**
+     * @param maxRequests the maximum number of requests in flight, 0 for no limit
+     * @param maxBytes the maximum size of the requests in flight, before compression, 0 for no limit. A larger request
+     *        is still sent when no other request is in flight
+     * @param policy what to do with a request when a limit is reached, {@link #POLICY_REJECT}, {@link #POLICY_BLOCK}
+     *        or {@link #POLICY_DROP}
+     * @param blockTimeout how long to wait for room with {@link #POLICY_BLOCK}, before rejecting the request
+     */
+    public InFlightLimiter(int maxRequests, long maxBytes, String policy, Duration blockTimeout) {
+        if (maxRequests < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException(
+                    "The in-flight limits must not be negative: " + maxRequests + " requests, " + maxBytes + " bytes");
+        }
+        if (!POLICY_REJECT.equals(policy) && !POLICY_BLOCK.equals(policy) && !POLICY_DROP.equals(policy)) {
+            throw new IllegalArgumentException("Unrecognized in-flight limit policy: " + policy);
+        }
+        this.maxRequests = maxRequests;
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+    }
+
+    /**
+     * @return a limiter letting every request through
+     */
+    public static InFlightLimiter unlimited() {
+        return new InFlightLimiter(0, 0, POLICY_REJECT, Duration.ZERO);
+    }
+
+    /**
+     * Reserves room for a request, blocking with {@link #POLICY_BLOCK}.
+     *
+     * @param size the size of the request, before compression
+     * @return the permit to release once the request completes, or {@code null} if the request must not be sent
+     */
+    Permit tryAcquire(long size) {
+        if (maxRequests == 0 && maxBytes == 0) {
+            return unlimitedPermit;
+        }
+        synchronized (this) {
+            // an event loop must never block, the requests in flight may need it to complete
+            if (!hasRoom(size) && POLICY_BLOCK.equals(policy) && !Context.isOnEventLoopThread()) {
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                long remaining = blockTimeoutNanos;
+                try {
+                    while (!hasRoom(size) && remaining > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        remaining = deadline - System.nanoTime();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+            if (!hasRoom(size)) {
+                return null;
+            }
+            requests++;
+            bytes += size;
+            return new Permit(this, size);
+        }
+    }
+
+    private boolean hasRoom(long size) {
+        return (maxRequests == 0 || requests < maxRequests)
+                && (maxBytes == 0 || requests == 0 || bytes + size <= maxBytes);
+    }
+
+    private synchronized void release(long size) {
+        requests--;
+        bytes -= size;
+        notifyAll();
+    }
+
+    /**
+     * @return whether requests beyond the limits are dropped, rather than rejected
+     */
+    boolean dropsOnLimit() {
+        return POLICY_DROP.equals(policy);
+    }
+
+    public synchronized int getInFlightRequests() {
+        return requests;
+    }
+
+    public synchronized long getInFlightBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the highest of the ratios of the requests and of the bytes in flight to their limits, 0 without limits
+     */
+    public synchronized double getFill() {
+        double fill = maxRequests == 0 ? 0 : (double) requests / maxRequests;
+        return maxBytes == 0 ? fill : Math.max(fill, (double) bytes / maxBytes);
+    }
+
+    /**
+     * @return a description of the limits, for the logs and errors
+     */
+    String describeLimits() {
+        return (maxRequests == 0 ? "no limit" : maxRequests) + " requests, "
+                + (maxBytes == 0 ? "no limit" : maxBytes) + " bytes";
+    }
+
+    /**
+     * The room reserved by a request in flight.
+     */
+    static final class Permit {
+        private final InFlightLimiter limiter;
+        private final long size;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(InFlightLimiter limiter, long size) {
+            this.limiter = limiter;
+            this.size = size;
+        }
+
+        /**
+         * Gives the room back. Calling it more than once has no effect.
+         */
+        void release() {
+            if (released.compareAndSet(false, true) && (limiter.maxRequests != 0 || limiter.maxBytes != 0)) {
+                limiter.release(size);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * Reads the delays requested by the servers before retrying a request.
+ */
+final class RetryHints {
+
+    static final String RETRY_AFTER = "Retry-After";
+    static final String GRPC_RETRY_PUSHBACK_MS = "grpc-retry-pushback-ms";
+    static final String GRPC_STATUS_DETAILS_BIN = "grpc-status-details-bin";
+
+    private static final String RETRY_INFO_TYPE_URL = "type.googleapis.com/google.rpc.RetryInfo";
+
+    // the delays in seconds are clamped so that they do not overflow once in milliseconds
+    private static final long MAX_DELAY_SECONDS = Long.MAX_VALUE / 1000;
+
+    private RetryHints() {
+    }
+
+    /**
+     * @param retryAfter the value of the HTTP {@code Retry-After} header, either a number of seconds or an HTTP date
+     * @return the requested delay in milliseconds, or -1 if there is none
+     */
+    static long fromRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, Math.min(Long.parseLong(value), MAX_DELAY_SECONDS) * 1000);
+        } catch (NumberFormatException e) {
+            // not a number of seconds
+        }
+        try {
+            Instant date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Math.max(0, Duration.between(Instant.now(), date).toMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Looks for {@code grpc-retry-pushback-ms}, then for a {@code google.rpc.RetryInfo} in the
+     * {@code grpc-status-details-bin} metadata, in the trailers, or in the headers of a trailers-only response.
+     *
+     * @return the requested delay in milliseconds, or -1 if there is none
+     */
+    static long fromGrpcMetadata(MultiMap headers, MultiMap trailers) {
+        long delay = fromGrpcMetadata(trailers);
+        return delay >= 0 ? delay : fromGrpcMetadata(headers);
+    }
+
+    private static long fromGrpcMetadata(MultiMap metadata) {
+        if (metadata == null) {
+            return -1;
+        }
+        String pushback = metadata.get(GRPC_RETRY_PUSHBACK_MS);
+        if (pushback != null) {
+            try {
+                // a negative pushback means that the request must not be retried
+                long delay = Long.parseLong(pushback.trim());
+                return delay < 0 ? Long.MAX_VALUE : delay;
+            } catch (NumberFormatException e) {
+                // ignored
+            }
+        }
+        String details = metadata.get(GRPC_STATUS_DETAILS_BIN);
+        if (details != null) {
+            try {
+                return retryInfoDelay(ByteBuffer.wrap(Base64.getDecoder().decode(details.trim())));
+            } catch (RuntimeException e) {
+                // not a valid google.rpc.Status, such as a truncated one
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the {@code google.rpc.Status} message, to find the {@code retry_delay} of a {@code google.rpc.RetryInfo}
+     * in its {@code details}. Only the few fields needed are decoded, to avoid depending on protobuf.
+     */
+    private static long retryInfoDelay(ByteBuffer status) {
+        while (status.hasRemaining()) {
+            int tag = (int) readVarint(status);
+            if (tag == (3 << 3 | 2)) { // repeated google.protobuf.Any details = 3
+                ByteBuffer any = readLengthDelimited(status);
+                String typeUrl = null;
+                ByteBuffer value = null;
+                while (any.hasRemaining()) {
+                    int anyTag = (int) readVarint(any);
+                    if (anyTag == (1 << 3 | 2)) { // string type_url = 1
+                        ByteBuffer bytes = readLengthDelimited(any);
+                        typeUrl = UTF_8.decode(bytes).toString();
+                    } else if (anyTag == (2 << 3 | 2)) { // bytes value = 2
+                        value = readLengthDelimited(any);
+                    } else {
+                        skipField(any, anyTag);
+                    }
+                }
+                if (RETRY_INFO_TYPE_URL.equals(typeUrl) && value != null) {
+                    return retryDelay(value);
+                }
+            } else {
+                skipField(status, tag);
+            }
+        }
+        return -1;
+    }
+
+    private static long retryDelay(ByteBuffer retryInfo) {
+        while (retryInfo.hasRemaining()) {
+            int tag = (int) readVarint(retryInfo);
+            if (tag == (1 << 3 | 2)) { // google.protobuf.Duration retry_delay = 1
+                ByteBuffer duration = readLengthDelimited(retryInfo);
+                long seconds = 0;
+                long nanos = 0;
+                while (duration.hasRemaining()) {
+                    int durationTag = (int) readVarint(duration);
+                    if (durationTag == (1 << 3)) { // int64 seconds = 1
+                        seconds = readVarint(duration);
+                    } else if (durationTag == (2 << 3)) { // int32 nanos = 2
+                        nanos = (int) readVarint(duration);
+                    } else {
+                        skipField(duration, durationTag);
+                    }
+                }
+                return Math.max(0, Math.min(seconds, MAX_DELAY_SECONDS - 1) * 1000 + nanos / 1_000_000);
+            }
+            skipField(retryInfo, tag);
+        }
+        return -1;
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static ByteBuffer readLengthDelimited(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Malformed length-delimited field");
+        }
+        ByteBuffer field = buffer.slice();
+        field.limit(length);
+        buffer.position(buffer.position() + length);
+        return field;
+    }
+
+    private static void skipField(ByteBuffer buffer, int tag) {
+        switch (tag & 0x7) {
+            case 0:
+                readVarint(buffer);
+                break;
+            case 1:
+                buffer.position(buffer.position() + 8);
+                break;
+            case 2:
+                readLengthDelimited(buffer);
+                break;
+            case 5:
+                buffer.position(buffer.position() + 4);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported wire type " + (tag & 0x7));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.vertx.grpc.common.GrpcStatus;
+
+/**
+ * Decides whether, and when, a failed export attempt is retried.
+ * <p>
+ * Only failures that may recover are retried: connection failures, HTTP 429, 502, 503 and 504, and the gRPC statuses
+ * {@code UNAVAILABLE} and {@code RESOURCE_EXHAUSTED}. The delay grows exponentially from the initial backoff up to the
+ * max backoff, and is randomized by the jitter so that the exporters of many instances do not retry in lockstep. A
+ * delay requested by the server, with {@code Retry-After} or gRPC {@code RetryInfo}, is never shortened, and if it is
+ * longer than the max backoff the attempt is not retried at all.
+ * <p>
+ * Retries are also limited by a budget: every request adds a percentage of a retry to the budget and every retry takes
+ * one, so that when the collector is overloaded the retries only add that percentage to the load, instead of
+ * multiplying it by the number of attempts. A small reserve lets isolated failures be retried right away.
+ */
+public final class RetryPolicy {
+
+    private static final EnumSet<GrpcStatus> RETRYABLE_GRPC_STATUSES = EnumSet.of(GrpcStatus.UNAVAILABLE,
+            GrpcStatus.RESOURCE_EXHAUSTED);
+    private static final double BACKOFF_MULTIPLIER = 2;
+    // the budget is counted in thousandths of a retry
+    private static final long RETRY_COST = 1000;
+    private static final long BUDGET_RESERVE = 10 * RETRY_COST;
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double jitter;
+    private final long budgetDeposit;
+
+    private long budget = BUDGET_RESERVE;
+
+    /**
+     * @param maxAttempts the maximum number of attempts, including the first one. 1 disables retries
+     * @param initialBackoff the delay before the first retry
+     * @param maxBackoff the maximum delay before a retry
+     * @param jitter the fraction of the delay that is randomized, between 0 (no jitter) and 1 (a random delay between 0
+     *        and the computed backoff)
+     * @param budgetPercent the maximum number of retries, as a percentage of the number of requests
+     */
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff, double jitter,
+            double budgetPercent) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The max attempts must be at least 1: " + maxAttempts);
+        }
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException(
+                    "Invalid retry backoff: initial " + initialBackoff + ", max " + maxBackoff);
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("The retry jitter must be between 0 and 1: " + jitter);
+        }
+        if (budgetPercent < 0) {
+            throw new IllegalArgumentException("The retry budget must not be negative: " + budgetPercent);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.jitter = jitter;
+        this.budgetDeposit = Math.round(budgetPercent * RETRY_COST / 100);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    static boolean isRetryable(int httpStatusCode) {
+        return httpStatusCode == 429 || httpStatusCode == 502 || httpStatusCode == 503 || httpStatusCode == 504;
+    }
+
+    static boolean isRetryable(GrpcStatus status) {
+        return status != null && RETRYABLE_GRPC_STATUSES.contains(status);
+    }
+
+    /**
+     * Records a new request, before its first attempt.
+     */
+    synchronized void onRequest() {
+        budget = Math.min(BUDGET_RESERVE, budget + budgetDeposit);
+    }
+
+    /**
+     * @param attempts the number of attempts already made
+     * @param serverDelayMillis the delay requested by the server, or -1 if it did not request one
+     * @return the delay before the next attempt, in milliseconds, or -1 if the request must not be retried
+     */
+    long nextDelayMillis(int attempts, long serverDelayMillis) {
+        if (attempts >= maxAttempts || serverDelayMillis > maxBackoffMillis || !withdrawBudget()) {
+            return -1;
+        }
+        double backoff = Math.min(maxBackoffMillis,
+                initialBackoffMillis * Math.pow(BACKOFF_MULTIPLIER, attempts - 1));
+        long delay = (long) (backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+        return Math.max(delay, serverDelayMillis);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budget < RETRY_COST) {
+            return false;
+        }
+        budget -= RETRY_COST;
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+
+/**
+ * The metrics of a sender, next to the {@code <exporterName>.exporter.seen} and {@code <exporterName>.exporter.exported}
+ * item counts recorded by the OpenTelemetry exporters, in the same meter and with the same {@code type} attribute:
+ * <ul>
+ * <li>{@code <exporterName>.exporter.request.duration}, the duration of every attempt, in seconds, with its outcome as
+ * {@code success} attribute</li>
+ * <li>{@code <exporterName>.exporter.payload.size}, the size of the requests in bytes, before and after compression,
+ * with {@code compressed} as attribute</li>
+ * <li>{@code <exporterName>.exporter.retries}, the number of retried attempts</li>
+ * <li>{@code <exporterName>.exporter.requests.inflight}, the number of requests being encoded or sent</li>
+ * <li>{@code <exporterName>.exporter.encoding.queue.size}, the number of requests waiting for an encoding worker</li>
+ * </ul>
+ * The instruments are created once the meter provider of the SDK is available, the measurements made before are
+ * dropped. The attributes are built once, so that recording does not allocate.
+ */
+public final class SenderMetrics {
+
+    private static final AttributeKey<String> ATTRIBUTE_KEY_TYPE = AttributeKey.stringKey("type");
+    private static final AttributeKey<Boolean> ATTRIBUTE_KEY_SUCCESS = AttributeKey.booleanKey("success");
+    private static final AttributeKey<Boolean> ATTRIBUTE_KEY_COMPRESSED = AttributeKey.booleanKey("compressed");
+
+    private static final List<Double> DURATION_BUCKETS = List.of(0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5,
+            5.0, 10.0, 30.0);
+    private static final List<Long> SIZE_BUCKETS = List.of(1024L, 4096L, 16384L, 65536L, 262144L, 1048576L, 4194304L,
+            16777216L);
+
+    private final Supplier<MeterProvider> meterProviderSupplier;
+    private final String meterName;
+    private final String instrumentPrefix;
+    private final Attributes typeAttributes;
+    private final Attributes succeededAttributes;
+    private final Attributes failedAttributes;
+    private final Attributes uncompressedAttributes;
+    private final Attributes compressedAttributes;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    private EncodingExecutor encodingExecutor;
+    private volatile Instruments instruments;
+
+    /**
+     * @param meterProviderSupplier the meter provider, which may return the no-op one until the SDK is built
+     * @param transportName {@code grpc} or {@code http}, as in the names of the exporter metrics
+     * @param type the signal type, {@code span}, {@code metric} or {@code log}
+     */
+    public SenderMetrics(Supplier<MeterProvider> meterProviderSupplier, String exporterName, String transportName,
+            String type) {
+        this.meterProviderSupplier = meterProviderSupplier;
+        this.meterName = "io.opentelemetry.exporters." + exporterName + "-" + transportName;
+        this.instrumentPrefix = exporterName + ".exporter.";
+        this.typeAttributes = Attributes.of(ATTRIBUTE_KEY_TYPE, type);
+        this.succeededAttributes = Attributes.of(ATTRIBUTE_KEY_TYPE, type, ATTRIBUTE_KEY_SUCCESS, true);
+        this.failedAttributes = Attributes.of(ATTRIBUTE_KEY_TYPE, type, ATTRIBUTE_KEY_SUCCESS, false);
+        this.uncompressedAttributes = Attributes.of(ATTRIBUTE_KEY_TYPE, type, ATTRIBUTE_KEY_COMPRESSED, false);
+        this.compressedAttributes = Attributes.of(ATTRIBUTE_KEY_TYPE, type, ATTRIBUTE_KEY_COMPRESSED, true);
+    }
+
+    /**
+     * @return metrics recording nothing
+     */
+    public static SenderMetrics noop() {
+        return new SenderMetrics(MeterProvider::noop, "noop", "noop", "noop");
+    }
+
+    /**
+     * @param encodingExecutor the executor whose queue size is observed
+     */
+    void observe(EncodingExecutor encodingExecutor) {
+        this.encodingExecutor = encodingExecutor;
+    }
+
+    void requestStarted() {
+        inFlightRequests.incrementAndGet();
+        // the gauges are only registered along with the instruments
+        instruments();
+    }
+
+    void requestCompleted() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /**
+     * @param startNanos the {@link System#nanoTime()} when the attempt started
+     */
+    void recordAttempt(long startNanos, boolean succeeded) {
+        Instruments current = instruments();
+        if (current != null) {
+            current.duration.record((System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1),
+                    succeeded ? succeededAttributes : failedAttributes);
+        }
+    }
+
+    void recordPayload(long uncompressedSize, long compressedSize) {
+        Instruments current = instruments();
+        if (current != null) {
+            current.payloadSize.record(uncompressedSize, uncompressedAttributes);
+            current.payloadSize.record(compressedSize, compressedAttributes);
+        }
+    }
+
+    void recordRetry() {
+        Instruments current = instruments();
+        if (current != null) {
+            current.retries.add(1, typeAttributes);
+        }
+    }
+
+    private Instruments instruments() {
+        Instruments current = instruments;
+        if (current != null) {
+            return current;
+        }
+        MeterProvider meterProvider = meterProviderSupplier.get();
+        if (meterProvider == null || meterProvider == MeterProvider.noop()) {
+            return null;
+        }
+        synchronized (this) {
+            if (instruments == null) {
+                instruments = new Instruments(meterProvider.get(meterName));
+            }
+            return instruments;
+        }
+    }
+
+    private void observeInFlightRequests(ObservableLongMeasurement measurement) {
+        measurement.record(inFlightRequests.get(), typeAttributes);
+    }
+
+    private void observeEncodingQueue(ObservableLongMeasurement measurement) {
+        EncodingExecutor executor = encodingExecutor;
+        if (executor != null && executor.isWorkerMode()) {
+            measurement.record(executor.getQueueDepth(), typeAttributes);
+        }
+    }
+
+    private final class Instruments {
+        private final DoubleHistogram duration;
+        private final LongHistogram payloadSize;
+        private final LongCounter retries;
+
+        private Instruments(Meter meter) {
+            duration = meter.histogramBuilder(instrumentPrefix + "request.duration")
+                    .setDescription("The duration of the export requests, per attempt")
+                    .setUnit("s")
+                    .setExplicitBucketBoundariesAdvice(DURATION_BUCKETS)
+                    .build();
+            payloadSize = meter.histogramBuilder(instrumentPrefix + "payload.size")
+                    .ofLongs()
+                    .setDescription("The size of the export requests, before and after compression")
+                    .setUnit("By")
+                    .setExplicitBucketBoundariesAdvice(SIZE_BUCKETS)
+                    .build();
+            retries = meter.counterBuilder(instrumentPrefix + "retries")
+                    .setDescription("The number of retried export attempts")
+                    .build();
+            meter.gaugeBuilder(instrumentPrefix + "requests.inflight")
+                    .ofLongs()
+                    .setDescription("The number of export requests being encoded or sent")
+                    .buildWithCallback(SenderMetrics.this::observeInFlightRequests);
+            meter.gaugeBuilder(instrumentPrefix + "encoding.queue.size")
+                    .ofLongs()
+                    .setDescription("The number of export requests waiting for an encoding worker")
+                    .buildWithCallback(SenderMetrics.this::observeEncodingQueue);
+        }
+    }
+}
@@ -1,40 +1,46 @@
 package io.smallrye.opentelemetry.implementation.exporters.sender;
 
-import java.io.IOException;
-import java.net.URI;
+import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getHost;
+import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getPort;
+
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.EnumSet;
 import java.util.Map;
-import java.util.concurrent.CompletionStage;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import io.netty.handler.codec.http.QueryStringDecoder;
+import io.opentelemetry.api.internal.InstrumentationUtil;
+import io.opentelemetry.exporter.internal.compression.Compressor;
 import io.opentelemetry.exporter.internal.grpc.GrpcResponse;
 import io.opentelemetry.exporter.internal.grpc.GrpcSender;
 import io.opentelemetry.exporter.internal.marshal.Marshaler;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.internal.ThrottlingLogger;
-import io.smallrye.mutiny.Uni;
-import io.smallrye.opentelemetry.implementation.exporters.BufferOutputStream;
-import io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+import io.smallrye.opentelemetry.implementation.exporters.SharedVertx;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientOptions;
-import io.vertx.core.net.SocketAddress;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.RequestOptions;
 import io.vertx.core.tracing.TracingPolicy;
-import io.vertx.grpc.client.GrpcClient;
-import io.vertx.grpc.client.GrpcClientRequest;
-import io.vertx.grpc.client.GrpcClientResponse;
-import io.vertx.grpc.common.GrpcError;
 import io.vertx.grpc.common.GrpcStatus;
-import io.vertx.grpc.common.ServiceName;
 
 public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T> {
 
@@ -45,9 +51,14 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
 
     private static final String GRPC_STATUS = "grpc-status";
     private static final String GRPC_MESSAGE = "grpc-message";
+    private static final String GRPC_ENCODING = "grpc-encoding";
+    private static final String GRPC_CONTENT_TYPE = "application/grpc";
+    // the compressed flag and the length of a message
+    private static final int GRPC_PREFIX_SIZE = 5;
 
     private static final Logger internalLogger = Logger.getLogger(VertxGrpcSender.class.getName());
-    private static final int MAX_ATTEMPTS = 3;
+    private static final EnumSet<GrpcStatus> SPOOLABLE_STATUSES = EnumSet.of(GrpcStatus.UNAVAILABLE,
+            GrpcStatus.RESOURCE_EXHAUSTED, GrpcStatus.DEADLINE_EXCEEDED);
 
     private final ThrottlingLogger logger = new ThrottlingLogger(internalLogger); // TODO: is there something in JBoss Logging we can use?
 
@@ -55,34 +66,87 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
     private final AtomicBoolean loggedUnimplemented = new AtomicBoolean();
     private final AtomicBoolean isShutdown = new AtomicBoolean();
     private final CompletableResultCode shutdownResult = new CompletableResultCode();
-    private final SocketAddress server;
-    private final boolean compressionEnabled;
+    private final EndpointSelector endpoints;
+    private final Compressor compressor;
     private final Map<String, String> headers;
     private final String signalType;
     private final String grpcEndpointPath;
-
-    private final GrpcClient client;
+    private final String requestURI;
+
+    private final HttpClient client;
+    private final EncodingExecutor encodingExecutor;
+    private final RetryPolicy retryPolicy;
+    private final InFlightLimiter inFlightLimiter;
+    private final ConnectionRebalancer connectionRebalancer;
+    private final DiskSpool spool;
+    private final SenderMetrics metrics;
+    private final ExportPressure pressure;
+    private final DoubleSupplier inFlightFill;
+    private final Vertx vertx;
+    private final Context context;
 
     public VertxGrpcSender(
             String signalType,
-            URI grpcBaseUri,
+            EndpointSelector endpoints,
             String grpcEndpointPath,
-            boolean compressionEnabled,
+            Compressor compressor,
             Duration timeout,
             Map<String, String> headersMap,
             Consumer<HttpClientOptions> clientOptionsCustomizer,
+            EncodingExecutor encodingExecutor,
+            RetryPolicy retryPolicy,
+            InFlightLimiter inFlightLimiter,
+            ConnectionRebalancer connectionRebalancer,
+            DiskSpool spool,
+            SenderMetrics metrics,
+            ExportPressure pressure,
             Vertx vertx) {
         this.signalType = signalType;
         this.grpcEndpointPath = grpcEndpointPath;
-        this.server = SocketAddress.inetSocketAddress(OtlpExporterUtil.getPort(grpcBaseUri), grpcBaseUri.getHost());
-        this.compressionEnabled = compressionEnabled;
+        this.requestURI = "/" + grpcEndpointPath + "/" + GRPC_METHOD_NAME;
+        this.endpoints = endpoints;
+        this.compressor = compressor;
         this.headers = headersMap;
         var httpClientOptions = new HttpClientOptions()
                 .setHttp2ClearTextUpgrade(false) // needed otherwise connections get closed immediately
                 .setReadIdleTimeout((int) timeout.getSeconds())
                 .setTracingPolicy(TracingPolicy.IGNORE); // needed to avoid tracing the calls from this gRPC client
         clientOptionsCustomizer.accept(httpClientOptions);
-        this.client = GrpcClient.client(vertx, httpClientOptions);
+        // the unary calls are made on an HTTP/2 client, as the GrpcClient of Vert.x 4 cannot give its requests the
+        // authority of the endpoint when they are sent to one of its resolved addresses
+        this.client = vertx.createHttpClient(
+                new HttpClientOptions(httpClientOptions).setProtocolVersion(HttpVersion.HTTP_2));
+        this.encodingExecutor = encodingExecutor;
+        this.retryPolicy = retryPolicy;
+        this.inFlightLimiter = inFlightLimiter;
+        this.connectionRebalancer = connectionRebalancer;
+        this.spool = spool;
+        this.metrics = metrics;
+        metrics.observe(encodingExecutor);
+        this.pressure = pressure;
+        this.inFlightFill = inFlightLimiter::getFill;
+        pressure.register(inFlightFill);
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        connectionRebalancer.start(vertx, endpoints);
+        if (spool != null) {
+            spool.start(vertx, new DiskSpool.Transport() {
+                @Override
+                public void send(ExportPayload payload, Consumer<DiskSpool.Delivery> onComplete) {
+                    sendPayload(payload, "spooled " + signalType, new Consumer<>() {
+                        @Override
+                        public void accept(GrpcResponse response) {
+                            onComplete.accept(DiskSpool.Delivery.DELIVERED);
+                        }
+                    }, new Consumer<>() {
+                        @Override
+                        public void accept(Throwable t) {
+                            onComplete.accept(isSpoolable(t) ? DiskSpool.Delivery.RETRY : DiskSpool.Delivery.REJECTED);
+                        }
+                    }, false);
+                }
+            });
+        }
     }
 
     @Override
@@ -92,18 +156,139 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
         }
 
         final String marshalerType = marshaler.getClass().getSimpleName();
-        var onSuccessHandler = new ClientRequestOnSuccessHandler(client, server, headers, compressionEnabled, marshaler,
-                loggedUnimplemented, logger, marshalerType, onSuccess, onError, 1, grpcEndpointPath,
+        int size = marshaler.getBinarySerializedSize();
+        InFlightLimiter.Permit permit = inFlightLimiter.tryAcquire(size);
+        if (permit == null) {
+            if (inFlightLimiter.dropsOnLimit()) {
+                logger.log(Level.WARNING, "Dropped an export of " + size + " bytes of " + marshalerType
+                        + "s, too many requests in flight (" + inFlightLimiter.describeLimits() + ")");
+                pressure.recordExport(false);
+                onSuccess.accept(GrpcResponse.create(GrpcStatus.OK.code, "Dropped, too many requests in flight"));
+            } else {
+                onError.accept(new RejectedExecutionException(
+                        "Too many export requests in flight (" + inFlightLimiter.describeLimits() + ")"));
+            }
+            return;
+        }
+        metrics.requestStarted();
+        Consumer<GrpcResponse> releasingOnSuccess = new Consumer<>() {
+            @Override
+            public void accept(GrpcResponse response) {
+                permit.release();
+                metrics.requestCompleted();
+                onSuccess.accept(response);
+            }
+        };
+        Consumer<Throwable> releasingOnError = new Consumer<>() {
+            @Override
+            public void accept(Throwable throwable) {
+                permit.release();
+                metrics.requestCompleted();
+                onError.accept(throwable);
+            }
+        };
+
+        encodingExecutor.encode(marshaler, compressor, context, new Consumer<>() {
+            @Override
+            public void accept(ExportPayload payload) {
+                metrics.recordPayload(size, payload.size());
+                sendPayload(payload, marshalerType, releasingOnSuccess, releasingOnError, spool != null);
+            }
+        }, new Consumer<>() {
+            @Override
+            public void accept(Throwable t) {
+                final String message = "Failed to export "
+                        + marshalerType
+                        + (t instanceof RejectedExecutionException
+                                ? "s. The encoding queue is full. Full error message: "
+                                : "s. Unable to serialize payload. Full error message: ")
+                        + (t.getMessage() == null ? t.getClass().getName() : t.getMessage());
+                logger.log(Level.WARNING, message);
+                pressure.recordExport(false);
+                releasingOnError.accept(t);
+            }
+        });
+    }
+
+    /**
+     * @param spoolOnFailure whether the payload is written to the spool when all the attempts fail, which is not the case
+     *        of the payloads drained from it
+     */
+    private void sendPayload(ExportPayload payload, String marshalerType, Consumer<GrpcResponse> onSuccess,
+            Consumer<Throwable> onError, boolean spoolOnFailure) {
+        if (isShutdown.get()) {
+            payload.release();
+            return;
+        }
+
+        Consumer<GrpcResponse> releasingOnSuccess = new Consumer<>() {
+            @Override
+            public void accept(GrpcResponse response) {
+                pressure.recordExport(true);
+                payload.release();
+                if (spoolOnFailure) {
+                    // the collector is reachable again
+                    spool.drain();
+                }
+                onSuccess.accept(response);
+            }
+        };
+        Consumer<Throwable> releasingOnError = new Consumer<>() {
+            @Override
+            public void accept(Throwable throwable) {
+                // the collector was not reached, even if the payload is spooled
+                pressure.recordExport(false);
+                // the spool copies the payload, so it must see it before it is released
+                boolean spooled = spoolOnFailure && isSpoolable(throwable) && spool.offer(payload);
+                payload.release();
+                if (spooled) {
+                    onSuccess.accept(GrpcResponse.create(GrpcStatus.OK.code, "Spooled to disk"));
+                } else {
+                    onError.accept(throwable);
+                }
+            }
+        };
+        var onSuccessHandler = new ClientRequestOnSuccessHandler(client, headers, payload,
+                loggedUnimplemented, logger, marshalerType, releasingOnSuccess, releasingOnError, 1, grpcEndpointPath,
                 isShutdown::get);
 
-        initiateSend(marshaler, client, server, MAX_ATTEMPTS, onSuccessHandler, new Consumer<>() {
+        retryPolicy.onRequest();
+        initiateSend(client, onSuccessHandler, new Consumer<>() {
             @Override
             public void accept(Throwable throwable) {
-                failOnClientRequest(marshalerType, throwable, onError);
+                failOnClientRequest(marshalerType, throwable, releasingOnError);
             }
         });
     }
 
+    /**
+     * @return the status of a response without gRPC status, as mapped by the gRPC specification
+     */
+    private static GrpcStatus fromHttpStatus(int statusCode) {
+        switch (statusCode) {
+            case 400:
+                return GrpcStatus.INTERNAL;
+            case 401:
+                return GrpcStatus.UNAUTHENTICATED;
+            case 403:
+                return GrpcStatus.PERMISSION_DENIED;
+            case 404:
+                return GrpcStatus.UNIMPLEMENTED;
+            case 429:
+            case 502:
+            case 503:
+            case 504:
+                return GrpcStatus.UNAVAILABLE;
+            default:
+                return GrpcStatus.UNKNOWN;
+        }
+    }
+
+    private static boolean isSpoolable(Throwable t) {
+        // failures without a status are connection failures
+        return !(t instanceof GrpcStatusException) || SPOOLABLE_STATUSES.contains(((GrpcStatusException) t).getStatus());
+    }
+
     @Override
     public CompletableResultCode shutdown() {
         if (!isShutdown.compareAndSet(false, true)) {
@@ -111,7 +296,20 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
             return shutdownResult;
         }
 
+        encodingExecutor.shutdown();
+        connectionRebalancer.close();
+        pressure.unregister(inFlightFill);
+        if (spool != null) {
+            spool.close();
+        }
         client.close()
+                .onComplete(new Handler<>() {
+                    @Override
+                    public void handle(AsyncResult<Void> ignored) {
+                        // the Vert.x instance is closed along with the last sender using it, unless it is provided by CDI
+                        SharedVertx.release(vertx);
+                    }
+                })
                 .onSuccess(
                         new Handler<>() {
                             @Override
@@ -128,37 +326,49 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
         return shutdownResult;
     }
 
-    void initiateSend(Marshaler request,
-            GrpcClient client,
-            SocketAddress server,
-            int numberOfAttempts,
-            Handler<GrpcClientRequest<Buffer, Buffer>> onSuccessHandler,
+    void initiateSend(HttpClient client,
+            ClientRequestOnSuccessHandler onSuccessHandler,
             Consumer<Throwable> onFailureCallback) {
-        Uni.createFrom().completionStage(new Supplier<CompletionStage<GrpcClientRequest<Buffer, Buffer>>>() {
+        Endpoint endpoint = endpoints.select();
+        if (endpoint == null) {
+            onFailureCallback.accept(new CircuitBreakerOpenException(endpoints.describe()));
+            return;
+        }
+        onSuccessHandler.endpoint = endpoint;
+        onSuccessHandler.startNanos = endpoint.now();
+        // an instrumentation of the HTTP client must not trace the export traffic, which would be exported again
+        InstrumentationUtil.suppressInstrumentation(new Runnable() {
             @Override
-            public CompletionStage get() {
-                return client.request(server).toCompletionStage();
-            }
-        })
-                .onFailure(new Predicate<Throwable>() {
+            public void run() {
+                request(client, endpoint).onComplete(new Handler<>() {
                     @Override
-                    public boolean test(Throwable t) {
-                        // Will not retry on shutdown
-                        return t instanceof IllegalStateException ||
-                                t instanceof RejectedExecutionException;
-                    }
-                })
-                .recoverWithUni(new Supplier<Uni<? extends GrpcClientRequest<Buffer, Buffer>>>() {
-                    @Override
-                    public Uni<? extends GrpcClientRequest<Buffer, Buffer>> get() {
-                        return Uni.createFrom().nothing();
+                    public void handle(AsyncResult<HttpClientRequest> result) {
+                        if (result.succeeded()) {
+                            onSuccessHandler.handle(result.result());
+                            return;
+                        }
+                        onSuccessHandler.attemptFailed();
+                        if (!onSuccessHandler.retry(-1, onFailureCallback)) {
+                            onFailureCallback.accept(result.cause());
+                        }
                     }
-                })
-                .onFailure()
-                .retry()
-                .withBackOff(Duration.ofMillis(100))
-                .atMost(numberOfAttempts)
-                .subscribe().with(request1 -> onSuccessHandler.handle(request1), onFailureCallback);
+                });
+            }
+        });
+    }
+
+    /**
+     * Creates a request to the address of the endpoint, which may be one of its resolved addresses, with the host and
+     * port of the endpoint as {@code :authority}, and for the server name indication and the host name verification of
+     * TLS.
+     */
+    private Future<HttpClientRequest> request(HttpClient client, Endpoint endpoint) {
+        return client.request(new RequestOptions()
+                .setMethod(HttpMethod.POST)
+                .setServer(endpoint.getAddress())
+                .setHost(getHost(endpoint.getUri()))
+                .setPort(getPort(endpoint.getUri()))
+                .setURI(requestURI));
     }
 
     private void failOnClientRequest(String type, Throwable t, Consumer<Throwable> onError) {
@@ -170,14 +380,12 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
         onError.accept(t);
     }
 
-    private final class ClientRequestOnSuccessHandler implements Handler<GrpcClientRequest<Buffer, Buffer>> {
+    private final class ClientRequestOnSuccessHandler implements Handler<HttpClientRequest> {
 
-        private final GrpcClient client;
-        private final SocketAddress server;
+        private final HttpClient client;
         private final Map<String, String> headers;
-        private final boolean compressionEnabled;
 
-        private final Marshaler marshaler;
+        private final ExportPayload payload;
         private final AtomicBoolean loggedUnimplemented;
         private final ThrottlingLogger logger;
         private final String type;
@@ -186,13 +394,14 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
         private final String grpcEndpointPath;
 
         private final int attemptNumber;
+        // the endpoint selected for the attempt, and when the attempt started
+        private Endpoint endpoint;
+        private long startNanos;
         private final Supplier<Boolean> isShutdown;
 
-        public ClientRequestOnSuccessHandler(GrpcClient client,
-                SocketAddress server,
+        public ClientRequestOnSuccessHandler(HttpClient client,
                 Map<String, String> headers,
-                boolean compressionEnabled,
-                Marshaler marshaler,
+                ExportPayload payload,
                 AtomicBoolean loggedUnimplemented,
                 ThrottlingLogger logger,
                 String type,
@@ -202,11 +411,9 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
                 String grpcEndpointPath,
                 Supplier<Boolean> isShutdown) {
             this.client = client;
-            this.server = server;
             this.grpcEndpointPath = grpcEndpointPath;
             this.headers = headers;
-            this.compressionEnabled = compressionEnabled;
-            this.marshaler = marshaler;
+            this.payload = payload;
             this.loggedUnimplemented = loggedUnimplemented;
             this.logger = logger;
             this.type = type;
@@ -217,200 +424,177 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
         }
 
         @Override
-        public void handle(GrpcClientRequest<Buffer, Buffer> request) {
-            if (compressionEnabled) {
-                request.encoding("gzip");
+        public void handle(HttpClientRequest request) {
+            connectionRebalancer.track(request.connection());
+
+            request.putHeader("content-type", GRPC_CONTENT_TYPE);
+            request.putHeader("te", "trailers");
+            if (payload.isCompressed()) {
+                // grpc-encoding matches the codec of the payload
+                request.putHeader(GRPC_ENCODING, payload.encoding());
             }
-
-            // Set the service name and the method to call
-            request.serviceName(ServiceName.create(grpcEndpointPath));
-            request.methodName(GRPC_METHOD_NAME);
-
-            if (!headers.isEmpty()) {
-                var vertxHeaders = request.headers();
-                for (var entry : headers.entrySet()) {
-                    vertxHeaders.set(entry.getKey(), entry.getValue());
-                }
+            for (var entry : headers.entrySet()) {
+                request.putHeader(entry.getKey(), entry.getValue());
             }
 
-            try {
-                int messageSize = marshaler.getBinarySerializedSize();
-                Buffer buffer = Buffer.buffer(messageSize);
-                var os = new BufferOutputStream(buffer);
-                marshaler.writeBinaryTo(os);
-                request.send(buffer).onSuccess(new Handler<>() {
-                    @Override
-                    public void handle(GrpcClientResponse<Buffer, Buffer> response) {
-                        response.exceptionHandler(new Handler<>() {
-                            @Override
-                            public void handle(Throwable t) {
-                                if (attemptNumber <= MAX_ATTEMPTS && !isShutdown.get()) {
-                                    // retry
-                                    initiateSend(marshaler, client, server,
-                                            MAX_ATTEMPTS - attemptNumber,
-                                            newAttempt(),
-                                            new Consumer<>() {
-                                                @Override
-                                                public void accept(Throwable throwable) {
-                                                    failOnClientRequest(throwable, onError, attemptNumber);
-                                                }
-                                            });
-
-                                } else {
-                                    failOnClientRequest(t, onError, attemptNumber);
-                                }
-                            }
-                        }).errorHandler(new Handler<>() {
-                            @Override
-                            public void handle(GrpcError error) {
-                                handleError(error.status, response);
-                            }
-                        }).endHandler(new Handler<>() {
-                            @Override
-                            public void handle(Void ignored) {
-                                GrpcStatus status = getStatus(response);
-                                if (status == GrpcStatus.OK) {
-                                    onSuccess.accept(GrpcResponse.create(response.status().code, response.statusMessage()));
-                                } else {
-                                    handleError(status, response);
-                                }
-                            }
-                        });
+            // The payload is already encoded with the request encoding, it is written as-is as the single message of
+            // the call, after its compressed flag and its length, without being compressed again on every attempt
+            int size = payload.size();
+            request.putHeader("content-length", Integer.toString(GRPC_PREFIX_SIZE + size));
+            request.write(Buffer.buffer(GRPC_PREFIX_SIZE)
+                    .appendByte((byte) (payload.isCompressed() ? 1 : 0))
+                    .appendInt(size));
+            payload.writeWith(new Function<>() {
+                @Override
+                public Future<Void> apply(Buffer buffer) {
+                    return request.end(buffer);
+                }
+            });
+            // the status is known once the response has been read, the message of the response is empty
+            request.response().compose(new Function<HttpClientResponse, Future<HttpClientResponse>>() {
+                @Override
+                public Future<HttpClientResponse> apply(HttpClientResponse response) {
+                    return response.body().map(response);
+                }
+            }).onSuccess(new Handler<>() {
+                @Override
+                public void handle(HttpClientResponse response) {
+                    GrpcStatus status = getStatus(response);
+                    // an overloaded collector is unhealthy, any other status shows it is reachable
+                    if (RetryPolicy.isRetryable(status)) {
+                        attemptFailed();
+                    } else {
+                        attemptSucceeded();
                     }
+                    if (status == GrpcStatus.OK) {
+                        onSuccess.accept(GrpcResponse.create(status.code, getStatusMessage(response)));
+                    } else {
+                        handleError(status, response);
+                    }
+                }
 
-                    private void handleError(GrpcStatus status, GrpcClientResponse<Buffer, Buffer> response) {
-                        String statusMessage = getStatusMessage(response);
-                        logAppropriateWarning(status, statusMessage);
-                        onError.accept(new IllegalStateException(statusMessage));
+                private void handleError(GrpcStatus status, HttpClientResponse response) {
+                    if (RetryPolicy.isRetryable(status)
+                            && retry(RetryHints.fromGrpcMetadata(response.headers(), response.trailers()))) {
+                        return;
                     }
+                    String statusMessage = getStatusMessage(response);
+                    logAppropriateWarning(status, statusMessage);
+                    onError.accept(new GrpcStatusException(status, statusMessage));
+                }
 
-                    private void logAppropriateWarning(GrpcStatus status,
-                            String statusMessage) {
-                        if (status == GrpcStatus.UNIMPLEMENTED) {
-                            if (loggedUnimplemented.compareAndSet(false, true)) {
-                                logUnimplemented(internalLogger, type, statusMessage);
-                            }
-                        } else if (status == GrpcStatus.UNAVAILABLE) {
-                            logger.log(
-                                    Level.WARNING,
-                                    "Failed to export "
-                                            + type
-                                            + "s. Server is UNAVAILABLE. "
-                                            + "Make sure your collector is running and reachable from this network. "
-                                            + "Full error message:"
-                                            + statusMessage);
-                        } else {
-                            if (status == null) {
-                                if (statusMessage == null) {
-                                    logger.log(
-                                            Level.WARNING,
-                                            "Failed to export "
-                                                    + type
-                                                    + "s. Perhaps the collector does not support collecting traces using grpc? Try configuring 'quarkus.otel.exporter.otlp.traces.protocol=http/protobuf'");
-                                } else {
-                                    logger.log(
-                                            Level.WARNING,
-                                            "Failed to export "
-                                                    + type
-                                                    + "s. Server responded with error message: "
-                                                    + statusMessage);
-                                }
+                private void logAppropriateWarning(GrpcStatus status,
+                        String statusMessage) {
+                    if (status == GrpcStatus.UNIMPLEMENTED) {
+                        if (loggedUnimplemented.compareAndSet(false, true)) {
+                            logUnimplemented(internalLogger, type, statusMessage);
+                        }
+                    } else if (status == GrpcStatus.UNAVAILABLE) {
+                        logger.log(
+                                Level.WARNING,
+                                "Failed to export "
+                                        + type
+                                        + "s. Server is UNAVAILABLE. "
+                                        + "Make sure your collector is running and reachable from this network. "
+                                        + "Full error message:"
+                                        + statusMessage);
+                    } else {
+                        if (status == null) {
+                            if (statusMessage == null) {
+                                logger.log(
+                                        Level.WARNING,
+                                        "Failed to export "
+                                                + type
+                                                + "s. Perhaps the collector does not support collecting traces using grpc? Try configuring 'quarkus.otel.exporter.otlp.traces.protocol=http/protobuf'");
                             } else {
                                 logger.log(
                                         Level.WARNING,
                                         "Failed to export "
                                                 + type
-                                                + "s. Server responded with "
-                                                + status.code
-                                                + ". Error message: "
+                                                + "s. Server responded with error message: "
                                                 + statusMessage);
                             }
+                        } else {
+                            logger.log(
+                                    Level.WARNING,
+                                    "Failed to export "
+                                            + type
+                                            + "s. Server responded with "
+                                            + status.code
+                                            + ". Error message: "
+                                            + statusMessage);
                         }
                     }
+                }
 
-                    private void logUnimplemented(Logger logger, String type, String fullErrorMessage) {
-                        String envVar;
-                        switch (type) {
-                            case "span":
-                                envVar = "OTEL_TRACES_EXPORTER";
-                                break;
-                            case "metric":
-                                envVar = "OTEL_METRICS_EXPORTER";
-                                break;
-                            case "log":
-                                envVar = "OTEL_LOGS_EXPORTER";
-                                break;
-                            default:
-                                throw new IllegalStateException(
-                                        "Unrecognized type, this is a programming bug in the OpenTelemetry SDK");
-                        }
-
-                        logger.log(
-                                Level.WARNING,
-                                "Failed to export "
-                                        + type
-                                        + "s. Server responded with UNIMPLEMENTED. "
-                                        + "This usually means that your collector is not configured with an otlp "
-                                        + "receiver in the \"pipelines\" section of the configuration. "
-                                        + "If export is not desired and you are using OpenTelemetry autoconfiguration or the javaagent, "
-                                        + "disable export by setting "
-                                        + envVar
-                                        + "=none. "
-                                        + "Full error message: "
-                                        + fullErrorMessage);
+                private void logUnimplemented(Logger logger, String type, String fullErrorMessage) {
+                    String envVar;
+                    switch (type) {
+                        case "span":
+                            envVar = "OTEL_TRACES_EXPORTER";
+                            break;
+                        case "metric":
+                            envVar = "OTEL_METRICS_EXPORTER";
+                            break;
+                        case "log":
+                            envVar = "OTEL_LOGS_EXPORTER";
+                            break;
+                        default:
+                            throw new IllegalStateException(
+                                    "Unrecognized type, this is a programming bug in the OpenTelemetry SDK");
                     }
 
-                    private GrpcStatus getStatus(GrpcClientResponse<?, ?> response) {
-                        // Status can either be in the headers or trailers depending on error
-                        GrpcStatus result = response.status();
-                        if (result == null) {
-                            String statusFromTrailer = response.trailers().get(GRPC_STATUS);
-                            if (statusFromTrailer != null) {
-                                result = GrpcStatus.valueOf(Integer.parseInt(statusFromTrailer));
-                            }
-                        }
-                        return result;
-                    }
+                    logger.log(
+                            Level.WARNING,
+                            "Failed to export "
+                                    + type
+                                    + "s. Server responded with UNIMPLEMENTED. "
+                                    + "This usually means that your collector is not configured with an otlp "
+                                    + "receiver in the \"pipelines\" section of the configuration. "
+                                    + "If export is not desired and you are using OpenTelemetry autoconfiguration or the javaagent, "
+                                    + "disable export by setting "
+                                    + envVar
+                                    + "=none. "
+                                    + "Full error message: "
+                                    + fullErrorMessage);
+                }
 
-                    private String getStatusMessage(GrpcClientResponse<Buffer, Buffer> response) {
-                        // Status message can either be in the headers or trailers depending on error
-                        String result = response.statusMessage();
-                        if (result == null) {
-                            result = response.trailers().get(GRPC_MESSAGE);
-                            if (result != null) {
-                                result = QueryStringDecoder.decodeComponent(result, StandardCharsets.UTF_8);
-                            }
+                private GrpcStatus getStatus(HttpClientResponse response) {
+                    // Status can either be in the headers or trailers depending on error
+                    String status = response.headers().get(GRPC_STATUS);
+                    if (status == null) {
+                        status = response.trailers().get(GRPC_STATUS);
+                    }
+                    if (status == null) {
+                        // not a gRPC response, such as the error of a proxy
+                        return response.statusCode() == 200 ? null : fromHttpStatus(response.statusCode());
+                    }
+                    try {
+                        GrpcStatus result = GrpcStatus.valueOf(Integer.parseInt(status));
+                        return result != null ? result : GrpcStatus.UNKNOWN;
+                    } catch (NumberFormatException e) {
+                        return GrpcStatus.UNKNOWN;
+                    }
+                }
 
-                        }
-                        return result;
+                private String getStatusMessage(HttpClientResponse response) {
+                    // Status message can either be in the headers or trailers depending on error
+                    String result = response.headers().get(GRPC_MESSAGE);
+                    if (result == null) {
+                        result = response.trailers().get(GRPC_MESSAGE);
                     }
+                    return result != null ? QueryStringDecoder.decodeComponent(result, StandardCharsets.UTF_8) : null;
+                }
 
-                }).onFailure(new Handler<>() {
-                    @Override
-                    public void handle(Throwable t) {
-                        if (attemptNumber <= MAX_ATTEMPTS && !isShutdown.get()) {
-                            // retry
-                            initiateSend(marshaler, client, server, MAX_ATTEMPTS - attemptNumber,
-                                    newAttempt(),
-                                    new Consumer<>() {
-                                        @Override
-                                        public void accept(Throwable throwable) {
-                                            failOnClientRequest(throwable, onError, attemptNumber);
-                                        }
-                                    });
-                        } else {
-                            failOnClientRequest(t, onError, attemptNumber);
-                        }
+            }).onFailure(new Handler<>() {
+                @Override
+                public void handle(Throwable t) {
+                    attemptFailed();
+                    if (!retry(-1)) {
+                        failOnClientRequest(t, onError, attemptNumber);
                     }
-                });
-            } catch (IOException e) {
-                final String message = "Failed to export "
-                        + type
-                        + "s. Unable to serialize payload. Full error message: "
-                        + (e.getMessage() == null ? e.getClass().getName() : e.getMessage());
-                logger.log(Level.WARNING, message);
-                onError.accept(e);
-            }
+                }
+            });
         }
 
         private void failOnClientRequest(Throwable t, Consumer<Throwable> onError, int attemptNumber) {
@@ -424,9 +608,54 @@ public final class VertxGrpcSender<T extends Marshaler> implements GrpcSender<T>
         }
 
         public ClientRequestOnSuccessHandler newAttempt() {
-            return new ClientRequestOnSuccessHandler(client, server, headers, compressionEnabled, marshaler,
+            return new ClientRequestOnSuccessHandler(client, headers, payload,
                     loggedUnimplemented, logger, type, onSuccess, onError, attemptNumber + 1,
                     grpcEndpointPath, isShutdown);
         }
+
+        void attemptSucceeded() {
+            endpoint.onSuccess(startNanos);
+            metrics.recordAttempt(startNanos, true);
+        }
+
+        void attemptFailed() {
+            endpoint.onFailure(startNanos);
+            metrics.recordAttempt(startNanos, false);
+        }
+
+        boolean retry(long serverDelayMillis) {
+            return retry(serverDelayMillis, new Consumer<>() {
+                @Override
+                public void accept(Throwable throwable) {
+                    failOnClientRequest(throwable, onError, attemptNumber + 1);
+                }
+            });
+        }
+
+        /**
+         * Schedules a new attempt, if the retry policy allows it.
+         *
+         * @param serverDelayMillis the delay requested by the server, or -1
+         * @param onFailureCallback called if the new attempt cannot create its request, and is not retried
+         * @return {@code false} if the request is not retried
+         */
+        boolean retry(long serverDelayMillis, Consumer<Throwable> onFailureCallback) {
+            if (isShutdown.get()) {
+                return false;
+            }
+            long delay = retryPolicy.nextDelayMillis(attemptNumber, serverDelayMillis);
+            if (delay < 0) {
+                return false;
+            }
+            metrics.recordRetry();
+            ClientRequestOnSuccessHandler newAttempt = newAttempt();
+            vertx.setTimer(Math.max(1, delay), new Handler<Long>() {
+                @Override
+                public void handle(Long id) {
+                    initiateSend(client, newAttempt, onFailureCallback);
+                }
+            });
+            return true;
+        }
     }
 }
@@ -1,29 +1,34 @@
 package io.smallrye.opentelemetry.implementation.exporters.sender;
 
+import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getHost;
 import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.getPort;
+import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil.isUnixDomainSocket;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.URI;
 import java.time.Duration;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.concurrent.CompletionStage;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
-import java.util.function.Supplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.GZIPOutputStream;
 
+import io.opentelemetry.api.internal.InstrumentationUtil;
+import io.opentelemetry.exporter.internal.compression.Compressor;
 import io.opentelemetry.exporter.internal.http.HttpSender;
 import io.opentelemetry.exporter.internal.marshal.Marshaler;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.internal.ThrottlingLogger;
-import io.smallrye.mutiny.Uni;
-import io.smallrye.opentelemetry.implementation.exporters.BufferOutputStream;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+import io.smallrye.opentelemetry.implementation.exporters.SharedVertx;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
@@ -32,6 +37,7 @@ import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
 import io.vertx.core.tracing.TracingPolicy;
 
 public final class VertxHttpSender implements HttpSender {
@@ -43,42 +49,105 @@ public final class VertxHttpSender implements HttpSender {
     private static final Logger internalLogger = Logger.getLogger(VertxHttpSender.class.getName());
     private static final ThrottlingLogger logger = new ThrottlingLogger(internalLogger);
 
-    private static final int MAX_ATTEMPTS = 3;
+    private static final Response SPOOLED_RESPONSE = localResponse("Spooled to disk");
+    private static final Response DROPPED_RESPONSE = localResponse("Dropped, too many requests in flight");
 
-    private final String basePath;
-    private final boolean compressionEnabled;
+    private final EndpointSelector endpoints;
+    // the request URI of each endpoint, as each may have its own base path
+    private final Map<Endpoint, String> requestURIs = new IdentityHashMap<>();
+    private final Compressor compressor;
     private final Map<String, String> headers;
     private final String contentType;
     private final HttpClient client;
-    private final String signalPath;
+    private final EncodingExecutor encodingExecutor;
+    // 0 when the requests are encoded into an ExportPayload before being sent
+    private final int streamingChunkSize;
+    private final Duration timeout;
+    private final RetryPolicy retryPolicy;
+    private final InFlightLimiter inFlightLimiter;
+    private final ConnectionRebalancer connectionRebalancer;
+    private final DiskSpool spool;
+    private final SenderMetrics metrics;
+    private final ExportPressure pressure;
+    private final DoubleSupplier inFlightFill;
+    private final Vertx vertx;
+    private final Context context;
 
     public VertxHttpSender(
-            URI baseUri,
+            EndpointSelector endpoints,
             String signalPath,
-            boolean compressionEnabled,
+            Compressor compressor,
             Duration timeout,
             Map<String, String> headersMap,
             String contentType,
             Consumer<HttpClientOptions> clientOptionsCustomizer,
+            EncodingExecutor encodingExecutor,
+            int streamingChunkSize,
+            RetryPolicy retryPolicy,
+            InFlightLimiter inFlightLimiter,
+            ConnectionRebalancer connectionRebalancer,
+            DiskSpool spool,
+            SenderMetrics metrics,
+            ExportPressure pressure,
             Vertx vertx) {
-        this.basePath = determineBasePath(baseUri);
-        this.signalPath = signalPath;
-        this.compressionEnabled = compressionEnabled;
+        if (streamingChunkSize > 0 && !encodingExecutor.isWorkerMode()) {
+            throw new IllegalArgumentException("The streamed requests are written on the encoding worker pool");
+        }
+        this.endpoints = endpoints;
+        for (Endpoint endpoint : endpoints.getEndpoints()) {
+            requestURIs.put(endpoint, determineBasePath(endpoint.getUri()) + signalPath);
+        }
+        this.compressor = compressor;
         this.headers = headersMap;
         this.contentType = contentType;
         var httpClientOptions = new HttpClientOptions()
                 .setReadIdleTimeout((int) timeout.getSeconds())
-                .setDefaultHost(baseUri.getHost())
-                .setDefaultPort(getPort(baseUri))
                 .setTracingPolicy(TracingPolicy.IGNORE); // needed to avoid tracing the calls from this http client
         clientOptionsCustomizer.accept(httpClientOptions);
         this.client = vertx.createHttpClient(httpClientOptions);
+        this.encodingExecutor = encodingExecutor;
+        this.streamingChunkSize = streamingChunkSize;
+        this.timeout = timeout;
+        this.retryPolicy = retryPolicy;
+        this.inFlightLimiter = inFlightLimiter;
+        this.connectionRebalancer = connectionRebalancer;
+        this.spool = spool;
+        this.metrics = metrics;
+        metrics.observe(encodingExecutor);
+        this.pressure = pressure;
+        this.inFlightFill = inFlightLimiter::getFill;
+        pressure.register(inFlightFill);
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        connectionRebalancer.start(vertx, endpoints);
+        if (spool != null) {
+            spool.start(vertx, new DiskSpool.Transport() {
+                @Override
+                public void send(ExportPayload payload, Consumer<DiskSpool.Delivery> onComplete) {
+                    sendPayload(payload, new Consumer<>() {
+                        @Override
+                        public void accept(Response response) {
+                            onComplete.accept(delivery(response.statusCode()));
+                        }
+                    }, new Consumer<>() {
+                        @Override
+                        public void accept(Throwable t) {
+                            onComplete.accept(DiskSpool.Delivery.RETRY);
+                        }
+                    }, false);
+                }
+            });
+        }
     }
 
     private final AtomicBoolean isShutdown = new AtomicBoolean();
     private final CompletableResultCode shutdownResult = new CompletableResultCode();
 
     private static String determineBasePath(URI baseUri) {
+        if (isUnixDomainSocket(baseUri)) {
+            // the path is the one of the socket
+            return "";
+        }
         String path = baseUri.getPath();
         if (path.isEmpty() || path.equals("/")) {
             return "";
@@ -101,50 +170,310 @@ public final class VertxHttpSender implements HttpSender {
             return;
         }
 
-        String requestURI = basePath + signalPath;
-        var clientRequestSuccessHandler = new ClientRequestSuccessHandler(client, requestURI, headers, compressionEnabled,
-                contentType,
-                contentLength, onHttpResponseRead,
-                onError, marshaler, 1, isShutdown::get);
-        initiateSend(client, requestURI, MAX_ATTEMPTS, clientRequestSuccessHandler, onError, isShutdown::get);
-    }
+        // contentLength is the serialized size of the marshaler
+        InFlightLimiter.Permit permit = inFlightLimiter.tryAcquire(contentLength);
+        if (permit == null) {
+            if (inFlightLimiter.dropsOnLimit()) {
+                logger.log(Level.WARNING, "Dropped an export of " + contentLength + " bytes, too many requests in flight ("
+                        + inFlightLimiter.describeLimits() + ")");
+                pressure.recordExport(false);
+                onHttpResponseRead.accept(DROPPED_RESPONSE);
+            } else {
+                onError.accept(new RejectedExecutionException(
+                        "Too many export requests in flight (" + inFlightLimiter.describeLimits() + ")"));
+            }
+            return;
+        }
+        metrics.requestStarted();
+        Consumer<Response> onResponse = releasingOnCompletion(permit, onHttpResponseRead);
+        Consumer<Throwable> onFailure = releasingOnCompletion(permit, onError);
 
-    private static void initiateSend(HttpClient client, String requestURI,
-            int numberOfAttempts,
-            Handler<HttpClientRequest> clientRequestSuccessHandler,
-            Consumer<Throwable> onError,
-            Supplier<Boolean> isShutdown) {
-        Uni.createFrom().completionStage(new Supplier<CompletionStage<HttpClientRequest>>() {
+        if (streamingChunkSize > 0) {
+            sendStreaming(new ChunkedRequestBody(marshaler, compressor, streamingChunkSize, timeout), contentLength,
+                    onResponse, onFailure);
+            return;
+        }
+
+        encodingExecutor.encode(marshaler, compressor, context, new Consumer<>() {
             @Override
-            public CompletionStage<HttpClientRequest> get() {
-                return client.request(HttpMethod.POST, requestURI).toCompletionStage();
+            public void accept(ExportPayload payload) {
+                metrics.recordPayload(contentLength, payload.size());
+                sendPayload(payload, onResponse, onFailure, spool != null);
             }
-        })
-                .onFailure(new Predicate<Throwable>() {
-                    @Override
-                    public boolean test(Throwable t) {
-                        // Will not retry on shutdown
-                        return t instanceof IllegalStateException ||
-                                t instanceof RejectedExecutionException;
+        }, new Consumer<>() {
+            @Override
+            public void accept(Throwable t) {
+                pressure.recordExport(false);
+                onFailure.accept(t);
+            }
+        });
+    }
+
+    /**
+     * @param spoolOnFailure whether the payload is written to the spool when all the attempts fail, which is not the case
+     *        of the payloads drained from it
+     */
+    private void sendPayload(ExportPayload payload,
+            Consumer<Response> onHttpResponseRead,
+            Consumer<Throwable> onError,
+            boolean spoolOnFailure) {
+        if (isShutdown.get()) {
+            payload.release();
+            return;
+        }
+
+        Consumer<Response> onResponse = releasingOnCompletion(payload, onHttpResponseRead);
+        Consumer<Throwable> onFailure = releasingOnCompletion(payload, onError);
+        if (spoolOnFailure) {
+            // the spool copies the payload, so it must see it before it is released
+            BooleanSupplier offer = new BooleanSupplier() {
+                @Override
+                public boolean getAsBoolean() {
+                    return spool.offer(payload);
+                }
+            };
+            onFailure = spoolingOnError(offer, onResponse, onFailure);
+            onResponse = spoolingOnResponse(offer, onResponse);
+        }
+
+        retryPolicy.onRequest();
+        initiateSend(new ClientRequestSuccessHandler(recordingOnResponse(onResponse), recordingOnError(onFailure),
+                payloadBody(payload), 1));
+    }
+
+    /**
+     * Sends a request whose body is serialized on every attempt, chunk by chunk, so that the whole batch is never held
+     * in memory. It is only encoded at once if it has to be spooled.
+     */
+    private void sendStreaming(ChunkedRequestBody body,
+            int contentLength,
+            Consumer<Response> onHttpResponseRead,
+            Consumer<Throwable> onError) {
+        if (isShutdown.get()) {
+            return;
+        }
+
+        Consumer<Response> onResponse = onHttpResponseRead;
+        Consumer<Throwable> onFailure = onError;
+        if (spool != null) {
+            BooleanSupplier offer = new BooleanSupplier() {
+                @Override
+                public boolean getAsBoolean() {
+                    ExportPayload payload;
+                    try {
+                        payload = body.encode();
+                    } catch (IOException | RuntimeException e) {
+                        logger.log(Level.WARNING, "Unable to encode an export request for the spool", e);
+                        return false;
                     }
-                })
-                .recoverWithUni(new Supplier<Uni<? extends HttpClientRequest>>() {
+                    try {
+                        return spool.offer(payload);
+                    } finally {
+                        payload.release();
+                    }
+                }
+            };
+            onFailure = spoolingOnError(offer, onResponse, onFailure);
+            onResponse = spoolingOnResponse(offer, onResponse);
+        }
+
+        retryPolicy.onRequest();
+        initiateSend(new ClientRequestSuccessHandler(recordingOnResponse(onResponse), recordingOnError(onFailure),
+                streamingBody(body, contentLength), 1));
+    }
+
+    private RequestBody payloadBody(ExportPayload payload) {
+        return new RequestBody() {
+            @Override
+            public Future<Void> writeTo(HttpClientRequest request) {
+                if (payload.isCompressed()) {
+                    request.putHeader("Content-Encoding", payload.encoding());
+                }
+                // the same encoded bytes are sent on every attempt, they are only built once in send()
+                payload.writeWith(new Function<>() {
                     @Override
-                    public Uni<? extends HttpClientRequest> get() {
-                        return Uni.createFrom().nothing();
+                    public Future<Void> apply(Buffer buffer) {
+                        return request.end(buffer);
                     }
-                })
-                .onFailure()
-                .retry()
-                .withBackOff(Duration.ofMillis(100))
-                .atMost(numberOfAttempts)
-                .subscribe().with(
-                        new Consumer<>() {
+                });
+                // the payload is not modified by the writes, the next attempt does not need to wait for them
+                return Future.succeededFuture();
+            }
+        };
+    }
+
+    private RequestBody streamingBody(ChunkedRequestBody body, int contentLength) {
+        return new RequestBody() {
+            private boolean recorded;
+
+            @Override
+            public Future<Void> writeTo(HttpClientRequest request) {
+                if (body.isCompressed()) {
+                    request.putHeader("Content-Encoding", body.encoding());
+                }
+                return body.writeTo(request, contentLength, encodingExecutor, context)
+                        .onSuccess(new Handler<>() {
+                            @Override
+                            public void handle(Long written) {
+                                if (!recorded) {
+                                    recorded = true;
+                                    metrics.recordPayload(contentLength, written);
+                                }
+                            }
+                        })
+                        .mapEmpty();
+            }
+        };
+    }
+
+    private Consumer<Response> spoolingOnResponse(BooleanSupplier offer, Consumer<Response> delegate) {
+        return new Consumer<>() {
+            @Override
+            public void accept(Response response) {
+                int statusCode = response.statusCode();
+                if (isSpoolable(statusCode) && offer.getAsBoolean()) {
+                    delegate.accept(SPOOLED_RESPONSE);
+                    return;
+                }
+                if (statusCode >= 200 && statusCode < 300) {
+                    // the collector is reachable again
+                    spool.drain();
+                }
+                delegate.accept(response);
+            }
+        };
+    }
+
+    private Consumer<Throwable> spoolingOnError(BooleanSupplier offer, Consumer<Response> onResponse,
+            Consumer<Throwable> delegate) {
+        return new Consumer<>() {
+            @Override
+            public void accept(Throwable t) {
+                if (offer.getAsBoolean()) {
+                    onResponse.accept(SPOOLED_RESPONSE);
+                } else {
+                    delegate.accept(t);
+                }
+            }
+        };
+    }
+
+    private static boolean isSpoolable(int statusCode) {
+        return RetryPolicy.isRetryable(statusCode);
+    }
+
+    private static DiskSpool.Delivery delivery(int statusCode) {
+        if (statusCode >= 200 && statusCode < 300) {
+            return DiskSpool.Delivery.DELIVERED;
+        }
+        return isSpoolable(statusCode) ? DiskSpool.Delivery.RETRY : DiskSpool.Delivery.REJECTED;
+    }
+
+    private static <R> Consumer<R> releasingOnCompletion(ExportPayload payload, Consumer<R> delegate) {
+        return new Consumer<>() {
+            @Override
+            public void accept(R result) {
+                payload.release();
+                delegate.accept(result);
+            }
+        };
+    }
+
+    private <R> Consumer<R> releasingOnCompletion(InFlightLimiter.Permit permit, Consumer<R> delegate) {
+        return new Consumer<>() {
+            @Override
+            public void accept(R result) {
+                permit.release();
+                metrics.requestCompleted();
+                delegate.accept(result);
+            }
+        };
+    }
+
+    /**
+     * Records the response of the collector in the pressure, before it is replaced by the spooled response.
+     */
+    private Consumer<Response> recordingOnResponse(Consumer<Response> delegate) {
+        return new Consumer<>() {
+            @Override
+            public void accept(Response response) {
+                pressure.recordExport(response.statusCode() >= 200 && response.statusCode() < 300);
+                delegate.accept(response);
+            }
+        };
+    }
+
+    /**
+     * Records a request that did not reach the collector in the pressure, before it is replaced by the spooled
+     * response.
+     */
+    private Consumer<Throwable> recordingOnError(Consumer<Throwable> delegate) {
+        return new Consumer<>() {
+            @Override
+            public void accept(Throwable t) {
+                pressure.recordExport(false);
+                delegate.accept(t);
+            }
+        };
+    }
+
+    /**
+     * @return a successful response for the requests completed without reaching the collector
+     */
+    private static Response localResponse(String statusMessage) {
+        return new Response() {
+            @Override
+            public int statusCode() {
+                return 202;
+            }
+
+            @Override
+            public String statusMessage() {
+                return statusMessage;
+            }
+
+            @Override
+            public byte[] responseBody() {
+                return new byte[0];
+            }
+        };
+    }
+
+    private void initiateSend(ClientRequestSuccessHandler clientRequestSuccessHandler) {
+        Endpoint endpoint = endpoints.select();
+        if (endpoint == null) {
+            clientRequestSuccessHandler.onError.accept(new CircuitBreakerOpenException(endpoints.describe()));
+            return;
+        }
+        clientRequestSuccessHandler.endpoint = endpoint;
+        clientRequestSuccessHandler.startNanos = endpoint.now();
+        // the server may be a resolved address, the host and port are the ones of the endpoint for TLS and the Host header
+        RequestOptions requestOptions = new RequestOptions()
+                .setMethod(HttpMethod.POST)
+                .setServer(endpoint.getAddress())
+                .setHost(getHost(endpoint.getUri()))
+                .setPort(getPort(endpoint.getUri()))
+                .setURI(requestURIs.get(endpoint));
+        // an instrumentation of the HTTP client must not trace the export traffic, which would be exported again
+        InstrumentationUtil.suppressInstrumentation(new Runnable() {
+            @Override
+            public void run() {
+                client.request(requestOptions)
+                        .onComplete(new Handler<>() {
                             @Override
-                            public void accept(HttpClientRequest request) {
-                                clientRequestSuccessHandler.handle(request);
+                            public void handle(AsyncResult<HttpClientRequest> result) {
+                                if (result.succeeded()) {
+                                    clientRequestSuccessHandler.handle(result.result());
+                                    return;
+                                }
+                                clientRequestSuccessHandler.attemptFailed();
+                                if (!clientRequestSuccessHandler.retry(-1)) {
+                                    clientRequestSuccessHandler.onError.accept(result.cause());
+                                }
                             }
-                        }, onError);
+                        });
+            }
+        });
     }
 
     @Override
@@ -154,7 +483,20 @@ public final class VertxHttpSender implements HttpSender {
             return shutdownResult;
         }
 
+        encodingExecutor.shutdown();
+        connectionRebalancer.close();
+        pressure.unregister(inFlightFill);
+        if (spool != null) {
+            spool.close();
+        }
         client.close()
+                .onComplete(new Handler<>() {
+                    @Override
+                    public void handle(AsyncResult<Void> ignored) {
+                        // the Vert.x instance is closed along with the last sender using it, unless it is provided by CDI
+                        SharedVertx.release(vertx);
+                    }
+                })
                 .onSuccess(
                         new Handler<>() {
                             @Override
@@ -171,66 +513,63 @@ public final class VertxHttpSender implements HttpSender {
         return shutdownResult;
     }
 
-    private static class ClientRequestSuccessHandler implements Handler<HttpClientRequest> {
-        private final HttpClient client;
-        private final String requestURI;
-        private final Map<String, String> headers;
-        private final boolean compressionEnabled;
-        private final String contentType;
-        private final int contentLength;
+    /**
+     * The body of the requests of an export, written on every attempt.
+     */
+    private interface RequestBody {
+
+        /**
+         * Sets the content headers of the request, writes the body and ends the request.
+         *
+         * @return completes once the body is no longer being written, no new attempt starts before
+         */
+        Future<Void> writeTo(HttpClientRequest request);
+    }
+
+    private final class ClientRequestSuccessHandler implements Handler<HttpClientRequest> {
         private final Consumer<Response> onHttpResponseRead;
         private final Consumer<Throwable> onError;
-        private final Marshaler marshaler;
+        private final RequestBody body;
 
         private final int attemptNumber;
-        private final Supplier<Boolean> isShutdown;
-
-        public ClientRequestSuccessHandler(HttpClient client,
-                String requestURI, Map<String, String> headers,
-                boolean compressionEnabled,
-                String contentType,
-                int contentLength,
-                Consumer<Response> onHttpResponseRead,
+        // the endpoint selected for the attempt, and when the attempt started
+        private Endpoint endpoint;
+        private long startNanos;
+        private Future<Void> bodyWritten = Future.succeededFuture();
+
+        public ClientRequestSuccessHandler(Consumer<Response> onHttpResponseRead,
                 Consumer<Throwable> onError,
-                Marshaler marshaler,
-                int attemptNumber,
-                Supplier<Boolean> isShutdown) {
-            this.client = client;
-            this.requestURI = requestURI;
-            this.headers = headers;
-            this.compressionEnabled = compressionEnabled;
-            this.contentType = contentType;
-            this.contentLength = contentLength;
+                RequestBody body,
+                int attemptNumber) {
             this.onHttpResponseRead = onHttpResponseRead;
             this.onError = onError;
-            this.marshaler = marshaler;
+            this.body = body;
             this.attemptNumber = attemptNumber;
-            this.isShutdown = isShutdown;
         }
 
         @Override
         public void handle(HttpClientRequest request) {
+            connectionRebalancer.track(request.connection());
 
             HttpClientRequest clientRequest = request.response(new Handler<>() {
                 @Override
                 public void handle(AsyncResult<HttpClientResponse> callResult) {
                     if (callResult.succeeded()) {
                         HttpClientResponse clientResponse = callResult.result();
-                        Throwable cause = callResult.cause();
                         clientResponse.body(new Handler<>() {
                             @Override
                             public void handle(AsyncResult<Buffer> bodyResult) {
                                 if (bodyResult.succeeded()) {
-                                    if (clientResponse.statusCode() >= 500) {
-                                        if (attemptNumber <= MAX_ATTEMPTS && !isShutdown.get()) {
-                                            // we should retry for 5xx error as they might be recoverable
-                                            initiateSend(client, requestURI,
-                                                    MAX_ATTEMPTS - attemptNumber,
-                                                    newAttempt(),
-                                                    onError,
-                                                    isShutdown);
-                                            return;
-                                        }
+                                    boolean retryable = RetryPolicy.isRetryable(clientResponse.statusCode());
+                                    // an overloaded collector is unhealthy, any other response shows it is reachable
+                                    if (retryable) {
+                                        attemptFailed();
+                                    } else {
+                                        attemptSucceeded();
+                                    }
+                                    if (retryable && retry(RetryHints.fromRetryAfter(
+                                            clientResponse.getHeader(RetryHints.RETRY_AFTER)))) {
+                                        return;
                                     }
                                     onHttpResponseRead.accept(new Response() {
                                         @Override
@@ -249,28 +588,16 @@ public final class VertxHttpSender implements HttpSender {
                                         }
                                     });
                                 } else {
-                                    if (attemptNumber <= MAX_ATTEMPTS && !isShutdown.get()) {
-                                        // retry
-                                        initiateSend(client, requestURI,
-                                                MAX_ATTEMPTS - attemptNumber,
-                                                newAttempt(),
-                                                onError,
-                                                isShutdown);
-                                    } else {
+                                    attemptFailed();
+                                    if (!retry(-1)) {
                                         onError.accept(bodyResult.cause());
                                     }
                                 }
                             }
                         });
                     } else {
-                        if (attemptNumber <= MAX_ATTEMPTS && !isShutdown.get()) {
-                            // retry
-                            initiateSend(client, requestURI,
-                                    MAX_ATTEMPTS - attemptNumber,
-                                    newAttempt(),
-                                    onError,
-                                    isShutdown);
-                        } else {
+                        attemptFailed();
+                        if (!retry(-1)) {
                             onError.accept(callResult.cause());
                         }
                     }
@@ -278,36 +605,55 @@ public final class VertxHttpSender implements HttpSender {
             })
                     .putHeader("Content-Type", contentType);
 
-            Buffer buffer = Buffer.buffer(contentLength);
-            OutputStream os = new BufferOutputStream(buffer);
-            if (compressionEnabled) {
-                clientRequest.putHeader("Content-Encoding", "gzip");
-                try (var gzos = new GZIPOutputStream(os)) {
-                    marshaler.writeBinaryTo(gzos);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            } else {
-                try {
-                    marshaler.writeBinaryTo(os);
-                } catch (IOException e) {
-                    throw new IllegalStateException(e);
-                }
-            }
-
             if (!headers.isEmpty()) {
                 for (var entry : headers.entrySet()) {
                     clientRequest.putHeader(entry.getKey(), entry.getValue());
                 }
             }
 
-            clientRequest.send(buffer);
+            bodyWritten = body.writeTo(clientRequest);
         }
 
-        public ClientRequestSuccessHandler newAttempt() {
-            return new ClientRequestSuccessHandler(client, requestURI, headers, compressionEnabled,
-                    contentType, contentLength, onHttpResponseRead,
-                    onError, marshaler, attemptNumber + 1, isShutdown);
+        void attemptSucceeded() {
+            endpoint.onSuccess(startNanos);
+            metrics.recordAttempt(startNanos, true);
+        }
+
+        void attemptFailed() {
+            endpoint.onFailure(startNanos);
+            metrics.recordAttempt(startNanos, false);
+        }
+
+        /**
+         * Schedules a new attempt, if the retry policy allows it.
+         *
+         * @param serverDelayMillis the delay requested by the server, or -1
+         * @return {@code false} if the request is not retried
+         */
+        boolean retry(long serverDelayMillis) {
+            if (isShutdown.get()) {
+                return false;
+            }
+            long delay = retryPolicy.nextDelayMillis(attemptNumber, serverDelayMillis);
+            if (delay < 0) {
+                return false;
+            }
+            metrics.recordRetry();
+            ClientRequestSuccessHandler newAttempt = new ClientRequestSuccessHandler(onHttpResponseRead, onError, body,
+                    attemptNumber + 1);
+            // a streamed body may still be written when the response fails
+            bodyWritten.onComplete(new Handler<>() {
+                @Override
+                public void handle(AsyncResult<Void> ignored) {
+                    vertx.setTimer(Math.max(1, delay), new Handler<Long>() {
+                        @Override
+                        public void handle(Long id) {
+                            initiateSend(newAttempt);
+                        }
+                    });
+                }
+            });
+            return true;
         }
     }
 }
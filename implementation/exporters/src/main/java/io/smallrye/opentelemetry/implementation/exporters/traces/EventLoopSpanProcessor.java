@@ -0,0 +1,325 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.internal.ThrottlingLogger;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smallrye.opentelemetry.implementation.exporters.AdaptiveBatchSize;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+import io.smallrye.opentelemetry.implementation.exporters.SharedVertx;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+/**
+ * A batch span processor without a thread of its own: the ended spans are offered to a lock-free queue, bounded by a
+ * counter of the queued spans, which is drained and batched on an event loop context of the Vert.x instance of the
+ * exporters. Ending a span costs an offer to the queue, the event loop is only signaled when a full batch is waiting,
+ * partial batches are exported by a periodic timer.
+ * <p>
+ * As the {@code BatchSpanProcessor} of the SDK, a single batch is exported at a time, the spans are dropped when the
+ * queue is full, and an export taking longer than the export timeout is given up, so that the next batch can go. The
+ * exporter is called on a worker thread of the Vert.x instance: it may serialize and compress the batch on the calling
+ * thread, or write it to a file, which must not block an event loop that may also serve the application.
+ * <p>
+ * The fill ratio of the queue counts in the {@link ExportPressure} of the spans.
+ * <p>
+ * With an {@link AdaptiveBatchSize}, the batches hold up to its current limit rather than the maximum export batch
+ * size, within the maximum queue size, so that they grow while the collector keeps up and shrink when it struggles.
+ * The exporter reports the outcome of its requests to the limit.
+ */
+public final class EventLoopSpanProcessor implements SpanProcessor {
+
+    private static final Logger internalLogger = Logger.getLogger(EventLoopSpanProcessor.class.getName());
+
+    private final ThrottlingLogger logger = new ThrottlingLogger(internalLogger);
+
+    private final SpanExporter exporter;
+    private final Vertx vertx;
+    private final io.vertx.core.Context context;
+    private final int maxExportBatchSize;
+    private final AdaptiveBatchSize adaptiveBatchSize;
+    private final long exportTimeoutMillis;
+    private final int maxQueueSize;
+    private final Queue<ReadableSpan> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final DoubleSupplier queueFill;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+    private final LongAdder droppedSpans = new LongAdder();
+    private final long timerId;
+
+    // only accessed on the event loop
+    private final Queue<Flush> flushes = new ArrayDeque<>();
+    private long polledSpans;
+    private boolean exporting;
+
+    /**
+     * @param vertx the Vert.x instance of the exporters, given back to {@link SharedVertx} on shutdown
+     */
+    public EventLoopSpanProcessor(SpanExporter exporter, Vertx vertx, Duration scheduleDelay, int maxQueueSize,
+            int maxExportBatchSize, Duration exportTimeout) {
+        this(exporter, vertx, scheduleDelay, maxQueueSize, maxExportBatchSize, exportTimeout, null);
+    }
+
+    /**
+     * @param vertx the Vert.x instance of the exporters, given back to {@link SharedVertx} on shutdown
+     * @param adaptiveBatchSize sizes the batches instead of the maximum export batch size, or {@code null}
+     */
+    public EventLoopSpanProcessor(SpanExporter exporter, Vertx vertx, Duration scheduleDelay, int maxQueueSize,
+            int maxExportBatchSize, Duration exportTimeout, AdaptiveBatchSize adaptiveBatchSize) {
+        if (maxExportBatchSize <= 0 || maxQueueSize < maxExportBatchSize) {
+            throw new IllegalArgumentException("The maximum export batch size must be positive and not exceed the "
+                    + "maximum queue size: " + maxExportBatchSize + " spans, " + maxQueueSize + " spans");
+        }
+        this.exporter = exporter;
+        this.vertx = vertx;
+        this.context = vertx.getOrCreateContext();
+        this.maxExportBatchSize = maxExportBatchSize;
+        this.adaptiveBatchSize = adaptiveBatchSize;
+        this.exportTimeoutMillis = Math.max(exportTimeout.toMillis(), 1);
+        this.maxQueueSize = maxQueueSize;
+        this.queueFill = new DoubleSupplier() {
+            @Override
+            public double getAsDouble() {
+                return (double) queueSize.get() / maxQueueSize;
+            }
+        };
+        ExportPressure.of("span").register(queueFill);
+        this.timerId = vertx.setPeriodic(Math.max(scheduleDelay.toMillis(), 1), new Handler<Long>() {
+            @Override
+            public void handle(Long id) {
+                context.runOnContext(new Handler<Void>() {
+                    @Override
+                    public void handle(Void event) {
+                        exportNext(true);
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        if (!span.getSpanContext().isSampled() || shutdown.get()) {
+            return;
+        }
+        // the room is taken before the span is queued, so that the queue never holds more than its maximum size
+        if (queueSize.incrementAndGet() > maxQueueSize) {
+            queueSize.decrementAndGet();
+            droppedSpans.increment();
+            logger.log(Level.WARNING, "The span queue is full, spans are dropped. " + droppedSpans.sum()
+                    + " spans were dropped so far");
+            return;
+        }
+        queue.offer(span);
+        // the event loop is only woken up once per full batch
+        if (queueSize.get() >= batchSize() && drainScheduled.compareAndSet(false, true)) {
+            context.runOnContext(new Handler<Void>() {
+                @Override
+                public void handle(Void event) {
+                    drainScheduled.set(false);
+                    exportNext(false);
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    /**
+     * Exports the spans ended before the call.
+     */
+    @Override
+    public CompletableResultCode forceFlush() {
+        final CompletableResultCode result = new CompletableResultCode();
+        context.runOnContext(new Handler<Void>() {
+            @Override
+            public void handle(Void event) {
+                flushes.add(new Flush(polledSpans + queueSize.get(), result));
+                exportNext(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return CompletableResultCode.ofSuccess();
+        }
+        vertx.cancelTimer(timerId);
+        ExportPressure.of("span").unregister(queueFill);
+        final CompletableResultCode result = new CompletableResultCode();
+        final CompletableResultCode flushResult = forceFlush();
+        flushResult.whenComplete(new Runnable() {
+            @Override
+            public void run() {
+                final CompletableResultCode shutdownResult = exporter.shutdown();
+                shutdownResult.whenComplete(new Runnable() {
+                    @Override
+                    public void run() {
+                        SharedVertx.release(vertx);
+                        if (flushResult.isSuccess() && shutdownResult.isSuccess()) {
+                            result.succeed();
+                        } else {
+                            result.fail();
+                        }
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return the number of spans dropped because the queue was full
+     */
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    /**
+     * Exports the next batch unless one is in flight, if it is full, or if {@code force} is set or a flush is pending.
+     * Called on the event loop.
+     */
+    private void exportNext(boolean force) {
+        if (exporting) {
+            return;
+        }
+        completeFlushes();
+        int queued = queueSize.get();
+        int batchSize = batchSize();
+        if (queued == 0 || (queued < batchSize && !force && flushes.isEmpty())) {
+            return;
+        }
+        List<ReadableSpan> spans = new ArrayList<>(Math.min(queued, batchSize));
+        ReadableSpan span;
+        while (spans.size() < batchSize && (span = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            spans.add(span);
+        }
+        if (spans.isEmpty()) {
+            // the spans counted are still being queued
+            return;
+        }
+        polledSpans += spans.size();
+        exporting = true;
+
+        final Export export = new Export();
+        export.timerId = vertx.setTimer(exportTimeoutMillis, new Handler<Long>() {
+            @Override
+            public void handle(Long id) {
+                logger.log(Level.WARNING, "The export of a batch of spans timed out after " + exportTimeoutMillis
+                        + "ms, the next batch is exported");
+                export.complete();
+            }
+        });
+        context.executeBlocking(new Callable<CompletableResultCode>() {
+            @Override
+            public CompletableResultCode call() {
+                List<SpanData> batch = new ArrayList<>(spans.size());
+                for (ReadableSpan span : spans) {
+                    batch.add(span.toSpanData());
+                }
+                return exporter.export(batch);
+            }
+        }, false).onComplete(new Handler<AsyncResult<CompletableResultCode>>() {
+            @Override
+            public void handle(AsyncResult<CompletableResultCode> result) {
+                if (result.failed()) {
+                    logger.log(Level.WARNING, "Unable to export a batch of " + spans.size() + " spans", result.cause());
+                    export.complete();
+                    return;
+                }
+                result.result().whenComplete(new Runnable() {
+                    @Override
+                    public void run() {
+                        context.runOnContext(new Handler<Void>() {
+                            @Override
+                            public void handle(Void event) {
+                                export.complete();
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    private int batchSize() {
+        return adaptiveBatchSize == null ? maxExportBatchSize : Math.min(adaptiveBatchSize.getLimit(), maxQueueSize);
+    }
+
+    private void completeFlushes() {
+        while (!flushes.isEmpty() && flushes.peek().polledSpans <= polledSpans) {
+            flushes.poll().result.succeed();
+        }
+    }
+
+    /**
+     * A batch in flight, completed by the exporter or by the export timeout, whichever comes first.
+     */
+    private final class Export {
+        private long timerId;
+        private boolean completed;
+
+        private void complete() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            vertx.cancelTimer(timerId);
+            exporting = false;
+            exportNext(false);
+        }
+    }
+
+    /**
+     * A flush waiting for the spans queued when it was requested to be exported.
+     */
+    private static final class Flush {
+        private final long polledSpans;
+        private final CompletableResultCode result;
+
+        private Flush(long polledSpans, CompletableResultCode result) {
+            this.polledSpans = polledSpans;
+            this.result = result;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EventLoopSpanProcessor{exporter=" + exporter + ", maxExportBatchSize=" + maxExportBatchSize + "}";
+    }
+}
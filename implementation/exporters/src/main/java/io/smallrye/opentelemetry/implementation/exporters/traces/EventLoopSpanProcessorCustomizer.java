@@ -0,0 +1,123 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_BSP_EXPORT_TIMEOUT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_BSP_MAX_EXPORT_BATCH_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_BSP_MAX_QUEUE_SIZE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_BSP_SCHEDULE_DELAY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_ADAPTIVE_BATCH_ENABLED;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_BSP_EVENT_LOOP;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smallrye.opentelemetry.implementation.exporters.AdaptiveBatchSize;
+import io.smallrye.opentelemetry.implementation.exporters.SharedVertx;
+import io.vertx.core.Vertx;
+
+/**
+ * With {@code otel.bsp.event.loop=true}, replaces the {@link BatchSpanProcessor} created by the SDK autoconfiguration
+ * by an {@link EventLoopSpanProcessor} exporting to the same exporters, sized by the same {@code otel.bsp.*}
+ * properties. With {@code otel.exporter.adaptive.batch.enabled=true}, the batches are sized by the adaptive limit
+ * of the span exporters instead.
+ * <p>
+ * The autoconfiguration always creates the batch span processor, and with it its worker thread. The exporters are
+ * wrapped so that the batch span processor can be shut down, which stops the thread, without shutting them down.
+ */
+public class EventLoopSpanProcessorCustomizer implements AutoConfigurationCustomizerProvider {
+
+    @Override
+    public void customize(AutoConfigurationCustomizer autoConfiguration) {
+        final List<DetachableSpanExporter> exporters = new ArrayList<>();
+        autoConfiguration.addSpanExporterCustomizer(new BiFunction<SpanExporter, ConfigProperties, SpanExporter>() {
+            @Override
+            public SpanExporter apply(SpanExporter exporter, ConfigProperties config) {
+                if (!config.getBoolean(SROTEL_BSP_EVENT_LOOP, false)) {
+                    return exporter;
+                }
+                DetachableSpanExporter detachable = new DetachableSpanExporter(exporter);
+                exporters.add(detachable);
+                return detachable;
+            }
+        });
+        autoConfiguration.addSpanProcessorCustomizer(new BiFunction<SpanProcessor, ConfigProperties, SpanProcessor>() {
+            @Override
+            public SpanProcessor apply(SpanProcessor processor, ConfigProperties config) {
+                if (!config.getBoolean(SROTEL_BSP_EVENT_LOOP, false) || !(processor instanceof BatchSpanProcessor)) {
+                    return processor;
+                }
+                BatchSpanProcessor batchSpanProcessor = (BatchSpanProcessor) processor;
+                for (DetachableSpanExporter exporter : exporters) {
+                    exporter.detached = true;
+                }
+                batchSpanProcessor.shutdown().join(10, TimeUnit.SECONDS);
+                for (DetachableSpanExporter exporter : exporters) {
+                    exporter.detached = false;
+                }
+                return createProcessor(batchSpanProcessor.getSpanExporter(), config);
+            }
+        });
+    }
+
+    private static EventLoopSpanProcessor createProcessor(SpanExporter exporter, ConfigProperties config) {
+        Vertx vertx = SharedVertx.acquire(config);
+        try {
+            return new EventLoopSpanProcessor(exporter, vertx,
+                    config.getDuration(OTEL_BSP_SCHEDULE_DELAY, Duration.ofMillis(5000)),
+                    config.getInt(OTEL_BSP_MAX_QUEUE_SIZE, 2048),
+                    config.getInt(OTEL_BSP_MAX_EXPORT_BATCH_SIZE, 512),
+                    config.getDuration(OTEL_BSP_EXPORT_TIMEOUT, Duration.ofMillis(30000)),
+                    config.getBoolean(SROTEL_ADAPTIVE_BATCH_ENABLED, false) ? AdaptiveBatchSize.of("span") : null);
+        } catch (IllegalArgumentException e) {
+            SharedVertx.release(vertx);
+            throw new ConfigurationException("Invalid event loop span processor options: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ignores the shutdown of the batch span processor being replaced.
+     */
+    private static final class DetachableSpanExporter implements SpanExporter {
+        private final SpanExporter delegate;
+        private volatile boolean detached;
+
+        private DetachableSpanExporter(SpanExporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return delegate.export(spans);
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return delegate.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            if (detached) {
+                return CompletableResultCode.ofSuccess();
+            }
+            return delegate.shutdown();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import java.util.Collection;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
+import io.smallrye.opentelemetry.implementation.exporters.file.RecordWriter;
+
+public final class FileSpanExporter implements SpanExporter {
+
+    private final RecordWriter writer;
+    private final RequestSplitter<SpanData, ? extends Marshaler> splitter;
+
+    public FileSpanExporter(RecordWriter writer, RequestSplitter<SpanData, ? extends Marshaler> splitter) {
+        this.writer = writer;
+        this.splitter = splitter;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        // the records are kept below the maximum request size, for the sidecar to send them as-is
+        return splitter.export(spans, writer::export);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return writer.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return writer.shutdown();
+    }
+}
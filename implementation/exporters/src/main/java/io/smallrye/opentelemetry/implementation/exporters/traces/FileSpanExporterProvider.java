@@ -0,0 +1,47 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.LowAllocationTraceRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.traces.ConfigurableSpanExporterProvider;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smallrye.opentelemetry.implementation.exporters.AbstractVertxExporterProvider;
+import io.smallrye.opentelemetry.implementation.exporters.MarshalerPool;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
+import io.smallrye.opentelemetry.implementation.exporters.file.RecordWriter;
+
+/**
+ * Writes the spans to local segment files, see
+ * {@link io.smallrye.opentelemetry.implementation.exporters.file.SegmentFileWriter}.
+ */
+public class FileSpanExporterProvider extends AbstractVertxExporterProvider<Marshaler>
+        implements ConfigurableSpanExporterProvider {
+
+    public FileSpanExporterProvider() {
+        this("otlp-file");
+    }
+
+    protected FileSpanExporterProvider(String exporterName) {
+        super("span", exporterName);
+    }
+
+    @Override
+    public SpanExporter createExporter(final ConfigProperties config) {
+        return new FileSpanExporter(createRecordWriter(config), requestSplitter(config));
+    }
+
+    protected RecordWriter createRecordWriter(ConfigProperties config) {
+        return createSegmentFileWriter(config);
+    }
+
+    private RequestSplitter<SpanData, ? extends Marshaler> requestSplitter(ConfigProperties config) {
+        if (getMemoryMode(config) == MemoryMode.REUSABLE_DATA) {
+            return createRequestSplitter(config, new MarshalerPool<>(LowAllocationTraceRequestMarshaler::new,
+                    LowAllocationTraceRequestMarshaler::initialize, LowAllocationTraceRequestMarshaler::reset));
+        }
+        return createRequestSplitter(config, TraceRequestMarshaler::create);
+    }
+}
@@ -0,0 +1,169 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.internal.OtelEncodingUtils;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+
+/**
+ * Samples fewer traces as the span exporters saturate, so that the application does not record spans that would be
+ * dropped before reaching the collector.
+ * <p>
+ * The spans sampled by the delegate sampler are kept with a ratio derived from the {@link ExportPressure} of the
+ * spans: 1 up to the pressure threshold, then decreasing linearly to the minimum ratio as the pressure reaches 1. The
+ * ratio drops as soon as the pressure rises, and recovers exponentially when it clears, with the recovery time as time
+ * constant, so that a collector coming back is not flooded right away. The pressure is read at most every
+ * {@value #UPDATE_INTERVAL_MILLIS} milliseconds.
+ * <p>
+ * Only the spans without a local parent are subject to the ratio, the root spans and the ones continuing a remote
+ * trace, and the decision is based on the trace id: the traces are either recorded or dropped as a whole. It is based
+ * on a hash of the whole trace id rather than on the bits read by {@link Sampler#traceIdRatioBased(double)}, so that
+ * the ratio multiplies the one of a trace id ratio based delegate instead of being hidden by it.
+ */
+public final class SaturationAwareSampler implements Sampler {
+
+    static final long UPDATE_INTERVAL_MILLIS = 100;
+
+    private static final long UPDATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(UPDATE_INTERVAL_MILLIS);
+    // the hashes of the trace ids are compared on 53 bits, the precision of the ratio
+    private static final long HASH_RANGE = 1L << 53;
+
+    private final Sampler delegate;
+    private final ExportPressure pressure;
+    private final double threshold;
+    private final double minRatio;
+    private final long recoveryNanos;
+
+    private volatile long nextUpdateNanos;
+    private long lastUpdateNanos;
+    private volatile double ratio = 1;
+    // the traces whose hash is below the bound are kept, HASH_RANGE to keep every trace
+    private volatile long hashBound = HASH_RANGE;
+
+    /**
+     * @param pressure the pressure of the span exporters
+     * @param threshold the pressure up to which every span sampled by the delegate is kept, between 0 and 1
+     * @param minRatio the ratio of the spans kept when the pressure reaches 1, between 0 and 1
+     * @param recovery the time constant of the recovery of the ratio once the pressure decreases
+     */
+    public SaturationAwareSampler(Sampler delegate, ExportPressure pressure, double threshold, double minRatio,
+            Duration recovery) {
+        if (threshold < 0 || threshold >= 1) {
+            throw new IllegalArgumentException("The saturation threshold must be at least 0 and below 1: " + threshold);
+        }
+        if (minRatio < 0 || minRatio > 1) {
+            throw new IllegalArgumentException("The minimum sampling ratio must be between 0 and 1: " + minRatio);
+        }
+        if (recovery.isNegative() || recovery.isZero()) {
+            throw new IllegalArgumentException("The sampling recovery time must be positive: " + recovery);
+        }
+        this.delegate = delegate;
+        this.pressure = pressure;
+        this.threshold = threshold;
+        this.minRatio = minRatio;
+        this.recoveryNanos = recovery.toNanos();
+        this.lastUpdateNanos = System.nanoTime();
+        this.nextUpdateNanos = lastUpdateNanos + UPDATE_INTERVAL_NANOS;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+            Attributes attributes, List<LinkData> parentLinks) {
+        long now = System.nanoTime();
+        if (now - nextUpdateNanos >= 0) {
+            update(now);
+        }
+        SamplingResult result = delegate.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+        long bound = hashBound;
+        if (bound >= HASH_RANGE || result.getDecision() != SamplingDecision.RECORD_AND_SAMPLE) {
+            return result;
+        }
+        SpanContext parent = Span.fromContext(parentContext).getSpanContext();
+        if (parent.isValid() && !parent.isRemote()) {
+            return result;
+        }
+        if (hash(traceId) >= bound) {
+            return SamplingResult.drop();
+        }
+        return result;
+    }
+
+    /**
+     * @return a hash of the trace id on 53 bits, uniform whatever bits of the trace id are random
+     */
+    static long hash(String traceId) {
+        long high = OtelEncodingUtils.longFromBase16String(traceId, 0);
+        long low = OtelEncodingUtils.longFromBase16String(traceId, 16);
+        return mix(high ^ mix(low)) >>> 11;
+    }
+
+    // the finalizer of MurmurHash3, every bit of the input affects every bit of the output
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Adjusts the ratio to the current pressure.
+     *
+     * @param nowNanos the {@link System#nanoTime()} of the update
+     */
+    synchronized void update(long nowNanos) {
+        double target = getTargetRatio(pressure.getPressure());
+        double previous = ratio;
+        double next;
+        if (target <= previous) {
+            next = target;
+        } else {
+            double elapsed = Math.max(0, nowNanos - lastUpdateNanos);
+            next = previous + (target - previous) * (1 - Math.exp(-elapsed / recoveryNanos));
+            // the last thousandth would take several time constants
+            if (target - next < 0.001) {
+                next = target;
+            }
+        }
+        lastUpdateNanos = nowNanos;
+        nextUpdateNanos = nowNanos + UPDATE_INTERVAL_NANOS;
+        if (next != previous) {
+            ratio = next;
+            hashBound = next >= 1 ? HASH_RANGE : (long) (next * HASH_RANGE);
+        }
+    }
+
+    /**
+     * @return the ratio of the spans sampled by the delegate that are kept
+     */
+    public double getRatio() {
+        return ratio;
+    }
+
+    private double getTargetRatio(double pressure) {
+        if (pressure <= threshold) {
+            return 1;
+        }
+        return 1 - (1 - minRatio) * (pressure - threshold) / (1 - threshold);
+    }
+
+    @Override
+    public String getDescription() {
+        return "SaturationAwareSampler{delegate=" + delegate.getDescription() + ", threshold=" + threshold
+                + ", minRatio=" + minRatio + "}";
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
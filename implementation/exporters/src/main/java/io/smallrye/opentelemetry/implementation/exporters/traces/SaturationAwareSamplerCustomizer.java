@@ -0,0 +1,43 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SAMPLER_SATURATION_ENABLED;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SAMPLER_SATURATION_MIN_RATIO;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SAMPLER_SATURATION_RECOVERY;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SAMPLER_SATURATION_THRESHOLD;
+
+import java.time.Duration;
+import java.util.function.BiFunction;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+
+/**
+ * With {@code otel.traces.sampler.saturation.enabled=true}, wraps the sampler configured by {@code otel.traces.sampler}
+ * into a {@link SaturationAwareSampler} reading the pressure of the span exporters.
+ */
+public class SaturationAwareSamplerCustomizer implements AutoConfigurationCustomizerProvider {
+
+    @Override
+    public void customize(AutoConfigurationCustomizer autoConfiguration) {
+        autoConfiguration.addSamplerCustomizer(new BiFunction<Sampler, ConfigProperties, Sampler>() {
+            @Override
+            public Sampler apply(Sampler sampler, ConfigProperties config) {
+                if (!config.getBoolean(SROTEL_SAMPLER_SATURATION_ENABLED, false)) {
+                    return sampler;
+                }
+                try {
+                    return new SaturationAwareSampler(sampler, ExportPressure.of("span"),
+                            config.getDouble(SROTEL_SAMPLER_SATURATION_THRESHOLD, 0.5),
+                            config.getDouble(SROTEL_SAMPLER_SATURATION_MIN_RATIO, 0.1),
+                            config.getDuration(SROTEL_SAMPLER_SATURATION_RECOVERY, Duration.ofSeconds(30)));
+                } catch (IllegalArgumentException e) {
+                    throw new ConfigurationException("Invalid saturation aware sampler options: " + e.getMessage(), e);
+                }
+            }
+        });
+    }
+}
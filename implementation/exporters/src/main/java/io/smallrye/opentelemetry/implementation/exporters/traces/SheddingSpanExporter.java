@@ -0,0 +1,65 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smallrye.opentelemetry.implementation.exporters.LoadShedder;
+
+/**
+ * Sheds the spans beyond the capacity of the exporter, keeping the spans of errors and the slow spans ahead of the
+ * others, see {@link LoadShedder}.
+ */
+public final class SheddingSpanExporter implements SpanExporter {
+
+    static final String REASON_ERROR = "error";
+    static final String REASON_LATENCY = "latency";
+
+    private final SpanExporter delegate;
+    private final LoadShedder<SpanData> shedder;
+
+    public SheddingSpanExporter(SpanExporter delegate, LoadShedder<SpanData> shedder) {
+        this.delegate = delegate;
+        this.shedder = shedder;
+    }
+
+    /**
+     * @param latencyThreshold the duration from which a span is kept ahead of the routine ones
+     * @return the classifier of the spans, {@code error} for a span with an error status, {@code latency} for a span
+     *         lasting at least the threshold
+     */
+    public static Function<SpanData, String> classifier(Duration latencyThreshold) {
+        final long thresholdNanos = latencyThreshold.toNanos();
+        return new Function<SpanData, String>() {
+            @Override
+            public String apply(SpanData span) {
+                if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                    return REASON_ERROR;
+                }
+                if (span.getEndEpochNanos() - span.getStartEpochNanos() >= thresholdNanos) {
+                    return REASON_LATENCY;
+                }
+                return null;
+            }
+        };
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        return shedder.export(spans, delegate::export);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+}
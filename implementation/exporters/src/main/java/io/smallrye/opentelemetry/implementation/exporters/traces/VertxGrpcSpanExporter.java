@@ -3,23 +3,27 @@ package io.smallrye.opentelemetry.implementation.exporters.traces;
 import java.util.Collection;
 
 import io.opentelemetry.exporter.internal.grpc.GrpcExporter;
-import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
 
 public final class VertxGrpcSpanExporter implements SpanExporter {
 
-    private final GrpcExporter<TraceRequestMarshaler> delegate;
+    private final GrpcExporter<Marshaler> delegate;
+    private final RequestSplitter<SpanData, ? extends Marshaler> splitter;
 
-    public VertxGrpcSpanExporter(GrpcExporter<TraceRequestMarshaler> delegate) {
+    public VertxGrpcSpanExporter(GrpcExporter<Marshaler> delegate,
+            RequestSplitter<SpanData, ? extends Marshaler> splitter) {
         this.delegate = delegate;
+        this.splitter = splitter;
     }
 
     @Override
     public CompletableResultCode export(Collection<SpanData> spans) {
-        TraceRequestMarshaler exportRequest = TraceRequestMarshaler.create(spans);
-        return delegate.export(exportRequest, spans.size());
+        // the export is split in several requests when it exceeds the maximum request size
+        return splitter.export(spans, delegate::export);
     }
 
     @Override
@@ -6,15 +6,22 @@ import static io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUti
 
 import java.net.URISyntaxException;
 
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.LowAllocationTraceRequestMarshaler;
 import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import io.opentelemetry.sdk.autoconfigure.spi.traces.ConfigurableSpanExporterProvider;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SpanExporter;
 import io.smallrye.opentelemetry.implementation.exporters.AbstractVertxExporterProvider;
+import io.smallrye.opentelemetry.implementation.exporters.LoadShedder;
+import io.smallrye.opentelemetry.implementation.exporters.MarshalerPool;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxGrpcSender;
 import io.smallrye.opentelemetry.implementation.exporters.sender.VertxHttpSender;
 
-public class VertxSpanExporterProvider extends AbstractVertxExporterProvider<TraceRequestMarshaler>
+public class VertxSpanExporterProvider extends AbstractVertxExporterProvider<Marshaler>
         implements ConfigurableSpanExporterProvider {
 
     public VertxSpanExporterProvider() {
@@ -27,9 +34,12 @@ public class VertxSpanExporterProvider extends AbstractVertxExporterProvider<Tra
             final String protocol = getProtocol(config, getSignalType());
 
             if (PROTOCOL_GRPC.equals(protocol)) {
-                return new VertxGrpcSpanExporter(createGrpcExporter(config, VertxGrpcSender.GRPC_TRACE_SERVICE_NAME));
+                return shed(config, "grpc",
+                        new VertxGrpcSpanExporter(createGrpcExporter(config, VertxGrpcSender.GRPC_TRACE_SERVICE_NAME),
+                                requestSplitter(config)));
             } else if (PROTOCOL_HTTP_PROTOBUF.equals(protocol)) {
-                return new VertxHttpSpanExporter(createHttpExporter(config, VertxHttpSender.TRACES_PATH));
+                return shed(config, "http", new VertxHttpSpanExporter(createHttpExporter(config, VertxHttpSender.TRACES_PATH),
+                        requestSplitter(config)));
             } else {
                 throw buildUnsupportedProtocolException(protocol);
             }
@@ -37,4 +47,25 @@ public class VertxSpanExporterProvider extends AbstractVertxExporterProvider<Tra
             throw new IllegalStateException("Unable to install OTLP Exporter", iae);
         }
     }
+
+    /**
+     * With a load shedding policy, the exports go through a shedder first.
+     */
+    private SpanExporter shed(ConfigProperties config, String transportName, SpanExporter exporter) {
+        LoadShedder<SpanData> shedder = createLoadShedder(config, transportName,
+                SheddingSpanExporter.classifier(getSheddingLatencyThreshold(config)));
+        return shedder == null ? exporter : new SheddingSpanExporter(exporter, shedder);
+    }
+
+    /**
+     * With reusable data, the requests are serialized by pooled low-allocation marshalers, which are reset and reused
+     * once their export completes.
+     */
+    private RequestSplitter<SpanData, ? extends Marshaler> requestSplitter(ConfigProperties config) {
+        if (getMemoryMode(config) == MemoryMode.REUSABLE_DATA) {
+            return createRequestSplitter(config, new MarshalerPool<>(LowAllocationTraceRequestMarshaler::new,
+                    LowAllocationTraceRequestMarshaler::initialize, LowAllocationTraceRequestMarshaler::reset));
+        }
+        return createRequestSplitter(config, TraceRequestMarshaler::create);
+    }
 }
@@ -0,0 +1,58 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveBatchSizeTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private final AdaptiveBatchSize adaptiveBatchSize = new AdaptiveBatchSize(100, 1000, Duration.ofSeconds(1));
+
+    @Test
+    public void halvedWhenSlowOrFailed() {
+        Assertions.assertEquals(1000, adaptiveBatchSize.getLimit());
+        adaptiveBatchSize.onCompleted(adaptiveBatchSize.getGeneration(), SLOW, true);
+        Assertions.assertEquals(500, adaptiveBatchSize.getLimit());
+        adaptiveBatchSize.onCompleted(adaptiveBatchSize.getGeneration(), FAST, false);
+        Assertions.assertEquals(250, adaptiveBatchSize.getLimit());
+        adaptiveBatchSize.onCompleted(adaptiveBatchSize.getGeneration(), FAST, false);
+        adaptiveBatchSize.onCompleted(adaptiveBatchSize.getGeneration(), FAST, false);
+        Assertions.assertEquals(100, adaptiveBatchSize.getLimit());
+    }
+
+    @Test
+    public void increasedWhenFast() {
+        adaptiveBatchSize.onCompleted(adaptiveBatchSize.getGeneration(), SLOW, true);
+        adaptiveBatchSize.onCompleted(adaptiveBatchSize.getGeneration(), FAST, true);
+        Assertions.assertEquals(600, adaptiveBatchSize.getLimit());
+        for (int i = 0; i < 10; i++) {
+            adaptiveBatchSize.onCompleted(adaptiveBatchSize.getGeneration(), FAST, true);
+        }
+        Assertions.assertEquals(1000, adaptiveBatchSize.getLimit());
+    }
+
+    @Test
+    public void decreasedOncePerGeneration() {
+        // concurrent requests sent before the decrease
+        long generation = adaptiveBatchSize.getGeneration();
+        adaptiveBatchSize.onCompleted(generation, SLOW, true);
+        adaptiveBatchSize.onCompleted(generation, SLOW, true);
+        adaptiveBatchSize.onCompleted(generation, FAST, false);
+        Assertions.assertEquals(500, adaptiveBatchSize.getLimit());
+    }
+
+    @Test
+    public void invalidBounds() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBatchSize(0, 10, Duration.ofSeconds(1)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBatchSize(100, 10, Duration.ofSeconds(1)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBatchSize(10, 100, Duration.ZERO));
+    }
+}
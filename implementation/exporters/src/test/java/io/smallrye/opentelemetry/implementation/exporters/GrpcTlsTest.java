@@ -0,0 +1,94 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_CERTIFICATE;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_ENDPOINT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_TRACES_PROTOCOL;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_DNS_REFRESH_INTERVAL;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.smallrye.opentelemetry.api.OpenTelemetryBuilderGetter;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.PemKeyCertOptions;
+
+/**
+ * Exports over TLS with the DNS refresh on, so that the requests are sent to the resolved addresses of the endpoint
+ * while the certificate is verified against its host name.
+ */
+public class GrpcTlsTest {
+
+    private final AtomicReference<HttpServerRequest> received = new AtomicReference<>();
+    private Vertx vertx;
+    private String certificate;
+    private int port;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        // a certificate for localhost, valid for a hundred years
+        certificate = resource("tls/localhost.crt");
+        HttpServer server = vertx.createHttpServer(new HttpServerOptions()
+                .setSsl(true)
+                .setUseAlpn(true)
+                .setKeyCertOptions(new PemKeyCertOptions()
+                        .setCertPath(certificate)
+                        .setKeyPath(resource("tls/localhost.key"))))
+                .requestHandler(request -> request.body().onSuccess(body -> {
+                    received.set(request);
+                    // an empty ExportTraceServiceResponse
+                    request.response().putHeader("content-type", "application/grpc").putTrailer("grpc-status", "0")
+                            .end(Buffer.buffer(new byte[5]));
+                }));
+        port = server.listen(0, "localhost").toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS)
+                .actualPort();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (vertx != null) {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void grpcExporterWithDnsRefresh() {
+        Map<String, String> config = Map.of(
+                "otel.traces.exporter", "otlp",
+                "otel.metrics.exporter", "none",
+                "otel.logs.exporter", "none",
+                OTEL_EXPORTER_OTLP_TRACES_PROTOCOL, "grpc",
+                OTEL_EXPORTER_OTLP_ENDPOINT, "https://localhost:" + port,
+                OTEL_EXPORTER_OTLP_CERTIFICATE, certificate,
+                SROTEL_DNS_REFRESH_INTERVAL, "100");
+        OpenTelemetrySdk sdk = new OpenTelemetryBuilderGetter().apply(() -> config).build().getOpenTelemetrySdk();
+        try {
+            sdk.getTracer("test").spanBuilder("tls span").startSpan().end();
+            sdk.getSdkTracerProvider().forceFlush().join(10, TimeUnit.SECONDS);
+            Awaitility.await().until(() -> received.get() != null);
+            Assertions.assertEquals("localhost", received.get().authority().host());
+            Assertions.assertEquals(port, received.get().authority().port());
+            Assertions.assertEquals("/opentelemetry.proto.collector.trace.v1.TraceService/Export",
+                    received.get().path());
+        } finally {
+            sdk.close();
+        }
+    }
+
+    private static String resource(String name) throws Exception {
+        return Path.of(GrpcTlsTest.class.getClassLoader().getResource(name).toURI()).toString();
+    }
+}
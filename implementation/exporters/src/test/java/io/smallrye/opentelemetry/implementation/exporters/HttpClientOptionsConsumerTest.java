@@ -0,0 +1,75 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+
+public class HttpClientOptionsConsumerTest {
+
+    @Test
+    public void defaults() {
+        HttpClientOptions defaults = new HttpClientOptions();
+        HttpClientOptions options = configure(Map.of());
+        Assertions.assertEquals(HttpVersion.HTTP_1_1, options.getProtocolVersion());
+        Assertions.assertEquals(defaults.getMaxPoolSize(), options.getMaxPoolSize());
+        Assertions.assertEquals(defaults.isKeepAlive(), options.isKeepAlive());
+        Assertions.assertEquals(defaults.getIdleTimeout(), options.getIdleTimeout());
+        Assertions.assertEquals(defaults.getHttp2MultiplexingLimit(), options.getHttp2MultiplexingLimit());
+    }
+
+    @Test
+    public void connections() {
+        HttpClientOptions options = configure(Map.of(
+                "otel.exporter.http.version", "2",
+                "otel.exporter.pool.max.size", "8",
+                "otel.exporter.keep.alive", "false",
+                "otel.exporter.keep.alive.timeout", "30",
+                "otel.exporter.idle.timeout", "45",
+                "otel.exporter.http2.multiplexing.limit", "100",
+                "otel.exporter.http2.connection.window.size", "1048576",
+                "otel.exporter.http2.stream.window.size", "262144"));
+        Assertions.assertEquals(HttpVersion.HTTP_2, options.getProtocolVersion());
+        Assertions.assertFalse(options.isHttp2ClearTextUpgrade());
+        Assertions.assertEquals(8, options.getMaxPoolSize());
+        Assertions.assertEquals(8, options.getHttp2MaxPoolSize());
+        Assertions.assertFalse(options.isKeepAlive());
+        Assertions.assertEquals(30, options.getKeepAliveTimeout());
+        Assertions.assertEquals(30, options.getHttp2KeepAliveTimeout());
+        Assertions.assertEquals(45, options.getIdleTimeout());
+        Assertions.assertEquals(100, options.getHttp2MultiplexingLimit());
+        Assertions.assertEquals(1048576, options.getHttp2ConnectionWindowSize());
+        Assertions.assertEquals(262144, options.getInitialSettings().getInitialWindowSize());
+    }
+
+    @Test
+    public void unknownHttpVersion() {
+        Assertions.assertThrows(ConfigurationException.class,
+                () -> configure(Map.of("otel.exporter.http.version", "3")));
+    }
+
+    @Test
+    public void invalidNumbers() {
+        ConfigurationException e = Assertions.assertThrows(ConfigurationException.class,
+                () -> configure(Map.of("otel.exporter.pool.max.size", "many")));
+        Assertions.assertTrue(e.getMessage().contains("otel.exporter.pool.max.size"), e.getMessage());
+
+        // out of the range accepted by Vert.x
+        e = Assertions.assertThrows(ConfigurationException.class,
+                () -> configure(Map.of("otel.exporter.idle.timeout", "-1")));
+        Assertions.assertTrue(e.getMessage().contains("otel.exporter.idle.timeout"), e.getMessage());
+    }
+
+    private static HttpClientOptions configure(Map<String, String> properties) {
+        HttpClientOptions options = new HttpClientOptions();
+        new HttpClientOptionsConsumer(DefaultConfigProperties.createFromMap(properties),
+                URI.create("http://localhost:4317"), "span").accept(options);
+        return options;
+    }
+}
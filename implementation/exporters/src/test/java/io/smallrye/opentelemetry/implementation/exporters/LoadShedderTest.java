@@ -0,0 +1,150 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.logs.Severity;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import io.opentelemetry.sdk.testing.logs.TestLogRecordData;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import io.smallrye.opentelemetry.implementation.exporters.logs.SheddingLogRecordExporter;
+import io.smallrye.opentelemetry.implementation.exporters.traces.SheddingSpanExporter;
+
+public class LoadShedderTest {
+
+    // the important items are negative, with their reason
+    private static final Function<Integer, String> CLASSIFIER = new Function<Integer, String>() {
+        @Override
+        public String apply(Integer item) {
+            return item < 0 ? "error" : null;
+        }
+    };
+
+    private final List<Collection<Integer>> exported = new ArrayList<>();
+    private final List<CompletableResultCode> results = new ArrayList<>();
+
+    @Test
+    public void notShedBelowTheCapacity() {
+        LoadShedder<Integer> shedder = new LoadShedder<>(10, LoadShedder.POLICY_DROP_NEWEST, CLASSIFIER);
+        shedder.export(List.of(1, 2, 3), this::export);
+        shedder.export(List.of(4, 5, 6), this::export);
+        Assertions.assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5, 6)), exported);
+        Assertions.assertEquals(6, shedder.getPendingItems());
+
+        results.forEach(CompletableResultCode::succeed);
+        Assertions.assertEquals(0, shedder.getPendingItems());
+    }
+
+    @Test
+    public void dropNewestRoutineFirst() {
+        LoadShedder<Integer> shedder = new LoadShedder<>(10, LoadShedder.POLICY_DROP_NEWEST, CLASSIFIER);
+        shedder.export(List.of(1, 2, 3, 4, 5, 6), this::export);
+        shedder.export(List.of(7, -8, 9, 10, -11, 12), this::export);
+        Assertions.assertEquals(List.of(7, -8, 9, -11), exported.get(1));
+        Assertions.assertEquals(10, shedder.getPendingItems());
+    }
+
+    @Test
+    public void dropOldestRoutineFirst() {
+        LoadShedder<Integer> shedder = new LoadShedder<>(10, LoadShedder.POLICY_DROP_OLDEST, CLASSIFIER);
+        shedder.export(List.of(1, 2, 3, 4, 5, 6), this::export);
+        shedder.export(List.of(7, -8, 9, 10, -11, 12), this::export);
+        Assertions.assertEquals(List.of(-8, 10, -11, 12), exported.get(1));
+    }
+
+    @Test
+    public void importantItemsShedLast() {
+        LoadShedder<Integer> shedder = new LoadShedder<>(10, LoadShedder.POLICY_DROP_NEWEST, CLASSIFIER);
+        shedder.export(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), this::export);
+        shedder.export(List.of(-1, 2, -3, -4), this::export);
+        Assertions.assertEquals(List.of(-1), exported.get(1));
+
+        // nothing is left to export once the capacity is used up
+        CompletableResultCode result = shedder.export(List.of(-5, -6), this::export);
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertEquals(2, exported.size());
+    }
+
+    @Test
+    public void probabilistic() {
+        LoadShedder<Integer> shedder = new LoadShedder<>(1000, LoadShedder.POLICY_PROBABILISTIC, CLASSIFIER);
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            items.add(i % 10 == 0 ? -i - 1 : i);
+        }
+        shedder.export(items, this::export);
+        // about a third of the routine items are dropped, all the important ones are kept
+        Assertions.assertEquals(150, exported.get(0).stream().filter(item -> item < 0).count());
+        Assertions.assertTrue(exported.get(0).size() > 850 && exported.get(0).size() < 1150,
+                exported.get(0).size() + " items kept");
+    }
+
+    @Test
+    public void countedByReason() {
+        InMemoryMetricReader reader = InMemoryMetricReader.create();
+        SdkMeterProvider meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build();
+        LoadShedder<Integer> shedder = new LoadShedder<>(2, LoadShedder.POLICY_DROP_NEWEST, CLASSIFIER);
+        shedder.registerMetrics(() -> meterProvider, "otlp", "grpc", "span");
+
+        shedder.export(List.of(1, 2), this::export);
+        shedder.export(List.of(3, -4, 5), this::export);
+
+        Map<String, Long> counts = new HashMap<>();
+        for (MetricData metric : reader.collectAllMetrics()) {
+            Assertions.assertEquals("otlp.exporter.shed", metric.getName());
+            for (LongPointData point : metric.getLongSumData().getPoints()) {
+                Assertions.assertEquals("span", point.getAttributes().get(AttributeKey.stringKey("type")));
+                counts.put(point.getAttributes().get(AttributeKey.stringKey("reason")), point.getValue());
+            }
+        }
+        Assertions.assertEquals(Map.of("routine", 2L, "error", 1L), counts);
+        meterProvider.close();
+    }
+
+    @Test
+    public void spanAndLogClassifiers() {
+        Function<SpanData, String> spans = SheddingSpanExporter.classifier(Duration.ofSeconds(1));
+        Assertions.assertEquals("error", spans.apply(span(StatusData.error(), 1)));
+        Assertions.assertEquals("latency", spans.apply(span(StatusData.ok(), 2_000_000_000L)));
+        Assertions.assertNull(spans.apply(span(StatusData.ok(), 1_000_000L)));
+
+        Function<LogRecordData, String> logs = SheddingLogRecordExporter.classifier(Severity.WARN);
+        Assertions.assertEquals("severity",
+                logs.apply(TestLogRecordData.builder().setSeverity(Severity.ERROR).build()));
+        Assertions.assertNull(logs.apply(TestLogRecordData.builder().setSeverity(Severity.INFO).build()));
+    }
+
+    @Test
+    public void invalidPolicy() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new LoadShedder<>(10, "random", CLASSIFIER));
+    }
+
+    private static SpanData span(StatusData status, long durationNanos) {
+        return TestSpanData.builder().setName("span").setKind(SpanKind.SERVER).setStartEpochNanos(0)
+                .setEndEpochNanos(durationNanos).setHasEnded(true).setStatus(status).build();
+    }
+
+    private CompletableResultCode export(Collection<Integer> items) {
+        exported.add(items);
+        CompletableResultCode result = new CompletableResultCode();
+        results.add(result);
+        return result;
+    }
+}
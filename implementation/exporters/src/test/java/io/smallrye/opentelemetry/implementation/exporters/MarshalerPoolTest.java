@@ -0,0 +1,155 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.logs.Logger;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.otlp.logs.LogsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.logs.LowAllocationLogsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.metrics.LowAllocationMetricsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.metrics.MetricsRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.LowAllocationTraceRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.SimpleLogRecordProcessor;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryLogRecordExporter;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+public class MarshalerPoolTest {
+
+    @Test
+    public void metricsSerializeLikeTheImmutableMarshaler() throws IOException {
+        Collection<MetricData> metrics = collect(50);
+        MarshalerPool<MetricData, LowAllocationMetricsRequestMarshaler> pool = metricsPool();
+
+        LowAllocationMetricsRequestMarshaler marshaler = pool.acquire(metrics);
+        Assertions.assertArrayEquals(serialize(MetricsRequestMarshaler.create(metrics)), serialize(marshaler));
+        // a streamed request may be serialized on every attempt
+        Assertions.assertArrayEquals(serialize(MetricsRequestMarshaler.create(metrics)), serialize(marshaler));
+        pool.release(marshaler);
+
+        Assertions.assertSame(marshaler, pool.acquire(metrics));
+    }
+
+    @Test
+    public void spansSerializeLikeTheImmutableMarshaler() throws IOException {
+        Collection<SpanData> spans = spans(50);
+        MarshalerPool<SpanData, LowAllocationTraceRequestMarshaler> pool = new MarshalerPool<>(
+                LowAllocationTraceRequestMarshaler::new, LowAllocationTraceRequestMarshaler::initialize,
+                LowAllocationTraceRequestMarshaler::reset);
+
+        LowAllocationTraceRequestMarshaler marshaler = pool.acquire(spans);
+        Assertions.assertArrayEquals(serialize(TraceRequestMarshaler.create(spans)), serialize(marshaler));
+        pool.release(marshaler);
+
+        // a reset marshaler serializes the next export alone
+        Collection<SpanData> next = spans(10);
+        Assertions.assertSame(marshaler, pool.acquire(next));
+        Assertions.assertArrayEquals(serialize(TraceRequestMarshaler.create(next)), serialize(marshaler));
+    }
+
+    @Test
+    public void logsSerializeLikeTheImmutableMarshaler() throws IOException {
+        Collection<LogRecordData> logs = logs(50);
+        MarshalerPool<LogRecordData, LowAllocationLogsRequestMarshaler> pool = new MarshalerPool<>(
+                LowAllocationLogsRequestMarshaler::new, LowAllocationLogsRequestMarshaler::initialize,
+                LowAllocationLogsRequestMarshaler::reset);
+
+        LowAllocationLogsRequestMarshaler marshaler = pool.acquire(logs);
+        Assertions.assertArrayEquals(serialize(LogsRequestMarshaler.create(logs)), serialize(marshaler));
+        pool.release(marshaler);
+        Assertions.assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void reusedOnceTheExportsComplete() {
+        Collection<MetricData> metrics = collect(50);
+        MarshalerPool<MetricData, LowAllocationMetricsRequestMarshaler> pool = metricsPool();
+        int size = MetricsRequestMarshaler.create(metrics).getBinarySerializedSize();
+        RequestSplitter<MetricData, LowAllocationMetricsRequestMarshaler> splitter = new RequestSplitter<>(size / 2,
+                pool::acquire, pool::release);
+        List<CompletableResultCode> results = new ArrayList<>();
+
+        splitter.export(metrics, (marshaler, itemCount) -> {
+            CompletableResultCode result = new CompletableResultCode();
+            results.add(result);
+            return result;
+        });
+        Assertions.assertTrue(results.size() >= 2);
+        // the request measured before splitting is reused by the first part
+        Assertions.assertEquals(0, pool.size());
+
+        results.forEach(CompletableResultCode::succeed);
+        int pooled = pool.size();
+        Assertions.assertEquals(results.size(), pooled);
+
+        // the next collection reuses the pooled marshalers
+        splitter.export(metrics, (marshaler, itemCount) -> CompletableResultCode.ofSuccess());
+        Assertions.assertEquals(pooled, pool.size());
+    }
+
+    private static MarshalerPool<MetricData, LowAllocationMetricsRequestMarshaler> metricsPool() {
+        return new MarshalerPool<>(LowAllocationMetricsRequestMarshaler::new,
+                LowAllocationMetricsRequestMarshaler::initialize, LowAllocationMetricsRequestMarshaler::reset);
+    }
+
+    private static Collection<MetricData> collect(int series) {
+        InMemoryMetricReader reader = InMemoryMetricReader.create();
+        SdkMeterProvider meterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build();
+        for (String name : List.of("first", "second", "third", "fourth")) {
+            LongCounter counter = meterProvider.get("test").counterBuilder(name).build();
+            for (int i = 0; i < series; i++) {
+                counter.add(i, Attributes.of(AttributeKey.longKey("series"), (long) i));
+            }
+        }
+        return reader.collectAllMetrics();
+    }
+
+    private static Collection<SpanData> spans(int count) {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        Tracer tracer = SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(exporter)).build()
+                .get("test");
+        for (int i = 0; i < count; i++) {
+            Span span = tracer.spanBuilder("span-" + i).setAttribute("index", i).startSpan();
+            span.addEvent("event");
+            span.end();
+        }
+        return exporter.getFinishedSpanItems();
+    }
+
+    private static Collection<LogRecordData> logs(int count) {
+        InMemoryLogRecordExporter exporter = InMemoryLogRecordExporter.create();
+        Logger logger = SdkLoggerProvider.builder().addLogRecordProcessor(SimpleLogRecordProcessor.create(exporter))
+                .build().get("test");
+        for (int i = 0; i < count; i++) {
+            logger.logRecordBuilder().setBody("log-" + i).setAttribute(AttributeKey.longKey("index"), (long) i).emit();
+        }
+        return exporter.getFinishedLogRecordItems();
+    }
+
+    private static byte[] serialize(Marshaler marshaler) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaler.writeBinaryTo(out);
+        return out.toByteArray();
+    }
+}
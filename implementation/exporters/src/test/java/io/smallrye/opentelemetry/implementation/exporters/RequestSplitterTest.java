@@ -0,0 +1,165 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+import io.opentelemetry.exporter.internal.otlp.InstrumentationScopeMarshaler;
+import io.opentelemetry.exporter.internal.otlp.ResourceMarshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+
+public class RequestSplitterTest {
+
+    // the resource and scope of every request
+    private static final int OVERHEAD = 10;
+
+    private final List<SizedMarshaler> sent = new ArrayList<>();
+    private final List<CompletableResultCode> results = new ArrayList<>();
+
+    @Test
+    public void notSplitBelowTheLimit() {
+        RequestSplitter<Integer, SizedMarshaler> splitter = new RequestSplitter<>(100, SizedMarshaler::new);
+        CompletableResultCode result = splitter.export(Collections.nCopies(9, 10), this::export);
+
+        Assertions.assertEquals(1, sent.size());
+        Assertions.assertEquals(9, sent.get(0).items.size());
+        results.get(0).succeed();
+        Assertions.assertTrue(result.isSuccess());
+    }
+
+    @Test
+    public void splitAboveTheLimit() {
+        RequestSplitter<Integer, SizedMarshaler> splitter = new RequestSplitter<>(100, SizedMarshaler::new);
+        List<Integer> items = new ArrayList<>(Collections.nCopies(30, 10));
+        // a large item makes its part too large, which is split again
+        items.set(3, 80);
+        CompletableResultCode result = splitter.export(items, this::export);
+
+        int count = 0;
+        for (SizedMarshaler marshaler : sent) {
+            Assertions.assertTrue(marshaler.getBinarySerializedSize() <= 100, marshaler.items.toString());
+            count += marshaler.items.size();
+        }
+        Assertions.assertEquals(items.size(), count);
+        Assertions.assertTrue(sent.size() >= 4);
+
+        // the export only succeeds if all the requests do
+        for (CompletableResultCode part : results) {
+            Assertions.assertFalse(result.isDone());
+            part.succeed();
+        }
+        Assertions.assertTrue(result.isSuccess());
+    }
+
+    @Test
+    public void failsIfAnyRequestFails() {
+        RequestSplitter<Integer, SizedMarshaler> splitter = new RequestSplitter<>(100, SizedMarshaler::new);
+        CompletableResultCode result = splitter.export(Collections.nCopies(50, 10), this::export);
+
+        results.get(0).fail();
+        results.subList(1, results.size()).forEach(CompletableResultCode::succeed);
+        Assertions.assertTrue(result.isDone());
+        Assertions.assertFalse(result.isSuccess());
+    }
+
+    @Test
+    public void oversizedItemSentAlone() {
+        RequestSplitter<Integer, SizedMarshaler> splitter = new RequestSplitter<>(100, SizedMarshaler::new);
+        splitter.export(List.of(10, 200, 10), this::export);
+
+        Assertions.assertTrue(sent.stream().anyMatch(marshaler -> marshaler.items.equals(List.of(200))));
+        Assertions.assertEquals(3, sent.stream().mapToInt(marshaler -> marshaler.items.size()).sum());
+    }
+
+    @Test
+    public void splitByAdaptiveBatchSize() {
+        AdaptiveBatchSize adaptiveBatchSize = new AdaptiveBatchSize(10, 40, Duration.ofMinutes(1));
+        RequestSplitter<Integer, SizedMarshaler> splitter = new RequestSplitter<>(0, SizedMarshaler::new, null,
+                adaptiveBatchSize);
+        splitter.export(Collections.nCopies(100, 1), this::export);
+        Assertions.assertEquals(List.of(33, 33, 34), sentSizes());
+
+        // a failed request halves the limit
+        results.subList(1, results.size()).forEach(CompletableResultCode::succeed);
+        results.get(0).fail();
+        Assertions.assertEquals(20, adaptiveBatchSize.getLimit());
+        sent.clear();
+        splitter.export(Collections.nCopies(40, 1), this::export);
+        Assertions.assertEquals(List.of(20, 20), sentSizes());
+    }
+
+    @Test
+    public void resourceEncodedOnce() {
+        AttributesBuilder attributes = Attributes.builder();
+        for (int i = 0; i < 30; i++) {
+            attributes.put("k8s.attribute." + i, "value-" + i);
+        }
+        Resource resource = Resource.create(attributes.build());
+        InstrumentationScopeInfo scope = InstrumentationScopeInfo.create("scope");
+        List<SpanData> spans = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            spans.add(TestSpanData.builder().setName("span-" + i).setKind(SpanKind.INTERNAL).setStartEpochNanos(0)
+                    .setEndEpochNanos(1).setHasEnded(true).setStatus(StatusData.unset()).setResource(resource)
+                    .setInstrumentationScopeInfo(scope).build());
+        }
+        List<TraceRequestMarshaler> requests = new ArrayList<>();
+        RequestSplitter<SpanData, TraceRequestMarshaler> splitter = new RequestSplitter<>(
+                TraceRequestMarshaler.create(spans.subList(0, 5)).getBinarySerializedSize(), TraceRequestMarshaler::create);
+        splitter.export(spans, (request, itemCount) -> {
+            requests.add(request);
+            return CompletableResultCode.ofSuccess();
+        }).join(1, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(requests.size() >= 4);
+        // the parts reuse the bytes of the resource and scope serialized for the first request
+        Assertions.assertSame(ResourceMarshaler.create(resource), ResourceMarshaler.create(resource));
+        Assertions.assertSame(InstrumentationScopeMarshaler.create(scope), InstrumentationScopeMarshaler.create(scope));
+    }
+
+    private List<Integer> sentSizes() {
+        List<Integer> sizes = new ArrayList<>();
+        for (SizedMarshaler marshaler : sent) {
+            sizes.add(marshaler.items.size());
+        }
+        return sizes;
+    }
+
+    private CompletableResultCode export(SizedMarshaler marshaler, int itemCount) {
+        Assertions.assertEquals(marshaler.items.size(), itemCount);
+        sent.add(marshaler);
+        CompletableResultCode result = new CompletableResultCode();
+        results.add(result);
+        return result;
+    }
+
+    private static final class SizedMarshaler extends MarshalerWithSize {
+        private final List<Integer> items;
+
+        SizedMarshaler(Collection<Integer> items) {
+            super(OVERHEAD + items.stream().mapToInt(Integer::intValue).sum());
+            this.items = List.copyOf(items);
+        }
+
+        @Override
+        protected void writeTo(Serializer output) throws IOException {
+        }
+    }
+}
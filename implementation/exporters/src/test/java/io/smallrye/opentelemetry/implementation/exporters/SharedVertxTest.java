@@ -0,0 +1,71 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_TRACES_PROTOCOL;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_RETRY_MAX_ATTEMPTS;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.SROTEL_SPOOL_DIRECTORY;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
+import io.smallrye.opentelemetry.implementation.exporters.traces.VertxSpanExporterProvider;
+import io.vertx.core.Vertx;
+
+public class SharedVertxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void closedWithTheLastReference() {
+        Vertx first = SharedVertx.acquire();
+        Vertx second = SharedVertx.acquire();
+        Assertions.assertSame(first, second);
+
+        SharedVertx.release(first);
+        Assertions.assertSame(first, SharedVertx.acquire());
+        SharedVertx.release(first);
+        SharedVertx.release(second);
+
+        Vertx third = SharedVertx.acquire();
+        Assertions.assertNotSame(first, third);
+        SharedVertx.release(third);
+    }
+
+    @Test
+    public void foreignInstancesAreNotClosed() {
+        Vertx shared = SharedVertx.acquire();
+        Vertx foreign = Vertx.vertx();
+        try {
+            SharedVertx.release(foreign);
+            Assertions.assertSame(shared, SharedVertx.acquire());
+            SharedVertx.release(shared);
+        } finally {
+            SharedVertx.release(shared);
+            foreign.close();
+        }
+    }
+
+    @Test
+    public void releasedWhenTheConfigurationIsRejected() {
+        Vertx shared = SharedVertx.acquire();
+        for (String protocol : new String[] { "grpc", "http/protobuf" }) {
+            Map<String, String> config = Map.of(
+                    OTEL_EXPORTER_OTLP_TRACES_PROTOCOL, protocol,
+                    SROTEL_SPOOL_DIRECTORY, directory.toString(),
+                    SROTEL_RETRY_MAX_ATTEMPTS, "many");
+            Assertions.assertThrows(ConfigurationException.class,
+                    () -> new VertxSpanExporterProvider().createExporter(DefaultConfigProperties.createFromMap(config)));
+        }
+        SharedVertx.release(shared);
+
+        Vertx next = SharedVertx.acquire();
+        Assertions.assertNotSame(shared, next);
+        SharedVertx.release(next);
+    }
+}
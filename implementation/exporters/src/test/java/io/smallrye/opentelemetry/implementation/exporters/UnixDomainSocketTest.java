@@ -0,0 +1,94 @@
+package io.smallrye.opentelemetry.implementation.exporters;
+
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_ENDPOINT;
+import static io.smallrye.opentelemetry.implementation.exporters.Constants.OTEL_EXPORTER_OTLP_TRACES_PROTOCOL;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.smallrye.opentelemetry.api.OpenTelemetryBuilderGetter;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.SocketAddress;
+
+/**
+ * Exports to a collector listening on a Unix domain socket, which requires the native transport of Netty.
+ */
+public class UnixDomainSocketTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicReference<HttpServerRequest> received = new AtomicReference<>();
+    private Vertx vertx;
+    private Path socket;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        vertx = Vertx.vertx(new VertxOptions().setPreferNativeTransport(true));
+        Assumptions.assumeTrue(vertx.isNativeTransportEnabled(), "The native transport is not available.");
+        socket = directory.resolve("otlp.sock");
+        HttpServer server = vertx.createHttpServer().requestHandler(request -> request.body().onSuccess(body -> {
+            received.set(request);
+            if ("application/grpc".equals(request.getHeader("content-type"))) {
+                // an empty ExportTraceServiceResponse
+                request.response().putHeader("content-type", "application/grpc").putTrailer("grpc-status", "0")
+                        .end(Buffer.buffer(new byte[5]));
+            } else {
+                request.response().putHeader("content-type", "application/x-protobuf").end();
+            }
+        }));
+        server.listen(SocketAddress.domainSocketAddress(socket.toString())).toCompletionStage().toCompletableFuture()
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (vertx != null) {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void grpcExporter() {
+        Assertions.assertEquals("/opentelemetry.proto.collector.trace.v1.TraceService/Export", export("grpc"));
+    }
+
+    @Test
+    public void httpExporter() {
+        Assertions.assertEquals("/v1/traces", export("http/protobuf"));
+    }
+
+    private String export(String protocol) {
+        Map<String, String> config = Map.of(
+                "otel.traces.exporter", "otlp",
+                "otel.metrics.exporter", "none",
+                "otel.logs.exporter", "none",
+                OTEL_EXPORTER_OTLP_TRACES_PROTOCOL, protocol,
+                OTEL_EXPORTER_OTLP_ENDPOINT, "unix://" + socket);
+        OpenTelemetrySdk sdk = new OpenTelemetryBuilderGetter().apply(() -> config).build().getOpenTelemetrySdk();
+        try {
+            sdk.getTracer("test").spanBuilder(protocol + " span").startSpan().end();
+            sdk.getSdkTracerProvider().forceFlush().join(10, TimeUnit.SECONDS);
+            Awaitility.await().until(() -> received.get() != null);
+            Assertions.assertEquals("localhost", received.get().authority().host());
+            return received.get().path();
+        } finally {
+            sdk.close();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.smallrye.opentelemetry.implementation.exporters.compression;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import io.opentelemetry.exporter.internal.compression.Compressor;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigurationException;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
+import io.smallrye.opentelemetry.implementation.exporters.OtlpExporterUtil;
+
+public class CompressorsTest {
+
+    private static final byte[] CONTENT = "smallrye-opentelemetry smallrye-opentelemetry smallrye-opentelemetry"
+            .getBytes(UTF_8);
+
+    @Test
+    public void none() {
+        Assertions.assertNull(Compressors.resolve("none", Compressors.DEFAULT_LEVEL));
+        Assertions.assertNull(Compressors.resolve("false", Compressors.DEFAULT_LEVEL));
+    }
+
+    @Test
+    public void gzip() throws IOException {
+        Compressor compressor = Compressors.resolve("GZIP", 1);
+        Assertions.assertEquals("gzip", compressor.getEncoding());
+        Assertions.assertArrayEquals(CONTENT, new GZIPInputStream(compress(compressor)).readAllBytes());
+
+        Assertions.assertEquals("gzip", Compressors.resolve("true", Compressors.DEFAULT_LEVEL).getEncoding());
+    }
+
+    @Test
+    public void deflate() throws IOException {
+        Compressor compressor = Compressors.resolve("deflate", 9);
+        Assertions.assertEquals("deflate", compressor.getEncoding());
+        Assertions.assertArrayEquals(CONTENT, new InflaterInputStream(compress(compressor)).readAllBytes());
+    }
+
+    @Test
+    public void zstd() throws IOException {
+        Compressor compressor = Compressors.resolve("zstd", Compressors.DEFAULT_LEVEL);
+        Assertions.assertEquals("zstd", compressor.getEncoding());
+        Assertions.assertArrayEquals(CONTENT, new ZstdInputStream(compress(compressor)).readAllBytes());
+    }
+
+    @Test
+    public void unsupported() {
+        Assertions.assertThrows(ConfigurationException.class,
+                () -> Compressors.resolve("brotli", Compressors.DEFAULT_LEVEL));
+    }
+
+    @Test
+    public void levelOutOfRange() {
+        Assertions.assertThrows(ConfigurationException.class, () -> Compressors.resolve("gzip", 10));
+        Assertions.assertThrows(ConfigurationException.class, () -> Compressors.resolve("deflate", -2));
+        ConfigurationException e = Assertions.assertThrows(ConfigurationException.class,
+                () -> Compressors.resolve("zstd", 23, "otel.exporter.otlp.traces.compression.level"));
+        Assertions.assertTrue(e.getMessage().contains("otel.exporter.otlp.traces.compression.level"), e.getMessage());
+        // the level is not used without compression
+        Assertions.assertNull(Compressors.resolve("none", 42));
+    }
+
+    @Test
+    public void levelFromConfig() {
+        ConfigurationException e = Assertions.assertThrows(ConfigurationException.class,
+                () -> OtlpExporterUtil.getCompressor(DefaultConfigProperties.createFromMap(Map.of(
+                        "otel.exporter.otlp.compression", "gzip",
+                        "otel.exporter.otlp.traces.compression.level", "fast")), "span"));
+        Assertions.assertTrue(e.getMessage().contains("otel.exporter.otlp.traces.compression.level"), e.getMessage());
+        e = Assertions.assertThrows(ConfigurationException.class,
+                () -> OtlpExporterUtil.getCompressor(DefaultConfigProperties.createFromMap(Map.of(
+                        "otel.exporter.otlp.compression", "deflate",
+                        "otel.exporter.otlp.compression.level", "12")), "log"));
+        Assertions.assertTrue(e.getMessage().contains("otel.exporter.otlp.compression.level"), e.getMessage());
+    }
+
+    private static InputStream compress(Compressor compressor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream os = compressor.compress(bytes)) {
+            os.write(CONTENT);
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+}
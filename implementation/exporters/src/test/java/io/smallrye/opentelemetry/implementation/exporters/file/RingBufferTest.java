@@ -0,0 +1,185 @@
+package io.smallrye.opentelemetry.implementation.exporters.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.marshal.MarshalerUtil;
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.ProtoFieldInfo;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+
+public class RingBufferTest {
+
+    private static final ProtoFieldInfo DATA = ProtoFieldInfo.create(1, 10, "data");
+    private static final int CAPACITY = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void readInOrder() throws IOException {
+        RingBufferWriter writer = RingBufferWriter.open(directory.resolve("span.ring"), CAPACITY);
+        try (RingBufferReader reader = RingBufferReader.open(directory.resolve("span.ring"))) {
+            Assertions.assertEquals(List.of(), poll(reader));
+            writer.export(marshaler("request-0"), 1);
+            writer.export(marshaler("request-1"), 1);
+            Assertions.assertEquals(List.of("request-0", "request-1"), poll(reader));
+            Assertions.assertEquals(List.of(), poll(reader));
+        }
+        writer.shutdown();
+    }
+
+    @Test
+    public void wrappedAround() throws IOException {
+        RingBufferWriter writer = RingBufferWriter.open(directory.resolve("span.ring"), CAPACITY);
+        try (RingBufferReader reader = RingBufferReader.open(directory.resolve("span.ring"))) {
+            // frames of 104 bytes, the 10th one does not fit before the end of the ring
+            String value = "x".repeat(96);
+            for (int i = 0; i < 30; i++) {
+                Assertions.assertTrue(writer.export(marshaler(value + i % 10), 1).isSuccess());
+                Assertions.assertEquals(List.of(value + i % 10), poll(reader));
+            }
+        }
+        writer.shutdown();
+    }
+
+    @Test
+    public void droppedWhenFull() throws IOException {
+        RingBufferWriter writer = RingBufferWriter.open(directory.resolve("span.ring"), CAPACITY);
+        try (RingBufferReader reader = RingBufferReader.open(directory.resolve("span.ring"))) {
+            String value = "x".repeat(249);
+            // frames of 256 bytes
+            for (int i = 0; i < 4; i++) {
+                Assertions.assertTrue(writer.export(marshaler(value), 1).isSuccess());
+            }
+            Assertions.assertFalse(writer.export(marshaler(value), 1).isSuccess());
+            Assertions.assertEquals(1, writer.getDroppedCount());
+            Assertions.assertEquals(1, reader.getDroppedCount());
+
+            Assertions.assertEquals(4, poll(reader).size());
+            Assertions.assertTrue(writer.export(marshaler(value), 1).isSuccess());
+            Assertions.assertEquals(1, poll(reader).size());
+        }
+        writer.shutdown();
+    }
+
+    @Test
+    public void resumedAfterRestart() throws IOException {
+        RingBufferWriter writer = RingBufferWriter.open(directory.resolve("span.ring"), CAPACITY);
+        writer.export(marshaler("request-0"), 1);
+        writer.shutdown();
+        Assertions.assertFalse(writer.export(marshaler("request-1"), 1).isSuccess());
+
+        writer = RingBufferWriter.open(directory.resolve("span.ring"), CAPACITY);
+        writer.export(marshaler("request-2"), 1);
+        try (RingBufferReader reader = RingBufferReader.open(directory.resolve("span.ring"))) {
+            Assertions.assertEquals(List.of("request-0", "request-2"), poll(reader));
+        }
+        writer.shutdown();
+
+        // another capacity starts over
+        writer = RingBufferWriter.open(directory.resolve("span.ring"), 2 * CAPACITY);
+        try (RingBufferReader reader = RingBufferReader.open(directory.resolve("span.ring"))) {
+            Assertions.assertEquals(List.of(), poll(reader));
+        }
+        writer.shutdown();
+    }
+
+    @Test
+    public void concurrentReader() throws Exception {
+        RingBufferWriter writer = RingBufferWriter.open(directory.resolve("span.ring"), CAPACITY);
+        int count = 100_000;
+        List<String> received = new ArrayList<>();
+        Thread consumer = new Thread(() -> {
+            try (RingBufferReader reader = RingBufferReader.open(directory.resolve("span.ring"))) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                while (received.size() + reader.getDroppedCount() < count && System.nanoTime() < deadline) {
+                    reader.poll(frame -> received.add(value(frame)));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        consumer.start();
+
+        int exported = 0;
+        for (int i = 0; i < count; i++) {
+            if (writer.export(marshaler("request-" + i), 1).isSuccess()) {
+                exported++;
+            }
+        }
+        consumer.join();
+        writer.shutdown();
+
+        // the frames dropped while the ring was full are missing, the others are in order
+        Assertions.assertEquals(exported, received.size());
+        Assertions.assertEquals(count - exported, writer.getDroppedCount());
+        int previous = -1;
+        for (String value : received) {
+            int index = Integer.parseInt(value.substring("request-".length()));
+            Assertions.assertTrue(index > previous);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void missizedRequestDropped() throws IOException {
+        RingBufferWriter writer = RingBufferWriter.open(directory.resolve("span.ring"), CAPACITY);
+        try (RingBufferReader reader = RingBufferReader.open(directory.resolve("span.ring"))) {
+            writer.export(marshaler("request-0"), 1);
+            byte[] data = "request-1".getBytes(UTF_8);
+            for (int size : new int[] { 4, MarshalerUtil.sizeBytes(DATA, data) + 4 }) {
+                Assertions.assertFalse(writer.export(new MarshalerWithSize(size) {
+                    @Override
+                    protected void writeTo(Serializer output) throws IOException {
+                        output.serializeBytes(DATA, data);
+                    }
+                }, 1).isSuccess());
+            }
+            writer.export(marshaler("request-2"), 1);
+            Assertions.assertEquals(List.of("request-0", "request-2"), poll(reader));
+        }
+        writer.shutdown();
+    }
+
+    @Test
+    public void invalidCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> RingBufferWriter.open(directory.resolve("span.ring"), 3000));
+    }
+
+    private static List<String> poll(RingBufferReader reader) {
+        List<String> values = new ArrayList<>();
+        reader.poll(frame -> values.add(value(frame)));
+        return values;
+    }
+
+    private static String value(ByteBuffer frame) {
+        byte[] bytes = new byte[frame.remaining()];
+        frame.get(bytes);
+        // field tag and length, then the value
+        int offset = bytes[1] < 0 ? 3 : 2;
+        return new String(bytes, offset, bytes.length - offset, UTF_8);
+    }
+
+    private static Marshaler marshaler(String value) {
+        byte[] data = value.getBytes(UTF_8);
+        return new MarshalerWithSize(MarshalerUtil.sizeBytes(DATA, data)) {
+            @Override
+            protected void writeTo(Serializer output) throws IOException {
+                output.serializeBytes(DATA, data);
+            }
+        };
+    }
+}
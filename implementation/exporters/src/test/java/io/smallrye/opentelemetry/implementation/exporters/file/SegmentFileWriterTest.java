@@ -0,0 +1,171 @@
+package io.smallrye.opentelemetry.implementation.exporters.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.marshal.MarshalerUtil;
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.ProtoFieldInfo;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+import io.smallrye.opentelemetry.implementation.exporters.compression.Compressors;
+
+public class SegmentFileWriterTest {
+
+    private static final ProtoFieldInfo DATA = ProtoFieldInfo.create(1, 10, "data");
+    private static final int SEGMENT_SIZE = 32;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void rotatedWhenFull() throws IOException {
+        SegmentFileWriter writer = SegmentFileWriter.open(directory, SEGMENT_SIZE, Duration.ofMinutes(1), 1024, null);
+        // records of 12 bytes, 2 per segment
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(writer.export(marshaler("request-" + i), 1).isSuccess());
+        }
+        Assertions.assertEquals(List.of("00000000000000000000.otlp", "00000000000000000001.otlp",
+                "00000000000000000002.active"), files());
+
+        Assertions.assertTrue(writer.shutdown().isSuccess());
+        Assertions.assertEquals(List.of("request-0", "request-1"), read(directory.resolve("00000000000000000000.otlp")));
+        Assertions.assertEquals(List.of("request-2", "request-3"), read(directory.resolve("00000000000000000001.otlp")));
+        Assertions.assertEquals(List.of("request-4"), read(directory.resolve("00000000000000000002.otlp")));
+        Assertions.assertFalse(writer.export(marshaler("request-5"), 1).isSuccess());
+    }
+
+    @Test
+    public void rotatedWhenExpired() throws Exception {
+        SegmentFileWriter writer = SegmentFileWriter.open(directory, SEGMENT_SIZE, Duration.ofMillis(50), 1024, null);
+        writer.export(marshaler("request-0"), 1);
+        writer.flush();
+        Assertions.assertEquals(List.of("00000000000000000000.active"), files());
+
+        Thread.sleep(100);
+        writer.flush();
+        Assertions.assertEquals(List.of("00000000000000000000.otlp"), files());
+        writer.shutdown();
+    }
+
+    @Test
+    public void compressedSegments() throws IOException {
+        SegmentFileWriter writer = SegmentFileWriter.open(directory, SEGMENT_SIZE, Duration.ofMinutes(1), 1024,
+                Compressors.resolve("gzip", Compressors.DEFAULT_LEVEL));
+        writer.export(marshaler("request-0"), 1);
+        writer.export(marshaler("request-1"), 1);
+        writer.shutdown();
+
+        Assertions.assertEquals(List.of("00000000000000000000.otlp.gzip"), files());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve(files().get(0))))) {
+            Assertions.assertEquals(List.of("request-0", "request-1"), read(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    public void droppedWhenFull() throws IOException {
+        SegmentFileWriter writer = SegmentFileWriter.open(directory, SEGMENT_SIZE, Duration.ofMinutes(1),
+                2 * SEGMENT_SIZE, null);
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertTrue(writer.export(marshaler("request-" + i), 1).isSuccess());
+        }
+        // until the sidecar ships the completed segments
+        Assertions.assertFalse(writer.export(marshaler("request-6"), 1).isSuccess());
+        Files.delete(directory.resolve("00000000000000000000.otlp"));
+        Assertions.assertTrue(writer.export(marshaler("request-7"), 1).isSuccess());
+        writer.shutdown();
+    }
+
+    @Test
+    public void activeSegmentCompletedAfterRestart() throws IOException {
+        // a segment left active by a crash, with a torn record after the first one
+        Path active = directory.resolve("00000000000000000003.active");
+        try (FileChannel channel = FileChannel.open(active, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.allocate(SEGMENT_SIZE);
+            content.put((byte) 11).put(serialize(marshaler("request-0")));
+            content.put((byte) 0).put("torn".getBytes(UTF_8));
+            content.flip();
+            channel.write(content);
+        }
+
+        SegmentFileWriter writer = SegmentFileWriter.open(directory, SEGMENT_SIZE, Duration.ofMinutes(1), 1024, null);
+        Assertions.assertEquals(List.of("00000000000000000003.otlp"), files());
+        Assertions.assertEquals(List.of("request-0"), read(directory.resolve("00000000000000000003.otlp")));
+
+        // the sequence goes on after the recovered segment
+        writer.export(marshaler("request-1"), 1);
+        writer.shutdown();
+        Assertions.assertEquals(List.of("00000000000000000003.otlp", "00000000000000000004.otlp"), files());
+    }
+
+    @Test
+    public void directoryLocked() throws IOException {
+        SegmentFileWriter writer = SegmentFileWriter.open(directory, SEGMENT_SIZE, Duration.ofMinutes(1), 1024, null);
+        Assertions.assertThrows(Exception.class,
+                () -> SegmentFileWriter.open(directory, SEGMENT_SIZE, Duration.ofMinutes(1), 1024, null));
+        writer.shutdown();
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> !name.endsWith(".lock")).sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> read(Path file) throws IOException {
+        return read(Files.readAllBytes(file));
+    }
+
+    /**
+     * Reads the records as {@code parseDelimitedFrom} would.
+     */
+    private static List<String> read(byte[] records) throws IOException {
+        List<String> values = new ArrayList<>();
+        InputStream in = new ByteArrayInputStream(records);
+        int length;
+        while ((length = in.read()) >= 0) {
+            Assertions.assertTrue(length < 128);
+            byte[] record = in.readNBytes(length);
+            Assertions.assertEquals(length, record.length);
+            // field tag and length, then the value
+            values.add(new String(record, 2, record.length - 2, UTF_8));
+        }
+        return values;
+    }
+
+    private static byte[] serialize(Marshaler marshaler) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaler.writeBinaryTo(out);
+        return out.toByteArray();
+    }
+
+    private static Marshaler marshaler(String value) {
+        byte[] data = value.getBytes(UTF_8);
+        return new MarshalerWithSize(MarshalerUtil.sizeBytes(DATA, data)) {
+            @Override
+            protected void writeTo(Serializer output) throws IOException {
+                output.serializeBytes(DATA, data);
+            }
+        };
+    }
+}
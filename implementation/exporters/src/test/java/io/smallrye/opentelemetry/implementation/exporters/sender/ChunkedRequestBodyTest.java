@@ -0,0 +1,168 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.marshal.MarshalerUtil;
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.ProtoFieldInfo;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+import io.smallrye.opentelemetry.implementation.exporters.compression.Compressors;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+
+public class ChunkedRequestBodyTest {
+
+    private static final ProtoFieldInfo DATA = ProtoFieldInfo.create(1, 10, "data");
+    private static final int CHUNK_SIZE = 4096;
+
+    private final AtomicReference<HttpServerRequest> received = new AtomicReference<>();
+    private final AtomicReference<Buffer> receivedBody = new AtomicReference<>();
+    private final AtomicReference<Throwable> receivedFailure = new AtomicReference<>();
+    private Vertx vertx;
+    private HttpServer server;
+    private HttpClient client;
+    private EncodingExecutor executor;
+    private byte[] data;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        data = new byte[1024 * 1024];
+        new Random(42).nextBytes(data);
+        vertx = Vertx.vertx();
+        server = vertx.createHttpServer().requestHandler(request -> {
+            received.set(request);
+            if (request.path().equals("/reject")) {
+                request.response().setStatusCode(413).end();
+                return;
+            }
+            request.body().onSuccess(body -> {
+                receivedBody.set(body);
+                request.response().end();
+            }).onFailure(receivedFailure::set);
+        }).listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        client = vertx.createHttpClient();
+        executor = EncodingExecutor.workerPool("test-writer", 1, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+        vertx.close();
+    }
+
+    @Test
+    public void streamsUncompressed() throws Exception {
+        Marshaler marshaler = marshaler(data);
+        Future<Long> written = send("/", new ChunkedRequestBody(marshaler, null, CHUNK_SIZE, Duration.ofSeconds(5)),
+                marshaler.getBinarySerializedSize());
+
+        Assertions.assertEquals(marshaler.getBinarySerializedSize(), await(written));
+        Assertions.assertEquals(Integer.toString(marshaler.getBinarySerializedSize()),
+                received.get().getHeader("Content-Length"));
+        Assertions.assertArrayEquals(serialize(marshaler), receivedBody.get().getBytes());
+    }
+
+    @Test
+    public void streamsCompressed() throws Exception {
+        Marshaler marshaler = marshaler(data);
+        ChunkedRequestBody body = new ChunkedRequestBody(marshaler, Compressors.resolve("gzip", 1), CHUNK_SIZE,
+                Duration.ofSeconds(5));
+        Assertions.assertEquals("gzip", body.encoding());
+        Future<Long> written = send("/", body, marshaler.getBinarySerializedSize());
+
+        long count = await(written);
+        Assertions.assertEquals(receivedBody.get().length(), count);
+        Assertions.assertEquals("chunked", received.get().getHeader("Transfer-Encoding"));
+        Assertions.assertArrayEquals(serialize(marshaler),
+                new GZIPInputStream(new ByteArrayInputStream(receivedBody.get().getBytes())).readAllBytes());
+
+        // the spool gets the same bytes at once
+        ExportPayload payload = body.encode();
+        try {
+            Assertions.assertEquals(receivedBody.get().length(), payload.size());
+        } finally {
+            payload.release();
+        }
+    }
+
+    @Test
+    public void stopsOnEarlyResponse() throws Exception {
+        byte[] large = new byte[32 * 1024 * 1024];
+        Marshaler marshaler = marshaler(large);
+        Future<Long> written = send("/reject", new ChunkedRequestBody(marshaler, null, CHUNK_SIZE, Duration.ofSeconds(5)),
+                marshaler.getBinarySerializedSize());
+
+        Assertions.assertThrows(Exception.class, () -> await(written));
+    }
+
+    @Test
+    public void resetOnFailure() throws Exception {
+        AtomicReference<String> writer = new AtomicReference<>();
+        Marshaler marshaler = new MarshalerWithSize(MarshalerUtil.sizeBytes(DATA, data)) {
+            @Override
+            protected void writeTo(Serializer output) throws IOException {
+                writer.set(Thread.currentThread().getName());
+                output.serializeBytes(DATA, data);
+                throw new IOException("Serialization failure");
+            }
+        };
+        Future<Long> written = send("/", new ChunkedRequestBody(marshaler, Compressors.resolve("gzip", 1), CHUNK_SIZE,
+                Duration.ofSeconds(5)), marshaler.getBinarySerializedSize());
+
+        Assertions.assertThrows(Exception.class, () -> written.toCompletionStage().toCompletableFuture()
+                .get(10, TimeUnit.SECONDS));
+        Assertions.assertTrue(writer.get().startsWith("test-writer"), writer.get());
+        // the compressed body is not ended, the collector never sees a truncated request
+        Awaitility.await().until(() -> receivedFailure.get() != null);
+        Assertions.assertNull(receivedBody.get());
+    }
+
+    private Future<Long> send(String uri, ChunkedRequestBody body, int contentLength) throws Exception {
+        HttpClientRequest request = client.request(HttpMethod.POST, server.actualPort(), "localhost", uri)
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        request.response(ignored -> {
+        });
+        return body.writeTo(request, contentLength, executor, vertx.getOrCreateContext());
+    }
+
+    private long await(Future<Long> written) throws Exception {
+        long count = written.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        Awaitility.await().until(() -> receivedBody.get() != null);
+        return count;
+    }
+
+    private static byte[] serialize(Marshaler marshaler) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaler.writeBinaryTo(out);
+        return out.toByteArray();
+    }
+
+    private static Marshaler marshaler(byte[] data) {
+        return new MarshalerWithSize(MarshalerUtil.sizeBytes(DATA, data)) {
+            @Override
+            protected void writeTo(Serializer output) throws IOException {
+                output.serializeBytes(DATA, data);
+            }
+        };
+    }
+}
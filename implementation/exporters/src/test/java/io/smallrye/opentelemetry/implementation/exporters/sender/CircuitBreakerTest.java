@@ -0,0 +1,113 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.opentelemetry.implementation.exporters.sender.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("localhost:4317", true, 10, 4, 50,
+            Duration.ofSeconds(1), 100, Duration.ofSeconds(10), 2, clock::get);
+
+    @Test
+    public void opensOnFailureRate() {
+        call(true);
+        call(false);
+        call(true);
+        Assertions.assertEquals(State.CLOSED, circuitBreaker.getState());
+        // 2 failures out of 4 calls
+        call(false);
+        Assertions.assertEquals(State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+
+        advance(10);
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        Assertions.assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        // both probes are in flight
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onSuccess(clock.get());
+        Assertions.assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess(clock.get());
+        Assertions.assertEquals(State.CLOSED, circuitBreaker.getState());
+
+        // the window starts over
+        call(false);
+        call(false);
+        call(false);
+        Assertions.assertEquals(State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void reopensOnFailedProbe() {
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        Assertions.assertEquals(State.OPEN, circuitBreaker.getState());
+
+        advance(10);
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure(clock.get());
+        Assertions.assertEquals(State.OPEN, circuitBreaker.getState());
+        Assertions.assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void opensOnSlowCalls() {
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(circuitBreaker.tryAcquire());
+            long start = clock.get();
+            advance(2);
+            circuitBreaker.onSuccess(start);
+        }
+        Assertions.assertEquals(State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void rollingWindow() {
+        for (int i = 0; i < 20; i++) {
+            call(true);
+        }
+        // only the last 10 calls count
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        Assertions.assertEquals(State.CLOSED, circuitBreaker.getState());
+        call(false);
+        Assertions.assertEquals(State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void disabled() {
+        CircuitBreaker disabled = CircuitBreaker.disabled("localhost:4317");
+        for (int i = 0; i < 100; i++) {
+            Assertions.assertTrue(disabled.tryAcquire());
+            disabled.onFailure(disabled.now());
+        }
+        Assertions.assertEquals(State.CLOSED, disabled.getState());
+    }
+
+    /**
+     * @param succeeded whether the call succeeds
+     */
+    private void call(boolean succeeded) {
+        Assertions.assertTrue(circuitBreaker.tryAcquire());
+        if (succeeded) {
+            circuitBreaker.onSuccess(clock.get());
+        } else {
+            circuitBreaker.onFailure(clock.get());
+        }
+    }
+
+    private void advance(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,57 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Vertx;
+
+public class ConnectionRebalancerTest {
+
+    @Test
+    public void resolvesHostNames() throws Exception {
+        Endpoint named = endpoint("http://localhost:4317");
+        Endpoint literal = endpoint("http://127.0.0.1:4318");
+        Assertions.assertTrue(named.isResolvable());
+        Assertions.assertFalse(literal.isResolvable());
+
+        Vertx vertx = Vertx.vertx();
+        ConnectionRebalancer rebalancer = new ConnectionRebalancer(Duration.ofMillis(100), Duration.ZERO,
+                Duration.ZERO);
+        try {
+            rebalancer.start(vertx, new EndpointSelector(List.of(named, literal), EndpointSelector.POLICY_ROUND_ROBIN));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (named.getAddress().host().equals("localhost") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertTrue(InetAddress.getByName(named.getAddress().host()).isLoopbackAddress());
+            Assertions.assertEquals(4317, named.getAddress().port());
+            Assertions.assertEquals("127.0.0.1", literal.getAddress().host());
+        } finally {
+            rebalancer.close();
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void rotatesOverAddresses() throws Exception {
+        Endpoint endpoint = endpoint("http://collector:4317");
+        endpoint.updateAddresses(new InetAddress[] {
+                InetAddress.getByName("10.0.0.2"), InetAddress.getByName("10.0.0.1") });
+        Assertions.assertEquals(Set.of("10.0.0.1", "10.0.0.2"),
+                Set.of(endpoint.getAddress().host(), endpoint.getAddress().host()));
+
+        // an empty resolution keeps the previous addresses
+        endpoint.updateAddresses(new InetAddress[0]);
+        Assertions.assertTrue(endpoint.getAddress().host().startsWith("10.0.0."));
+    }
+
+    private static Endpoint endpoint(String uri) {
+        return new Endpoint(URI.create(uri), CircuitBreaker.disabled(uri));
+    }
+}
@@ -0,0 +1,220 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.netty.buffer.Unpooled;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.marshal.MarshalerUtil;
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.ProtoFieldInfo;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+
+public class DiskSpoolTest {
+
+    private static final int SEGMENT_SIZE = 64;
+    private static final ProtoFieldInfo DATA = ProtoFieldInfo.create(1, 10, "data");
+
+    @TempDir
+    Path directory;
+
+    private Vertx vertx;
+
+    @BeforeEach
+    public void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    public void drainedInOrderAfterRestart() throws IOException {
+        DiskSpool spool = DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+        // records of 22 bytes, 2 per segment
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertTrue(spool.offer(payload("payload-" + i)));
+        }
+        Assertions.assertFalse(spool.offer(payload("payload-8")));
+        spool.close();
+
+        List<String> delivered = drain(DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000), 8);
+        Assertions.assertEquals(List.of("payload-0", "payload-1", "payload-2", "payload-3", "payload-4", "payload-5",
+                "payload-6", "payload-7"), delivered);
+
+        // delivered records are not sent again
+        Assertions.assertEquals(List.of(), drain(DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000), 0));
+    }
+
+    @Test
+    public void singleSegmentReclaimedAcrossRestarts() throws IOException {
+        DiskSpool spool = DiskSpool.open(directory, SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+        Assertions.assertTrue(spool.offer(payload("payload-0")));
+        Assertions.assertTrue(spool.offer(payload("payload-1")));
+        Assertions.assertFalse(spool.offer(payload("payload-2")));
+        Assertions.assertEquals(List.of("payload-0", "payload-1"), drain(spool, 2));
+
+        // the only segment is fully delivered, it is reclaimed for the next records
+        for (int i = 3; i < 7; i++) {
+            spool = DiskSpool.open(directory, SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+            Assertions.assertTrue(spool.offer(payload("payload-" + i)));
+            spool.close();
+            Assertions.assertEquals(List.of("payload-" + i),
+                    drain(DiskSpool.open(directory, SEGMENT_SIZE, SEGMENT_SIZE, 1000), 1));
+        }
+
+        // reopened with another segment size, the checkpoint outlives the deleted segments
+        spool = DiskSpool.open(directory, 2 * SEGMENT_SIZE, 2 * SEGMENT_SIZE, 1000);
+        Assertions.assertTrue(spool.offer(payload("payload-7")));
+        spool.close();
+        Assertions.assertEquals(List.of("payload-7"),
+                drain(DiskSpool.open(directory, 2 * SEGMENT_SIZE, 2 * SEGMENT_SIZE, 1000), 1));
+        Assertions.assertEquals(List.of(),
+                drain(DiskSpool.open(directory, 2 * SEGMENT_SIZE, 2 * SEGMENT_SIZE, 1000), 0));
+    }
+
+    @Test
+    public void tornRecordIsDiscarded() throws IOException {
+        DiskSpool spool = DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+        spool.offer(payload("payload-0"));
+        spool.offer(payload("payload-1"));
+        spool.close();
+
+        // corrupt the last byte of the second record
+        try (Stream<Path> files = Files.list(directory)) {
+            Path segment = files.filter(file -> file.toString().endsWith(".segment")).findFirst().orElseThrow();
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] { 0 }), 43);
+            }
+        }
+
+        spool = DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+        Assertions.assertTrue(spool.offer(payload("payload-2")));
+        Assertions.assertEquals(List.of("payload-0", "payload-2"), drain(spool, 2));
+    }
+
+    @Test
+    public void rejectedRecordIsSkipped() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        HttpServer collector = vertx.createHttpServer().requestHandler(request -> request.body().onSuccess(body -> {
+            received.add(body.toString(UTF_8));
+            // the collector refuses the second record for good
+            request.response().setStatusCode(body.toString(UTF_8).equals("payload-1") ? 400 : 200).end();
+        })).listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        DiskSpool spool = DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+        for (int i = 0; i < 3; i++) {
+            spool.offer(payload("payload-" + i));
+        }
+        VertxHttpSender sender = sender(collector, spool, new ExportPressure());
+        try {
+            spool.drain();
+            Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 3);
+            Assertions.assertEquals(List.of("payload-0", "payload-1", "payload-2"), received);
+        } finally {
+            sender.shutdown().join(5, TimeUnit.SECONDS);
+        }
+
+        // the rejected record was committed along with the delivered ones
+        Assertions.assertEquals(List.of(), drain(DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000), 0));
+    }
+
+    @Test
+    public void spooledExportsCountAsFailures() throws Exception {
+        HttpServer collector = vertx.createHttpServer().requestHandler(request -> request.body()
+                .onSuccess(body -> request.response().setStatusCode(503).end()))
+                .listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        ExportPressure pressure = new ExportPressure();
+        VertxHttpSender sender = sender(collector, DiskSpool.open(directory, 4 * SEGMENT_SIZE, SEGMENT_SIZE, 1000),
+                pressure);
+        try {
+            Marshaler marshaler = new MarshalerWithSize(MarshalerUtil.sizeBytes(DATA, new byte[8])) {
+                @Override
+                protected void writeTo(Serializer output) throws IOException {
+                    output.serializeBytes(DATA, new byte[8]);
+                }
+            };
+            List<Integer> statusCodes = new CopyOnWriteArrayList<>();
+            sender.send(marshaler, marshaler.getBinarySerializedSize(),
+                    response -> statusCodes.add(response.statusCode()), t -> Assertions.fail(t));
+            Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> statusCodes.size() == 1);
+            // the export is spooled, but the collector did not accept it
+            Assertions.assertEquals(202, statusCodes.get(0));
+            Assertions.assertTrue(pressure.getPressure() > 0, pressure.getPressure() + " pressure");
+        } finally {
+            sender.shutdown().join(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private VertxHttpSender sender(HttpServer collector, DiskSpool spool, ExportPressure pressure) {
+        String uri = "http://localhost:" + collector.actualPort();
+        return new VertxHttpSender(
+                new EndpointSelector(List.of(new Endpoint(URI.create(uri), CircuitBreaker.disabled(uri))),
+                        EndpointSelector.POLICY_ROUND_ROBIN),
+                "/v1/traces", null, Duration.ofSeconds(10), Map.of(), "application/x-protobuf", options -> {
+                }, EncodingExecutor.callerThread(), 0, new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 0, 0),
+                InFlightLimiter.unlimited(), ConnectionRebalancer.disabled(), spool, SenderMetrics.noop(),
+                pressure, vertx);
+    }
+
+    private List<String> drain(DiskSpool spool, int expected) {
+        List<ExportPayload> delivered = new CopyOnWriteArrayList<>();
+        spool.start(vertx, new DiskSpool.Transport() {
+            @Override
+            public void send(ExportPayload payload, Consumer<DiskSpool.Delivery> onComplete) {
+                delivered.add(payload);
+                onComplete.accept(DiskSpool.Delivery.DELIVERED);
+            }
+        });
+        try {
+            spool.drain();
+            Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> delivered.size() >= expected);
+        } finally {
+            spool.close();
+        }
+        return delivered.stream().map(DiskSpoolTest::content).collect(Collectors.toList());
+    }
+
+    private static ExportPayload payload(String content) {
+        return ExportPayload.wrap(Unpooled.copiedBuffer(content, UTF_8), "gzip");
+    }
+
+    private static String content(ExportPayload payload) {
+        try {
+            Assertions.assertEquals("gzip", payload.encoding());
+            ByteBuffer bytes = ByteBuffer.allocate(payload.size());
+            payload.copyTo(bytes);
+            return new String(bytes.array(), UTF_8);
+        } finally {
+            payload.release();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
+public class EncodingExecutorTest {
+
+    private Vertx vertx;
+    private EncodingExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        vertx = Vertx.vertx();
+        executor = EncodingExecutor.workerPool("test-encoder", 1, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdown();
+        vertx.close();
+    }
+
+    @Test
+    public void failureHandledOnTheContext() {
+        Context context = vertx.getOrCreateContext();
+        AtomicReference<Context> failedOn = new AtomicReference<>();
+        executor.encode(new MarshalerWithSize(1) {
+            @Override
+            protected void writeTo(Serializer output) throws IOException {
+                throw new IOException("unable to serialize");
+            }
+        }, null, context, payload -> Assertions.fail("Encoded a failed request"),
+                failure -> failedOn.set(Vertx.currentContext()));
+
+        Awaitility.await().until(() -> failedOn.get() != null);
+        Assertions.assertSame(context, failedOn.get());
+    }
+}
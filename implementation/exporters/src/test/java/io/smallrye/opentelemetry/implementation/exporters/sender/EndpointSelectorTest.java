@@ -0,0 +1,122 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EndpointSelectorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Endpoint first = endpoint("http://first:4317");
+    private final Endpoint second = endpoint("http://second:4317");
+    private final Endpoint third = endpoint("http://third:4317");
+
+    @Test
+    public void roundRobin() {
+        EndpointSelector selector = selector(EndpointSelector.POLICY_ROUND_ROBIN);
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertSame(first, call(selector, true));
+            Assertions.assertSame(second, call(selector, true));
+            Assertions.assertSame(third, call(selector, true));
+        }
+    }
+
+    @Test
+    public void ejectsAndReadmits() {
+        EndpointSelector selector = selector(EndpointSelector.POLICY_ROUND_ROBIN);
+        // the first endpoint fails until its breaker opens
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertSame(first, call(selector, false));
+            call(selector, true);
+            call(selector, true);
+        }
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, first.getCircuitBreaker().getState());
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertNotSame(first, call(selector, true));
+        }
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        // the probe succeeds
+        while (call(selector, true) != first) {
+        }
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, first.getCircuitBreaker().getState());
+        Assertions.assertSame(second, call(selector, true));
+        Assertions.assertSame(third, call(selector, true));
+        Assertions.assertSame(first, call(selector, true));
+    }
+
+    @Test
+    public void allEjected() {
+        EndpointSelector selector = new EndpointSelector(List.of(first), EndpointSelector.POLICY_ROUND_ROBIN);
+        call(selector, false);
+        call(selector, false);
+        Assertions.assertNull(selector.select());
+        Assertions.assertEquals("first:4317", selector.describe());
+    }
+
+    @Test
+    public void leastOutstanding() {
+        EndpointSelector selector = selector(EndpointSelector.POLICY_LEAST_OUTSTANDING);
+        Endpoint busy = selector.select();
+        Endpoint other = selector.select();
+        Assertions.assertNotSame(busy, other);
+        other.onSuccess(clock.get());
+        // the busy endpoint is avoided until its request completes
+        for (int i = 0; i < 6; i++) {
+            Assertions.assertNotSame(busy, call(selector, true));
+        }
+        busy.onSuccess(clock.get());
+        Assertions.assertEquals(0, busy.getOutstanding());
+    }
+
+    @Test
+    public void latencyWeighted() {
+        EndpointSelector selector = selector(EndpointSelector.POLICY_LATENCY_WEIGHTED);
+        respond(first, 1);
+        respond(second, 100);
+        respond(third, 100);
+
+        int fastest = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (call(selector, true) == first) {
+                fastest++;
+            }
+        }
+        // the first endpoint is 100 times faster, so it gets about 98% of the calls
+        Assertions.assertTrue(fastest > 900, "calls to the fastest endpoint: " + fastest);
+    }
+
+    private Endpoint endpoint(String uri) {
+        URI endpointUri = URI.create(uri);
+        return new Endpoint(endpointUri, new CircuitBreaker(endpointUri.getHost() + ":" + endpointUri.getPort(), true,
+                2, 2, 100, Duration.ofSeconds(10), 100, Duration.ofSeconds(10), 1, clock::get));
+    }
+
+    private EndpointSelector selector(String policy) {
+        return new EndpointSelector(List.of(first, second, third), policy);
+    }
+
+    private Endpoint call(EndpointSelector selector, boolean succeeded) {
+        Endpoint endpoint = selector.select();
+        Assertions.assertNotNull(endpoint);
+        if (succeeded) {
+            endpoint.onSuccess(clock.get());
+        } else {
+            endpoint.onFailure(clock.get());
+        }
+        return endpoint;
+    }
+
+    private void respond(Endpoint endpoint, long millis) {
+        Assertions.assertTrue(endpoint.tryAcquire());
+        long start = clock.get();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        endpoint.onSuccess(start);
+    }
+}
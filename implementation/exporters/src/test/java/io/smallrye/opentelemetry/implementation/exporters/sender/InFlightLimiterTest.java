@@ -0,0 +1,81 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InFlightLimiterTest {
+
+    @Test
+    public void requestLimit() {
+        InFlightLimiter limiter = new InFlightLimiter(2, 0, InFlightLimiter.POLICY_REJECT, Duration.ZERO);
+        InFlightLimiter.Permit first = limiter.tryAcquire(100);
+        Assertions.assertNotNull(first);
+        Assertions.assertNotNull(limiter.tryAcquire(100));
+        Assertions.assertNull(limiter.tryAcquire(100));
+
+        first.release();
+        // releasing twice has no effect
+        first.release();
+        Assertions.assertEquals(1, limiter.getInFlightRequests());
+        Assertions.assertNotNull(limiter.tryAcquire(100));
+        Assertions.assertNull(limiter.tryAcquire(100));
+    }
+
+    @Test
+    public void byteLimit() {
+        InFlightLimiter limiter = new InFlightLimiter(0, 1000, InFlightLimiter.POLICY_DROP, Duration.ZERO);
+        Assertions.assertTrue(limiter.dropsOnLimit());
+        // a request larger than the limit is sent alone
+        InFlightLimiter.Permit large = limiter.tryAcquire(5000);
+        Assertions.assertNotNull(large);
+        Assertions.assertNull(limiter.tryAcquire(1));
+        large.release();
+
+        Assertions.assertNotNull(limiter.tryAcquire(600));
+        Assertions.assertNull(limiter.tryAcquire(600));
+        Assertions.assertNotNull(limiter.tryAcquire(400));
+        Assertions.assertEquals(1000, limiter.getInFlightBytes());
+    }
+
+    @Test
+    public void fill() {
+        Assertions.assertEquals(0, InFlightLimiter.unlimited().getFill());
+        InFlightLimiter limiter = new InFlightLimiter(4, 1000, InFlightLimiter.POLICY_REJECT, Duration.ZERO);
+        limiter.tryAcquire(100);
+        Assertions.assertEquals(0.25, limiter.getFill());
+        limiter.tryAcquire(700);
+        Assertions.assertEquals(0.8, limiter.getFill());
+    }
+
+    @Test
+    public void block() throws Exception {
+        InFlightLimiter limiter = new InFlightLimiter(1, 0, InFlightLimiter.POLICY_BLOCK, Duration.ofSeconds(5));
+        InFlightLimiter.Permit permit = limiter.tryAcquire(10);
+
+        CompletableFuture<InFlightLimiter.Permit> blocked = CompletableFuture.supplyAsync(() -> limiter.tryAcquire(10));
+        Thread.sleep(100);
+        Assertions.assertFalse(blocked.isDone());
+        permit.release();
+        Assertions.assertNotNull(blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void blockTimeout() {
+        InFlightLimiter limiter = new InFlightLimiter(1, 0, InFlightLimiter.POLICY_BLOCK, Duration.ofMillis(50));
+        limiter.tryAcquire(10);
+        Assertions.assertNull(limiter.tryAcquire(10));
+    }
+
+    @Test
+    public void unlimited() {
+        InFlightLimiter limiter = InFlightLimiter.unlimited();
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertNotNull(limiter.tryAcquire(Integer.MAX_VALUE));
+        }
+        Assertions.assertEquals(0, limiter.getInFlightRequests());
+    }
+}
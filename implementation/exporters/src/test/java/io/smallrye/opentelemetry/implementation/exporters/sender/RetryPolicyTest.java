@@ -0,0 +1,136 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.MultiMap;
+import io.vertx.grpc.common.GrpcStatus;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void retryableStatuses() {
+        Assertions.assertTrue(RetryPolicy.isRetryable(429));
+        Assertions.assertTrue(RetryPolicy.isRetryable(503));
+        Assertions.assertFalse(RetryPolicy.isRetryable(500));
+        Assertions.assertFalse(RetryPolicy.isRetryable(400));
+        Assertions.assertTrue(RetryPolicy.isRetryable(GrpcStatus.UNAVAILABLE));
+        Assertions.assertTrue(RetryPolicy.isRetryable(GrpcStatus.RESOURCE_EXHAUSTED));
+        Assertions.assertFalse(RetryPolicy.isRetryable(GrpcStatus.INVALID_ARGUMENT));
+        Assertions.assertFalse(RetryPolicy.isRetryable((GrpcStatus) null));
+    }
+
+    @Test
+    public void exponentialBackoff() {
+        RetryPolicy policy = new RetryPolicy(4, Duration.ofMillis(100), Duration.ofMillis(300), 0, 100);
+        Assertions.assertEquals(100, policy.nextDelayMillis(1, -1));
+        Assertions.assertEquals(200, policy.nextDelayMillis(2, -1));
+        Assertions.assertEquals(300, policy.nextDelayMillis(3, -1));
+        Assertions.assertEquals(-1, policy.nextDelayMillis(4, -1));
+
+        // the server delay is honoured, unless it is longer than the max backoff
+        Assertions.assertEquals(250, policy.nextDelayMillis(1, 250));
+        Assertions.assertEquals(-1, policy.nextDelayMillis(1, 301));
+    }
+
+    @Test
+    public void jitter() {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ofMillis(1000), Duration.ofMillis(1000), 0.5, 100);
+        for (int i = 0; i < 10; i++) {
+            policy.onRequest();
+            long delay = policy.nextDelayMillis(1, -1);
+            Assertions.assertTrue(delay >= 500 && delay <= 1000, "Unexpected delay " + delay);
+        }
+    }
+
+    @Test
+    public void budget() {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ZERO, Duration.ZERO, 0, 10);
+        // the reserve
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(0, policy.nextDelayMillis(1, -1));
+        }
+        Assertions.assertEquals(-1, policy.nextDelayMillis(1, -1));
+
+        // then one retry every 10 requests
+        for (int i = 0; i < 10; i++) {
+            policy.onRequest();
+        }
+        Assertions.assertEquals(0, policy.nextDelayMillis(1, -1));
+        Assertions.assertEquals(-1, policy.nextDelayMillis(1, -1));
+    }
+
+    @Test
+    public void retryAfter() {
+        Assertions.assertEquals(2000, RetryHints.fromRetryAfter("2"));
+        Assertions.assertEquals(-1, RetryHints.fromRetryAfter(null));
+        Assertions.assertEquals(-1, RetryHints.fromRetryAfter("soon"));
+        Assertions.assertEquals(0, RetryHints.fromRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        // a huge number of seconds does not overflow to a negative delay
+        Assertions.assertTrue(RetryHints.fromRetryAfter(String.valueOf(Long.MAX_VALUE / 10)) > 0);
+    }
+
+    @Test
+    public void grpcRetryInfo() {
+        // google.rpc.Status { code: 14, details: [ Any { RetryInfo { retry_delay: { seconds: 2, nanos: 500000000 } } } ] }
+        byte[] duration = concat(new byte[] { 1 << 3, 2, 2 << 3 }, varint(500_000_000));
+        byte[] retryInfo = field(1, duration);
+        byte[] any = concat(field(1, "type.googleapis.com/google.rpc.RetryInfo".getBytes(UTF_8)), field(2, retryInfo));
+        byte[] status = concat(new byte[] { 1 << 3, 14 }, field(3, any));
+
+        MultiMap trailers = MultiMap.caseInsensitiveMultiMap()
+                .add(RetryHints.GRPC_STATUS_DETAILS_BIN, Base64.getEncoder().withoutPadding().encodeToString(status));
+        Assertions.assertEquals(2500, RetryHints.fromGrpcMetadata(MultiMap.caseInsensitiveMultiMap(), trailers));
+
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap().add(RetryHints.GRPC_RETRY_PUSHBACK_MS, "300");
+        Assertions.assertEquals(300, RetryHints.fromGrpcMetadata(headers, MultiMap.caseInsensitiveMultiMap()));
+
+        headers = MultiMap.caseInsensitiveMultiMap().add(RetryHints.GRPC_STATUS_DETAILS_BIN, "not-a-status");
+        Assertions.assertEquals(-1, RetryHints.fromGrpcMetadata(headers, null));
+    }
+
+    @Test
+    public void truncatedGrpcRetryInfo() {
+        // the RetryInfo ends in the middle of the nanos varint, its enclosing lengths being consistent
+        byte[] duration = Arrays.copyOf(concat(new byte[] { 1 << 3, 2, 2 << 3 }, varint(500_000_000)), 5);
+        byte[] any = concat(field(1, "type.googleapis.com/google.rpc.RetryInfo".getBytes(UTF_8)),
+                field(2, field(1, duration)));
+        byte[] status = concat(new byte[] { 1 << 3, 14 }, field(3, any));
+        // and a status ending right after the tag of its code
+        for (byte[] truncated : List.of(status, new byte[] { 1 << 3 })) {
+            MultiMap trailers = MultiMap.caseInsensitiveMultiMap().add(RetryHints.GRPC_STATUS_DETAILS_BIN,
+                    Base64.getEncoder().withoutPadding().encodeToString(truncated));
+            Assertions.assertEquals(-1, RetryHints.fromGrpcMetadata(MultiMap.caseInsensitiveMultiMap(), trailers));
+        }
+    }
+
+    private static byte[] field(int number, byte[] value) {
+        return concat(new byte[] { (byte) (number << 3 | 2) }, varint(value.length), value);
+    }
+
+    private static byte[] varint(long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.HistogramPointData;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+
+public class SenderMetricsTest {
+
+    private final InMemoryMetricReader reader = InMemoryMetricReader.create();
+    private final SdkMeterProvider sdkMeterProvider = SdkMeterProvider.builder().registerMetricReader(reader).build();
+    private final AtomicReference<MeterProvider> meterProvider = new AtomicReference<>(MeterProvider.noop());
+    private final SenderMetrics metrics = new SenderMetrics(meterProvider::get, "otlp", "grpc", "span");
+
+    @Test
+    public void recordsOnceTheSdkIsAvailable() {
+        metrics.recordRetry();
+        metrics.requestStarted();
+        meterProvider.set(sdkMeterProvider);
+
+        metrics.requestStarted();
+        metrics.recordRetry();
+        metrics.recordPayload(1000, 300);
+        metrics.recordAttempt(System.nanoTime(), true);
+        metrics.requestCompleted();
+
+        Collection<MetricData> collected = reader.collectAllMetrics();
+        Assertions.assertEquals(1, sum(collected, "otlp.exporter.retries"));
+        // the requests started before the SDK are counted
+        Assertions.assertEquals(1, sum(collected, "otlp.exporter.requests.inflight"));
+
+        MetricData payloadSize = find(collected, "otlp.exporter.payload.size");
+        Assertions.assertEquals("io.opentelemetry.exporters.otlp-grpc", payloadSize.getInstrumentationScopeInfo().getName());
+        for (HistogramPointData point : payloadSize.getHistogramData().getPoints()) {
+            boolean compressed = point.getAttributes().get(AttributeKey.booleanKey("compressed"));
+            Assertions.assertEquals(compressed ? 300 : 1000, point.getSum());
+            Assertions.assertEquals("span", point.getAttributes().get(AttributeKey.stringKey("type")));
+        }
+
+        HistogramPointData duration = find(collected, "otlp.exporter.request.duration").getHistogramData().getPoints()
+                .iterator().next();
+        Assertions.assertEquals(1, duration.getCount());
+        Assertions.assertEquals(Attributes.builder().put("type", "span").put("success", true).build(),
+                duration.getAttributes());
+    }
+
+    @Test
+    public void noop() {
+        SenderMetrics noop = SenderMetrics.noop();
+        noop.requestStarted();
+        noop.recordAttempt(System.nanoTime(), false);
+        noop.requestCompleted();
+        Assertions.assertTrue(reader.collectAllMetrics().isEmpty());
+    }
+
+    private static MetricData find(Collection<MetricData> collected, String name) {
+        return collected.stream().filter(metric -> metric.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("Missing metric " + name));
+    }
+
+    private static long sum(Collection<MetricData> collected, String name) {
+        MetricData metric = find(collected, name);
+        Collection<LongPointData> points = metric.getLongSumData().getPoints().isEmpty()
+                ? metric.getLongGaugeData().getPoints()
+                : metric.getLongSumData().getPoints();
+        return points.stream().mapToLong(LongPointData::getValue).sum();
+    }
+}
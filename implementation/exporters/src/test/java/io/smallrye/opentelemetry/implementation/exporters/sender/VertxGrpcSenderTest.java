@@ -0,0 +1,130 @@
+package io.smallrye.opentelemetry.implementation.exporters.sender;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.exporter.internal.grpc.GrpcResponse;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.marshal.MarshalerUtil;
+import io.opentelemetry.exporter.internal.marshal.MarshalerWithSize;
+import io.opentelemetry.exporter.internal.marshal.ProtoFieldInfo;
+import io.opentelemetry.exporter.internal.marshal.Serializer;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.grpc.common.GrpcStatus;
+
+public class VertxGrpcSenderTest {
+
+    private static final ProtoFieldInfo DATA = ProtoFieldInfo.create(1, 10, "data");
+
+    private final List<HttpServerRequest> requests = new CopyOnWriteArrayList<>();
+    private final List<Buffer> bodies = new CopyOnWriteArrayList<>();
+    private Vertx vertx;
+    private VertxGrpcSender<Marshaler> sender;
+
+    @BeforeEach
+    public void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (sender != null) {
+            sender.shutdown().join(5, TimeUnit.SECONDS);
+        }
+        vertx.close();
+    }
+
+    @Test
+    public void unaryCall() throws Exception {
+        start(List.of("14", "0"));
+        Marshaler marshaler = marshaler();
+        GrpcResponse response = send(marshaler).get(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(GrpcStatus.OK.code, response.grpcStatusValue());
+        // the unavailable collector was retried
+        Assertions.assertEquals(2, requests.size());
+        HttpServerRequest request = requests.get(1);
+        Assertions.assertEquals("/opentelemetry.proto.collector.trace.v1.TraceService/Export", request.path());
+        Assertions.assertEquals("application/grpc", request.getHeader("content-type"));
+        Assertions.assertEquals("trailers", request.getHeader("te"));
+        // a single uncompressed message, prefixed by its compressed flag and its length
+        Buffer body = bodies.get(1);
+        Assertions.assertEquals(0, body.getByte(0));
+        Assertions.assertEquals(marshaler.getBinarySerializedSize(), body.getInt(1));
+        Assertions.assertEquals(5 + marshaler.getBinarySerializedSize(), body.length());
+    }
+
+    @Test
+    public void statusInTrailers() throws Exception {
+        start(List.of("3"));
+        Throwable failure = Assertions.assertThrows(Exception.class, () -> send(marshaler()).get(5, TimeUnit.SECONDS))
+                .getCause();
+        Assertions.assertInstanceOf(GrpcStatusException.class, failure);
+        Assertions.assertEquals(GrpcStatus.INVALID_ARGUMENT, ((GrpcStatusException) failure).getStatus());
+        Assertions.assertEquals("rejected spans", failure.getMessage());
+        Assertions.assertEquals(1, requests.size());
+    }
+
+    /**
+     * Starts a collector answering the successive requests with the given gRPC statuses, the last one repeated.
+     */
+    private void start(List<String> statuses) throws Exception {
+        HttpServer server = vertx.createHttpServer().requestHandler(request -> request.body().onSuccess(body -> {
+            requests.add(request);
+            bodies.add(body);
+            String status = statuses.get(Math.min(requests.size(), statuses.size()) - 1);
+            if ("0".equals(status)) {
+                // an empty ExportTraceServiceResponse
+                request.response().putHeader("content-type", "application/grpc").putTrailer("grpc-status", status)
+                        .end(Buffer.buffer(new byte[5]));
+            } else if ("14".equals(status)) {
+                // trailers-only
+                request.response().putHeader("content-type", "application/grpc").putHeader("grpc-status", status)
+                        .end();
+            } else {
+                request.response().putHeader("content-type", "application/grpc").putTrailer("grpc-status", status)
+                        .putTrailer("grpc-message", "rejected%20spans").end();
+            }
+        })).listen(0).toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        String uri = "http://localhost:" + server.actualPort();
+        sender = new VertxGrpcSender<>("span",
+                new EndpointSelector(List.of(new Endpoint(URI.create(uri), CircuitBreaker.disabled(uri))),
+                        EndpointSelector.POLICY_ROUND_ROBIN),
+                VertxGrpcSender.GRPC_TRACE_SERVICE_NAME, null, Duration.ofSeconds(10), Map.of(), options -> {
+                }, EncodingExecutor.callerThread(), new RetryPolicy(2, Duration.ZERO, Duration.ZERO, 0, 100),
+                InFlightLimiter.unlimited(), ConnectionRebalancer.disabled(), null, SenderMetrics.noop(),
+                new ExportPressure(), vertx);
+    }
+
+    private CompletableFuture<GrpcResponse> send(Marshaler marshaler) {
+        CompletableFuture<GrpcResponse> result = new CompletableFuture<>();
+        sender.send(marshaler, result::complete, result::completeExceptionally);
+        return result;
+    }
+
+    private static Marshaler marshaler() {
+        byte[] data = new byte[64];
+        return new MarshalerWithSize(MarshalerUtil.sizeBytes(DATA, data)) {
+            @Override
+            protected void writeTo(Serializer output) throws IOException {
+                output.serializeBytes(DATA, data);
+            }
+        };
+    }
+}
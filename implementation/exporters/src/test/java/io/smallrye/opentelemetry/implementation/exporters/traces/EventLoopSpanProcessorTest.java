@@ -0,0 +1,235 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.smallrye.opentelemetry.api.OpenTelemetryBuilderGetter;
+import io.smallrye.opentelemetry.implementation.exporters.AdaptiveBatchSize;
+import io.smallrye.opentelemetry.implementation.exporters.SharedVertx;
+import io.vertx.core.Context;
+
+public class EventLoopSpanProcessorTest {
+
+    @TempDir
+    Path directory;
+
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    public void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void fullBatchesExportedRightAway() {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        Tracer tracer = tracer(new EventLoopSpanProcessor(exporter, SharedVertx.acquire(), Duration.ofMinutes(1), 100,
+                10, Duration.ofSeconds(30)));
+
+        for (int i = 0; i < 25; i++) {
+            tracer.spanBuilder("span-" + i).startSpan().end();
+        }
+        // the 5 remaining spans wait for the schedule delay
+        Awaitility.await().until(() -> exporter.getFinishedSpanItems().size() == 20);
+
+        Assertions.assertTrue(tracerProvider.forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+        Assertions.assertEquals(25, exporter.getFinishedSpanItems().size());
+        Assertions.assertEquals("span-24", exporter.getFinishedSpanItems().get(24).getName());
+    }
+
+    @Test
+    public void partialBatchesExportedOnSchedule() {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        Tracer tracer = tracer(new EventLoopSpanProcessor(exporter, SharedVertx.acquire(), Duration.ofMillis(50), 100,
+                10, Duration.ofSeconds(30)));
+
+        tracer.spanBuilder("span").startSpan().end();
+        Awaitility.await().until(() -> exporter.getFinishedSpanItems().size() == 1);
+    }
+
+    @Test
+    public void batchesSizedByTheAdaptiveLimit() {
+        List<Integer> batches = new CopyOnWriteArrayList<>();
+        Tracer tracer = tracer(new EventLoopSpanProcessor(new TestExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                batches.add(spans.size());
+                return CompletableResultCode.ofSuccess();
+            }
+        }, SharedVertx.acquire(), Duration.ofMinutes(1), 100, 10, Duration.ofSeconds(30),
+                new AdaptiveBatchSize(25, 25, Duration.ofSeconds(1))));
+
+        for (int i = 0; i < 50; i++) {
+            tracer.spanBuilder("span-" + i).startSpan().end();
+        }
+        // full batches of the limit, above the maximum export batch size
+        Awaitility.await().until(() -> batches.equals(List.of(25, 25)));
+    }
+
+    @Test
+    public void exportedOffTheEventLoop() {
+        List<Boolean> onWorker = new CopyOnWriteArrayList<>();
+        Tracer tracer = tracer(new EventLoopSpanProcessor(new TestExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                onWorker.add(Context.isOnWorkerThread());
+                return CompletableResultCode.ofSuccess();
+            }
+        }, SharedVertx.acquire(), Duration.ofMinutes(1), 100, 10, Duration.ofSeconds(30)));
+
+        tracer.spanBuilder("span").startSpan().end();
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+        // the exporter may encode the batch or write it to a file, on a worker thread
+        Assertions.assertEquals(List.of(true), onWorker);
+    }
+
+    @Test
+    public void droppedWhenQueueFull() {
+        List<CompletableResultCode> exports = new CopyOnWriteArrayList<>();
+        AtomicBoolean blocked = new AtomicBoolean(true);
+        EventLoopSpanProcessor processor = new EventLoopSpanProcessor(new TestExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                CompletableResultCode result = blocked.get() ? new CompletableResultCode()
+                        : CompletableResultCode.ofSuccess();
+                exports.add(result);
+                return result;
+            }
+        }, SharedVertx.acquire(), Duration.ofMinutes(1), 16, 8, Duration.ofMinutes(1));
+        Tracer tracer = tracer(processor);
+
+        for (int i = 0; i < 8; i++) {
+            tracer.spanBuilder("span").startSpan().end();
+        }
+        Awaitility.await().until(() -> exports.size() == 1);
+        // a single batch is in flight, the queue holds 16 spans
+        for (int i = 0; i < 20; i++) {
+            tracer.spanBuilder("span").startSpan().end();
+        }
+        Assertions.assertEquals(4, processor.getDroppedSpans());
+
+        // the next batch is exported once the first one completes
+        exports.get(0).succeed();
+        Awaitility.await().until(() -> exports.size() == 2);
+        blocked.set(false);
+        exports.get(1).succeed();
+        Awaitility.await().until(() -> exports.size() == 3);
+    }
+
+    @Test
+    public void queueSizeNotRoundedUp() {
+        List<CompletableResultCode> exports = new CopyOnWriteArrayList<>();
+        AtomicBoolean blocked = new AtomicBoolean(true);
+        EventLoopSpanProcessor processor = new EventLoopSpanProcessor(new TestExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                CompletableResultCode result = blocked.get() ? new CompletableResultCode()
+                        : CompletableResultCode.ofSuccess();
+                exports.add(result);
+                return result;
+            }
+        }, SharedVertx.acquire(), Duration.ofMinutes(1), 12, 8, Duration.ofMinutes(1));
+        Tracer tracer = tracer(processor);
+
+        for (int i = 0; i < 8; i++) {
+            tracer.spanBuilder("span").startSpan().end();
+        }
+        Awaitility.await().until(() -> exports.size() == 1);
+        // the queue holds 12 spans, not the 16 of the next power of two
+        for (int i = 0; i < 20; i++) {
+            tracer.spanBuilder("span").startSpan().end();
+        }
+        Assertions.assertEquals(8, processor.getDroppedSpans());
+        blocked.set(false);
+        exports.get(0).succeed();
+    }
+
+    @Test
+    public void exportTimedOut() {
+        List<CompletableResultCode> exports = new CopyOnWriteArrayList<>();
+        Tracer tracer = tracer(new EventLoopSpanProcessor(new TestExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                CompletableResultCode result = new CompletableResultCode();
+                exports.add(result);
+                return result;
+            }
+        }, SharedVertx.acquire(), Duration.ofMinutes(1), 16, 1, Duration.ofMillis(50)));
+
+        tracer.spanBuilder("span-0").startSpan().end();
+        tracer.spanBuilder("span-1").startSpan().end();
+        Awaitility.await().until(() -> exports.size() == 2);
+    }
+
+    @Test
+    public void replacesTheBatchSpanProcessor() throws Exception {
+        Map<String, String> config = Map.of(
+                "otel.traces.exporter", "otlp-file",
+                "otel.metrics.exporter", "none",
+                "otel.logs.exporter", "none",
+                "otel.bsp.event.loop", "true",
+                "otel.exporter.file.directory", directory.toString());
+        OpenTelemetrySdk sdk = new OpenTelemetryBuilderGetter().apply(() -> config).build().getOpenTelemetrySdk();
+        try {
+            Assertions.assertTrue(sdk.getSdkTracerProvider().toString().contains("EventLoopSpanProcessor"));
+            Assertions.assertFalse(workerThreads().contains("BatchSpanProcessor_WorkerThread"));
+
+            sdk.getTracer("test").spanBuilder("span").startSpan().end();
+            Assertions.assertTrue(sdk.getSdkTracerProvider().forceFlush().join(10, TimeUnit.SECONDS).isSuccess());
+        } finally {
+            Assertions.assertTrue(sdk.shutdown().join(10, TimeUnit.SECONDS).isSuccess());
+        }
+        // the exporter was shut down with the event loop span processor, completing its segment
+        try (var files = Files.list(directory.resolve("span"))) {
+            Assertions.assertTrue(files.anyMatch(file -> file.toString().endsWith(".otlp")));
+        }
+    }
+
+    private Tracer tracer(EventLoopSpanProcessor processor) {
+        tracerProvider = SdkTracerProvider.builder().addSpanProcessor(processor).build();
+        return tracerProvider.get("test");
+    }
+
+    private static List<String> workerThreads() {
+        List<String> names = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            names.add(thread.getName());
+        }
+        return names;
+    }
+
+    private abstract static class TestExporter implements SpanExporter {
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
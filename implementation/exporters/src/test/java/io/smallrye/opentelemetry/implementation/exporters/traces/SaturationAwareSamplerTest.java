@@ -0,0 +1,183 @@
+package io.smallrye.opentelemetry.implementation.exporters.traces;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.IdGenerator;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.smallrye.opentelemetry.api.OpenTelemetryBuilderGetter;
+import io.smallrye.opentelemetry.implementation.exporters.ExportPressure;
+
+public class SaturationAwareSamplerTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicReference<Double> fill = new AtomicReference<>(0.0);
+    private final ExportPressure pressure = new ExportPressure();
+
+    @Test
+    public void pressureFromQueuesAndFailures() {
+        Assertions.assertEquals(0, pressure.getPressure());
+        pressure.register(fill::get);
+        fill.set(0.4);
+        Assertions.assertEquals(0.4, pressure.getPressure());
+
+        for (int i = 0; i < 20; i++) {
+            pressure.recordExport(false);
+        }
+        Assertions.assertTrue(pressure.getPressure() > 0.85, pressure.getPressure() + " pressure");
+        for (int i = 0; i < 50; i++) {
+            pressure.recordExport(true);
+        }
+        Assertions.assertEquals(0.4, pressure.getPressure(), 0.01);
+    }
+
+    @Test
+    public void ratioFollowsThePressure() {
+        pressure.register(fill::get);
+        SaturationAwareSampler sampler = new SaturationAwareSampler(Sampler.alwaysOn(), pressure, 0.5, 0.1,
+                Duration.ofSeconds(10));
+
+        fill.set(0.5);
+        sampler.update(0);
+        Assertions.assertEquals(1, sampler.getRatio());
+
+        // the ratio drops right away
+        fill.set(0.75);
+        sampler.update(SECOND);
+        Assertions.assertEquals(0.55, sampler.getRatio(), 0.001);
+        fill.set(1.0);
+        sampler.update(2 * SECOND);
+        Assertions.assertEquals(0.1, sampler.getRatio(), 0.001);
+
+        // and recovers smoothly, with the recovery time as time constant
+        fill.set(0.0);
+        sampler.update(12 * SECOND);
+        Assertions.assertEquals(1 - 0.9 * Math.exp(-1), sampler.getRatio(), 0.001);
+        sampler.update(22 * SECOND);
+        Assertions.assertEquals(1 - 0.9 * Math.exp(-2), sampler.getRatio(), 0.001);
+        sampler.update(102 * SECOND);
+        Assertions.assertEquals(1, sampler.getRatio());
+    }
+
+    @Test
+    public void sampledByTraceId() {
+        pressure.register(fill::get);
+        SaturationAwareSampler sampler = new SaturationAwareSampler(Sampler.alwaysOn(), pressure, 0, 0.2,
+                Duration.ofSeconds(10));
+        fill.set(1.0);
+        sampler.update(0);
+
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            String traceId = IdGenerator.random().generateTraceId();
+            SamplingDecision decision = sample(sampler, Context.root(), traceId);
+            // the decision is the same for every span of a trace without a local parent
+            Assertions.assertEquals(decision, sample(sampler, remoteParent(traceId), traceId));
+            if (decision == SamplingDecision.RECORD_AND_SAMPLE) {
+                sampled++;
+            }
+        }
+        Assertions.assertTrue(sampled > 1700 && sampled < 2300, sampled + " traces sampled");
+    }
+
+    @Test
+    public void ratioMultipliesTraceIdRatio() {
+        pressure.register(fill::get);
+        SaturationAwareSampler sampler = new SaturationAwareSampler(Sampler.traceIdRatioBased(0.1), pressure, 0, 0.1,
+                Duration.ofSeconds(10));
+        fill.set(1.0);
+        sampler.update(0);
+
+        int sampled = 0;
+        for (int i = 0; i < 100000; i++) {
+            String traceId = IdGenerator.random().generateTraceId();
+            if (sample(sampler, Context.root(), traceId) == SamplingDecision.RECORD_AND_SAMPLE) {
+                sampled++;
+            }
+        }
+        // 1% of the traces, not the 10% of the delegate
+        Assertions.assertTrue(sampled > 800 && sampled < 1200, sampled + " traces sampled");
+    }
+
+    @Test
+    public void localParentsFollowed() {
+        pressure.register(fill::get);
+        SaturationAwareSampler sampler = new SaturationAwareSampler(Sampler.parentBased(Sampler.alwaysOn()),
+                pressure, 0, 0, Duration.ofSeconds(10));
+        fill.set(1.0);
+        sampler.update(0);
+
+        String traceId = IdGenerator.random().generateTraceId();
+        Assertions.assertEquals(SamplingDecision.DROP, sample(sampler, Context.root(), traceId));
+        Assertions.assertEquals(SamplingDecision.DROP, sample(sampler, remoteParent(traceId), traceId));
+        Context localParent = Context.root().with(Span.wrap(SpanContext.create(traceId,
+                IdGenerator.random().generateSpanId(), TraceFlags.getSampled(), TraceState.getDefault())));
+        Assertions.assertEquals(SamplingDecision.RECORD_AND_SAMPLE, sample(sampler, localParent, traceId));
+    }
+
+    @Test
+    public void notSampledByTheDelegate() {
+        SaturationAwareSampler sampler = new SaturationAwareSampler(Sampler.alwaysOff(), pressure, 0.5, 0.1,
+                Duration.ofSeconds(10));
+        Assertions.assertEquals(SamplingDecision.DROP,
+                sample(sampler, Context.root(), IdGenerator.random().generateTraceId()));
+    }
+
+    @Test
+    public void invalidOptions() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new SaturationAwareSampler(Sampler.alwaysOn(), pressure, 1, 0.1, Duration.ofSeconds(10)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new SaturationAwareSampler(Sampler.alwaysOn(), pressure, 0.5, 2, Duration.ofSeconds(10)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new SaturationAwareSampler(Sampler.alwaysOn(), pressure, 0.5, 0.1, Duration.ZERO));
+    }
+
+    @Test
+    public void configured() {
+        Map<String, String> config = Map.of(
+                "otel.traces.exporter", "none",
+                "otel.metrics.exporter", "none",
+                "otel.logs.exporter", "none",
+                "otel.traces.sampler", "traceidratio",
+                "otel.traces.sampler.arg", "0.5",
+                "otel.traces.sampler.saturation.enabled", "true",
+                "otel.traces.sampler.saturation.min.ratio", "0.05");
+        OpenTelemetrySdk sdk = new OpenTelemetryBuilderGetter().apply(() -> config).build().getOpenTelemetrySdk();
+        try {
+            Sampler sampler = sdk.getSdkTracerProvider().getSampler();
+            Assertions.assertInstanceOf(SaturationAwareSampler.class, sampler);
+            Assertions.assertTrue(sampler.getDescription().contains("TraceIdRatioBased{0.500000}"),
+                    sampler.getDescription());
+            Assertions.assertTrue(sampler.getDescription().contains("minRatio=0.05"), sampler.getDescription());
+        } finally {
+            sdk.shutdown().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Context remoteParent(String traceId) {
+        return Context.root().with(Span.wrap(SpanContext.createFromRemoteParent(traceId,
+                IdGenerator.random().generateSpanId(), TraceFlags.getSampled(), TraceState.getDefault())));
+    }
+
+    private static SamplingDecision sample(Sampler sampler, Context parentContext, String traceId) {
+        return sampler.shouldSample(parentContext, traceId, "span", SpanKind.INTERNAL, Attributes.empty(), List.of())
+                .getDecision();
+    }
+}
@@ -0,0 +1,120 @@
+package io.smallrye.opentelemetry.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.exporter.internal.marshal.Marshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.LowAllocationTraceRequestMarshaler;
+import io.opentelemetry.exporter.internal.otlp.traces.TraceRequestMarshaler;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import io.smallrye.opentelemetry.implementation.exporters.MarshalerPool;
+import io.smallrye.opentelemetry.implementation.exporters.RequestSplitter;
+
+/**
+ * Serializes a batch of spans as the Vert.x span exporter does, in both memory modes, to a stream discarding the
+ * bytes.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar SpanExportBenchmark -prof gc}: as an operation is a span,
+ * {@code gc.alloc.rate.norm} is the number of bytes allocated per exported span.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpanExportBenchmark {
+
+    private static final int BATCH_SIZE = 512;
+
+    @Param({ "IMMUTABLE_DATA", "REUSABLE_DATA" })
+    private MemoryMode memoryMode;
+
+    private List<SpanData> spans;
+    private RequestSplitter<SpanData, ? extends Marshaler> splitter;
+
+    @Setup
+    public void setUp() {
+        Resource resource = Resource.getDefault().merge(Resource.create(Attributes.of(
+                AttributeKey.stringKey("service.name"), "benchmark", AttributeKey.stringKey("host.name"), "localhost")));
+        InstrumentationScopeInfo scope = InstrumentationScopeInfo.create("benchmark");
+        spans = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            SpanContext context = SpanContext.create(String.format("%032x", i + 1), String.format("%016x", i + 1),
+                    TraceFlags.getSampled(), TraceState.getDefault());
+            spans.add(TestSpanData.builder()
+                    .setSpanContext(context)
+                    .setName("GET /resource/" + (i % 8))
+                    .setKind(SpanKind.SERVER)
+                    .setStartEpochNanos(1_000_000L * i)
+                    .setEndEpochNanos(1_000_000L * i + 500_000L)
+                    .setHasEnded(true)
+                    .setStatus(StatusData.ok())
+                    .setAttributes(Attributes.of(AttributeKey.stringKey("http.request.method"), "GET",
+                            AttributeKey.longKey("http.response.status_code"), 200L,
+                            AttributeKey.stringKey("url.path"), "/resource/" + (i % 8)))
+                    .setEvents(List.of(EventData.create(1_000_000L * i + 100_000L, "event", Attributes.empty())))
+                    .setTotalRecordedEvents(1)
+                    .setResource(resource)
+                    .setInstrumentationScopeInfo(scope)
+                    .build());
+        }
+
+        if (memoryMode == MemoryMode.REUSABLE_DATA) {
+            MarshalerPool<SpanData, LowAllocationTraceRequestMarshaler> pool = createPool();
+            splitter = new RequestSplitter<>(0, pool::acquire, pool::release);
+        } else {
+            splitter = new RequestSplitter<>(0, TraceRequestMarshaler::create);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public CompletableResultCode export() {
+        return splitter.export(spans, SpanExportBenchmark::write);
+    }
+
+    private static MarshalerPool<SpanData, LowAllocationTraceRequestMarshaler> createPool() {
+        return new MarshalerPool<>(LowAllocationTraceRequestMarshaler::new, LowAllocationTraceRequestMarshaler::initialize,
+                LowAllocationTraceRequestMarshaler::reset);
+    }
+
+    private static CompletableResultCode write(Marshaler marshaler, int itemCount) {
+        try {
+            marshaler.writeBinaryTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+}